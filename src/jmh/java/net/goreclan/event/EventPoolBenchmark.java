@@ -0,0 +1,88 @@
+/**
+ * Pooled vs allocating events: parse a hit, a kill and a say line, then dispatch
+ * (release) the event, as the EventProcessor does. Run with -prof gc to compare
+ * the allocation rate as well as the throughput.
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.event
+ **/
+
+package net.goreclan.event;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.goreclan.parser.Parser;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventPoolBenchmark {
+
+    private static final String[] LINES = {
+        "  0:01 Hit: 1 0 5 19: Fenix hit Bob in the Torso",
+        "  0:02 Kill: 0 1 19: Fenix killed Bob by UT_MOD_LR300",
+        "  0:03 say: 1 Bob: gg",
+    };
+
+    @Param({ "false", "true" })
+    public boolean pooled;
+
+    private final BlockingQueue<Event> queue = new ArrayBlockingQueue<Event>(16);
+    private Parser parser;
+    private int next;
+
+
+    @Setup
+    public void setUp() throws InterruptedException {
+
+        Logger logger = Logger.getLogger(EventPoolBenchmark.class);
+        logger.setLevel(Level.OFF);
+
+        this.parser = new Parser(logger);
+        if (this.pooled) this.parser.setEventPool(new EventPool());
+
+        this.parser.parseLine("  0:00 ClientConnect: 0", this.queue);
+        this.parser.parseLine("  0:00 ClientUserinfo: 0 \\ip\\10.0.0.1:27960\\name\\Fenix", this.queue);
+        this.parser.parseLine("  0:00 ClientConnect: 1", this.queue);
+        this.parser.parseLine("  0:00 ClientUserinfo: 1 \\ip\\10.0.0.2:27960\\name\\Bob", this.queue);
+        this.queue.clear();
+
+    }
+
+
+    @Benchmark
+    public EventType parseAndDispatch() throws InterruptedException {
+
+        this.parser.parseLine(LINES[this.next], this.queue);
+        this.next = (this.next + 1) % LINES.length;
+
+        Event event = this.queue.poll();
+        EventType type = event.getType();
+        event.release();
+
+        return type;
+
+    }
+
+}
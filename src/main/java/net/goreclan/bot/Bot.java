@@ -10,8 +10,12 @@
 package net.goreclan.bot;
 
 import java.io.OutputStreamWriter;
+import java.util.EnumSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.HierarchicalINIConfiguration;
@@ -24,9 +28,18 @@ import org.apache.log4j.Logger;
 import org.apache.log4j.PatternLayout;
 
 import net.goreclan.console.UrTConsole;
+import net.goreclan.event.Event;
+import net.goreclan.event.EventPool;
+import net.goreclan.event.EventType;
+import net.goreclan.parser.HitAggregator;
 import net.goreclan.parser.Parser;
 import net.goreclan.plugin.Plugin;
+import net.goreclan.reader.LogCheckpoint;
+import net.goreclan.reader.LogReader;
 import net.goreclan.utility.DataSourceManager;
+import net.goreclan.utility.EventProcessor;
+import net.goreclan.utility.EventRingBuffer;
+import net.goreclan.utility.PriorityEventQueue;
 
 public class Bot {
 	
@@ -38,6 +51,8 @@ public class Bot {
 	public static HierarchicalINIConfiguration config;					// Main configuration .ini file.
 	public static UrTConsole console;										// Urban Terror 4.2 console utility.
 	public static Parser parser;										// Urban Terror 4.2 log parser.
+	public static LogReader reader;										// Urban Terror 4.2 games.log reader.
+	public static EventProcessor processor;								// Events processor/dispatcher.
 	
 	public static Map<String, String> game;								// Hold current game cvars settings.
 	public static Map<String, Plugin> plugins;							// Hold loaded BOT plugins.
@@ -105,6 +120,52 @@ public class Bot {
 			// Creating a Map where to store game cvars.
 			game = new LinkedHashMap<String, String>();
 			
+			// Creating the console, if the server RCON is configured.
+			if (config.containsKey("rcon.address")) {
+				console = new UrTConsole(config.getString("rcon.address"), config.getInt("rcon.port", 27960), config.getString("rcon.password"), log);
+				console.setChaining(config.getBoolean("rcon.chaining", false));
+			}
+			
+			// Creating the event pipeline: the LogReader feeds the Parser with
+			// games.log lines and the produced events are dispatched by the EventProcessor.
+			BlockingQueue<Event> eventQueue = new EventRingBuffer(config.getInt("processor.queue", 4096), EventRingBuffer.Policy.valueOf(config.getString("processor.policy", "BLOCK")));
+			
+			// Chat (admin commands), votes and connections skip the telemetry backlog:
+			// the LogReader never waits on a full telemetry lane, it spills instead.
+			if (config.getBoolean("processor.lanes", false)) {
+				
+				// Telemetry events are dropped once the spill is full as well.
+				Set<EventType> telemetry = PriorityEventQueue.DEFAULT_TELEMETRY;
+				
+				if (config.containsKey("processor.telemetry")) {
+					telemetry = EnumSet.noneOf(EventType.class);
+					for (String name : config.getStringArray("processor.telemetry")) {
+						if (!name.trim().isEmpty()) telemetry.add(EventType.valueOf(name.trim()));
+					}
+				}
+				
+				eventQueue = new PriorityEventQueue(new EventRingBuffer(1024, EventRingBuffer.Policy.BLOCK), eventQueue, PriorityEventQueue.DEFAULT_HIGH_PRIORITY, PriorityEventQueue.DEFAULT_MAX_BURST, config.getInt("processor.spill", 4096), telemetry);
+				
+			}
+			
+			parser = new Parser(logger);
+			processor = new EventProcessor(eventQueue, config.getInt("processor.workers", 1), log);
+			processor.setSlowHandlerThreshold(config.getLong("processor.slow", 100), TimeUnit.MILLISECONDS);
+			processor.setHandlerBudget(config.getLong("processor.budget", 0), TimeUnit.MILLISECONDS);
+			
+			if (config.getBoolean("parser.aggregate", false))
+				parser.setHitAggregator(new HitAggregator(config.getLong("parser.interval", 0), TimeUnit.SECONDS, processor));
+			
+			if (config.getBoolean("parser.pooled", false))
+				parser.setEventPool(new EventPool());
+			
+			reader = new LogReader(config.getString("server.log"), parser, eventQueue, new LogCheckpoint(config.getString("server.checkpoint")), log);
+			
+			new Thread(processor, "EventProcessor").start();
+			new Thread(reader, "LogReader").start();
+			
+			log.info("Event pipeline started: " + config.getString("server.log"));
+			
 		} catch (ConfigurationException e) {
 			e.printStackTrace();
 		}
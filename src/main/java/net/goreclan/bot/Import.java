@@ -0,0 +1,451 @@
+/**
+ * Bulk games.log import.
+ *
+ * Push a (multi-gigabyte) historical games.log archive through the event pipeline,
+ * so that plugins can rebuild aliases and statistics. The archive is memory mapped
+ * in chunks and processed in three steps:
+ *
+ *   1. chunk boundaries are moved to the next line start, in parallel
+ *   2. chunks are split into lines and decoded by the parser, in parallel: Hit and
+ *      Kill lines (the vast majority) are fully tokenized, while lines which are
+ *      not of any interest (Item, ClientBegin...) are discarded
+ *   3. decoded lines are applied to the parser session state (slot/client table)
+ *      and the produced events dispatched, sequentially and in chunk order
+ *
+ * Step 3 is what makes the import correct: a client connected in a chunk keeps on
+ * playing in the following ones. Only a bounded window of chunks is decoded ahead.
+ *
+ * Usage: Import <games.log> [<log level>]
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.bot
+ **/
+
+package net.goreclan.bot;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration.ConfigurationException;
+import org.apache.commons.logging.Log;
+
+import net.goreclan.event.Event;
+import net.goreclan.parser.LineTokenizer;
+import net.goreclan.parser.Parser;
+import net.goreclan.plugin.Plugin;
+import net.goreclan.reader.MappedLine;
+import net.goreclan.utility.EventProcessor;
+
+public class Import {
+
+	private static final long CHUNK_SIZE = 64L * 1024 * 1024;
+	private static final int SCAN_SIZE = 64 * 1024;
+
+	private final Parser parser;
+	private final EventProcessor processor;
+	private final BlockingQueue<Event> eventQueue;
+	private final ForkJoinPool pool;
+	private final MappedLine line;
+
+	private long lines;
+	private long events;
+	private long malformed;
+
+	/**
+	 * Object constructor.
+	 *
+	 * @author agent
+	 * @param  parser The log parser used to decode and apply lines
+	 * @param  processor The event processor dispatching the produced events
+	 * @param  eventQueue The queue where the parser puts the produced events
+	 * @param  pool The pool where chunks are decoded
+	 * @return Import
+	 **/
+	public Import(Parser parser, EventProcessor processor, BlockingQueue<Event> eventQueue, ForkJoinPool pool) {
+
+		if (parser == null || processor == null || eventQueue == null || pool == null)
+			throw new NullPointerException();
+
+		this.parser = parser;
+		this.processor = processor;
+		this.eventQueue = eventQueue;
+		this.pool = pool;
+		this.line = new MappedLine();
+
+	}
+
+	/**
+	 * Import the given games.log archive.
+	 *
+	 * @author agent
+	 * @param  path The games.log archive path
+	 * @throws IOException If the archive can't be read
+	 * @throws InterruptedException If interrupted while waiting for a chunk to be decoded
+	 **/
+	public void run(Path path) throws IOException, InterruptedException {
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+			long[] bounds = this.getBoundaries(channel);
+			Deque<Future<Chunk>> pending = new ArrayDeque<Future<Chunk>>();
+			int window = this.pool.getParallelism() * 2;
+			int next = 0;
+
+			while (next < bounds.length - 1 || !pending.isEmpty()) {
+
+				// Keep a bounded number of chunks being decoded ahead of the one being applied.
+				while (next < bounds.length - 1 && pending.size() < window) {
+					pending.add(this.pool.submit(new Decoder(channel, bounds[next], bounds[next + 1])));
+					next++;
+				}
+
+				this.apply(get(pending.poll()));
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * @author agent
+	 * @return long
+	 **/
+	public long getLines() {
+		return this.lines;
+	}
+
+	/**
+	 * @author agent
+	 * @return long
+	 **/
+	public long getEvents() {
+		return this.events;
+	}
+
+	/**
+	 * @author agent
+	 * @return long
+	 **/
+	public long getMalformed() {
+		return this.malformed;
+	}
+
+	/**
+	 * Split the archive in chunks of about CHUNK_SIZE bytes, each one
+	 * starting at the beginning of a line. Boundaries are searched in parallel.
+	 *
+	 * @author agent
+	 * @param  channel The games.log archive channel
+	 * @throws IOException If the archive can't be read
+	 * @throws InterruptedException If interrupted while waiting for the boundaries
+	 * @return long[]. The offsets of the chunk boundaries, the last one being the archive size
+	 **/
+	private long[] getBoundaries(final FileChannel channel) throws IOException, InterruptedException {
+
+		final long size = channel.size();
+		int count = (int) Math.max(1, (size + CHUNK_SIZE - 1) / CHUNK_SIZE);
+
+		List<Callable<Long>> tasks = new ArrayList<Callable<Long>>(count);
+		for (int i = 1; i < count; i++) {
+			final long offset = i * CHUNK_SIZE;
+			tasks.add(new Callable<Long>() {
+				@Override
+				public Long call() throws IOException {
+					return getLineStart(channel, offset, size);
+				}
+			});
+		}
+
+		long[] bounds = new long[count + 1];
+		List<Future<Long>> results = this.pool.invokeAll(tasks);
+		for (int i = 0; i < results.size(); i++)
+			bounds[i + 1] = get(results.get(i));
+
+		bounds[count] = size;
+		return bounds;
+
+	}
+
+	/**
+	 * Apply the lines of a decoded chunk and dispatch the produced events.
+	 *
+	 * @author agent
+	 * @param  chunk The decoded chunk
+	 * @throws InterruptedException If interrupted while putting events in the queue
+	 **/
+	private void apply(Chunk chunk) throws InterruptedException {
+
+		for (int i = 0; i < chunk.count; i++) {
+
+			this.line.reset(chunk.buffer, chunk.starts[i], chunk.ends[i]);
+			this.parser.apply(chunk.formats[i], chunk.fields, i * Parser.FIELDS, chunk.time, this.line, this.eventQueue);
+
+			Event event;
+			while ((event = this.eventQueue.poll()) != null) {
+				this.processor.dispatch(event);
+				this.events++;
+			}
+
+		}
+
+		this.lines += chunk.lines;
+		this.malformed += chunk.malformed;
+
+	}
+
+	/**
+	 * Return the offset of the 1st line starting at or after the given offset.
+	 *
+	 * @author agent
+	 * @param  channel The games.log archive channel
+	 * @param  offset The offset from which to start searching
+	 * @param  size The archive size
+	 * @throws IOException If the archive can't be read
+	 * @return long. This will return the archive size if there is no line after the given offset
+	 **/
+	private static long getLineStart(FileChannel channel, long offset, long size) throws IOException {
+
+		// The line terminator right before the offset counts as well.
+		long position = offset - 1;
+
+		while (position < size) {
+
+			int length = (int) Math.min(SCAN_SIZE, size - position);
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+			for (int i = 0; i < length; i++) {
+				if (buffer.get(i) == '\n')
+					return position + i + 1;
+			}
+
+			position += length;
+
+		}
+
+		return size;
+
+	}
+
+	/**
+	 * Wait for the given task to complete and return its result.
+	 *
+	 * @author agent
+	 * @param  future The task result
+	 * @throws IOException If the task failed in reading the archive
+	 * @throws InterruptedException If interrupted while waiting for the task
+	 * @return T
+	 **/
+	private static <T> T get(Future<T> future) throws IOException, InterruptedException {
+
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+			if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+			throw new IOException(e.getCause());
+		}
+
+	}
+
+	/**
+	 * A memory mapped archive chunk together with its decoded lines.
+	 * Only the lines of interest for the parser are kept.
+	 **/
+	private static class Chunk {
+
+		private static final int INITIAL_LINES = 1024;
+
+		private final MappedByteBuffer buffer;
+		// Ingest time of all the chunk lines: the time the chunk has been mapped.
+		private final long time;
+
+		private int count;
+		private int[] starts;
+		private int[] ends;
+		private String[] formats;
+		private int[] fields;
+
+		private int lines;
+		private int malformed;
+
+		/**
+		 * Object constructor.
+		 *
+		 * @author agent
+		 * @param  buffer The mapped chunk
+		 * @return Chunk
+		 **/
+		private Chunk(MappedByteBuffer buffer) {
+			// Arrays grow with the decoded lines: sizing them on the chunk size would
+			// take tens of MB per chunk being decoded, whatever the line count.
+			int capacity = INITIAL_LINES;
+			this.buffer = buffer;
+			this.time = System.nanoTime();
+			this.starts = new int[capacity];
+			this.ends = new int[capacity];
+			this.formats = new String[capacity];
+			this.fields = new int[capacity * Parser.FIELDS];
+		}
+
+		/**
+		 * Make room for one more decoded line.
+		 *
+		 * @author agent
+		 **/
+		private void grow() {
+
+			if (this.count < this.starts.length)
+				return;
+
+			int capacity = this.starts.length * 2;
+			this.starts = Arrays.copyOf(this.starts, capacity);
+			this.ends = Arrays.copyOf(this.ends, capacity);
+			this.formats = Arrays.copyOf(this.formats, capacity);
+			this.fields = Arrays.copyOf(this.fields, capacity * Parser.FIELDS);
+
+		}
+
+	}
+
+	/**
+	 * Task mapping an archive chunk and decoding its lines.
+	 **/
+	private static class Decoder implements Callable<Chunk> {
+
+		private final FileChannel channel;
+		private final long start;
+		private final long end;
+
+		/**
+		 * Object constructor.
+		 *
+		 * @author agent
+		 * @param  channel The games.log archive channel
+		 * @param  start The offset of the 1st chunk byte (a line start)
+		 * @param  end The offset following the last chunk byte
+		 * @return Decoder
+		 **/
+		private Decoder(FileChannel channel, long start, long end) {
+			this.channel = channel;
+			this.start = start;
+			this.end = end;
+		}
+
+		/**
+		 * Map the chunk and decode its lines.
+		 *
+		 * @author agent
+		 * @throws IOException If the chunk can't be mapped
+		 * @return Chunk
+		 **/
+		@Override
+		public Chunk call() throws IOException {
+
+			Chunk chunk = new Chunk(this.channel.map(FileChannel.MapMode.READ_ONLY, this.start, this.end - this.start));
+			LineTokenizer tokenizer = new LineTokenizer();
+			MappedLine line = new MappedLine();
+			int limit = chunk.buffer.limit();
+			int index = 0;
+
+			while (index < limit) {
+
+				int end = index;
+				while (end < limit && chunk.buffer.get(end) != '\n')
+					end++;
+
+				chunk.grow();
+				line.reset(chunk.buffer, index, end);
+				chunk.lines++;
+
+				try {
+
+					String lineformat = Parser.decode(line, tokenizer, chunk.fields, chunk.count * Parser.FIELDS);
+
+					if (lineformat != null) {
+						chunk.starts[chunk.count] = index;
+						chunk.ends[chunk.count] = end;
+						chunk.formats[chunk.count] = lineformat;
+						chunk.count++;
+					}
+
+				} catch (NumberFormatException e) {
+					chunk.malformed++;
+				}
+
+				index = end + 1;
+
+			}
+
+			return chunk;
+
+		}
+
+	}
+
+	/**
+	 * Import a games.log archive.
+	 *
+	 * @author agent
+	 * @param args The games.log archive path and an optional log level
+	 **/
+	public static void main(String[] args) {
+
+		if (args.length < 1) {
+			System.err.println("Usage: " + Import.class.getName() + " <games.log> [<log level>]");
+			System.exit(1);
+		}
+
+		OfflinePipeline pipeline = new OfflinePipeline("import", args.length > 1 ? args[1] : null);
+		Log log = pipeline.getLog();
+		Path path = Paths.get(args[0]);
+		ForkJoinPool pool = new ForkJoinPool();
+
+		try {
+
+			Import importer = new Import(pipeline.getParser(), pipeline.getProcessor(), pipeline.getEventQueue(), pool);
+			Map<String, Plugin> plugins = pipeline.loadPlugins();
+
+			log.info("Importing " + path + " [ plugins : " + plugins.keySet() + " | threads : " + pool.getParallelism() + " ]");
+
+			long start = System.nanoTime();
+			importer.run(path);
+			long elapsed = Math.max(1, System.nanoTime() - start);
+
+			double seconds = (double) elapsed / TimeUnit.SECONDS.toNanos(1);
+			System.out.println(String.format("Imported %s: %d lines (%d malformed), %d events, %d console commands in %.3f s [ %.0f lines/sec | %.0f events/sec ]",
+					path, importer.getLines(), importer.getMalformed(), importer.getEvents(), pipeline.getConsole().getCount(), seconds, importer.getLines() / seconds, importer.getEvents() / seconds));
+
+			pipeline.printMetrics();
+
+		} catch (ConfigurationException | IOException e) {
+			log.fatal("Unable to import log file: " + path, e);
+			System.exit(1);
+		} catch (InterruptedException e) {
+			log.fatal("Import interrupted: " + path);
+			System.exit(1);
+		} finally {
+			pool.shutdown();
+		}
+
+	}
+
+}
@@ -0,0 +1,189 @@
+/**
+ * Event pipeline shared by the offline tools (Replay and Import).
+ *
+ * Wire a Parser and a synchronous EventProcessor together with the plugins listed
+ * in the main configuration file, which talk to a RecordingConsole instead of a
+ * live server. Logging everything while processing an archive would just measure
+ * log4j: only warnings are printed unless a log level is specified.
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.bot
+ **/
+
+package net.goreclan.bot;
+
+import java.io.OutputStreamWriter;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.commons.configuration.ConfigurationException;
+import org.apache.commons.configuration.HierarchicalINIConfiguration;
+import org.apache.commons.configuration.SubnodeConfiguration;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.impl.Log4JLogger;
+import org.apache.log4j.ConsoleAppender;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PatternLayout;
+
+import net.goreclan.console.RecordingConsole;
+import net.goreclan.event.Event;
+import net.goreclan.parser.Parser;
+import net.goreclan.plugin.Plugin;
+import net.goreclan.utility.DataSourceManager;
+import net.goreclan.utility.EventProcessor;
+import net.goreclan.utility.HandlerMetrics;
+
+class OfflinePipeline {
+
+	private static final String CONFIG = "conf/main.ini";
+	private static final int EVENT_QUEUE_SIZE = 16;
+
+	private final Log log;
+	private final RecordingConsole console;
+	private final BlockingQueue<Event> eventQueue;
+	private final EventProcessor processor;
+	private final Parser parser;
+
+
+	/**
+	 * Object constructor.
+	 *
+	 * @author agent
+	 * @param  name The logger name
+	 * @param  level The log level (may be null)
+	 * @return OfflinePipeline
+	 **/
+	OfflinePipeline(String name, String level) {
+
+		Logger logger = createLogger(name, level);
+
+		this.log = new Log4JLogger(logger);
+		this.console = new RecordingConsole(false, this.log);
+		this.eventQueue = new ArrayBlockingQueue<Event>(EVENT_QUEUE_SIZE);
+		this.processor = new EventProcessor(this.eventQueue, this.log);
+		this.parser = new Parser(logger);
+
+	}
+
+
+	/**
+	 * Load the plugins listed in the main configuration file and subscribe
+	 * their event handlers. Plugins backfilling statistics need the database:
+	 * the DataSourceManager is initialized as well.
+	 *
+	 * @author agent
+	 * @throws ConfigurationException If the main configuration file can't be loaded
+	 * @return Map<String, Plugin>
+	 **/
+	Map<String, Plugin> loadPlugins() throws ConfigurationException {
+
+		HierarchicalINIConfiguration config = new HierarchicalINIConfiguration(CONFIG);
+
+		DataSourceManager.setDCS(config.getString("database.dcs"));
+		DataSourceManager.setUsername(config.getString("database.username"));
+		DataSourceManager.setPassword(config.getString("database.password"));
+
+		Map<String, Plugin> plugins = new LinkedHashMap<String, Plugin>();
+		SubnodeConfiguration section = config.getSection("plugins");
+		Iterator<String> i = section.getKeys();
+
+		while (i.hasNext()) {
+			String name = i.next();
+			Plugin plugin = Plugin.buildPlugin(this.console, this.log, name, section.getString(name));
+			if (plugin == null) continue;
+			this.processor.registerEvents(plugin);
+			plugins.put(name, plugin);
+		}
+
+		return plugins;
+
+	}
+
+
+	/**
+	 * Print the per handler dispatch metrics: which plugin is slowing down the pipeline.
+	 *
+	 * @author agent
+	 **/
+	void printMetrics() {
+		for (HandlerMetrics metrics : this.processor.getMetrics())
+			System.out.println(metrics);
+	}
+
+
+	/**
+	 * @author agent
+	 * @return Log
+	 **/
+	Log getLog() {
+		return this.log;
+	}
+
+
+	/**
+	 * @author agent
+	 * @return RecordingConsole
+	 **/
+	RecordingConsole getConsole() {
+		return this.console;
+	}
+
+
+	/**
+	 * @author agent
+	 * @return BlockingQueue<Event>
+	 **/
+	BlockingQueue<Event> getEventQueue() {
+		return this.eventQueue;
+	}
+
+
+	/**
+	 * @author agent
+	 * @return EventProcessor
+	 **/
+	EventProcessor getProcessor() {
+		return this.processor;
+	}
+
+
+	/**
+	 * @author agent
+	 * @return Parser
+	 **/
+	Parser getParser() {
+		return this.parser;
+	}
+
+
+	/**
+	 * Create the logger used by the offline tools.
+	 *
+	 * @author agent
+	 * @param  name The logger name
+	 * @param  level The log level (may be null)
+	 * @return Logger
+	 **/
+	private static Logger createLogger(String name, String level) {
+
+		ConsoleAppender consoleAppender = new ConsoleAppender();
+		consoleAppender.setLayout(new PatternLayout("%-20d{yyyy-MM-dd hh:mm:ss} %-6p [%t]: %m%n"));
+		consoleAppender.setWriter(new OutputStreamWriter(System.out));
+		consoleAppender.setName("CONSOLE");
+		consoleAppender.activateOptions();
+
+		Logger logger = Logger.getLogger(name);
+		logger.addAppender(consoleAppender);
+		logger.setLevel(level != null ? Level.toLevel(level) : Level.WARN);
+
+		return logger;
+
+	}
+
+}
@@ -0,0 +1,242 @@
+/**
+ * Offline games.log replay.
+ *
+ * Push an archived games.log (optionally gzip compressed) through the whole
+ * event pipeline as fast as possible: every line is handed to the Parser and
+ * the produced events are dispatched synchronously by the EventProcessor to
+ * the loaded plugins. RCON commands issued by the plugins are recorded by a
+ * RecordingConsole instead of being sent to a live server. This is meant to
+ * backfill statistics after an outage and to load-test plugins against real
+ * match data: lines/sec and events/sec are reported once the replay ends.
+ * With --pooled the high frequency events are recycled through an EventPool: the
+ * garbage collections performed during the replay are reported as well, so that
+ * both allocation models can be compared on the same log.
+ *
+ * Usage: Replay [--pooled] <games.log[.gz]> [<log level>]
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.bot
+ **/
+
+package net.goreclan.bot;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.configuration.ConfigurationException;
+import org.apache.commons.logging.Log;
+
+import net.goreclan.event.Event;
+import net.goreclan.event.EventPool;
+import net.goreclan.parser.Parser;
+import net.goreclan.plugin.Plugin;
+import net.goreclan.reader.LineBuffer;
+import net.goreclan.utility.EventProcessor;
+
+public class Replay {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final Parser parser;
+	private final EventProcessor processor;
+	private final BlockingQueue<Event> eventQueue;
+	private final LineBuffer line;
+
+	private long lines;
+	private long events;
+
+	/**
+	 * Object constructor.
+	 *
+	 * @author agent
+	 * @param  parser The log parser to which lines are handed
+	 * @param  processor The event processor dispatching the produced events
+	 * @param  eventQueue The queue where the parser puts the produced events
+	 * @return Replay
+	 **/
+	public Replay(Parser parser, EventProcessor processor, BlockingQueue<Event> eventQueue) {
+
+		if (parser == null || processor == null || eventQueue == null)
+			throw new NullPointerException();
+
+		this.parser = parser;
+		this.processor = processor;
+		this.eventQueue = eventQueue;
+		this.line = new LineBuffer();
+
+	}
+
+	/**
+	 * Replay all the lines available in the given stream.
+	 *
+	 * @author agent
+	 * @param  in The stream holding the games.log content
+	 * @throws IOException If the stream can't be read
+	 * @throws InterruptedException If interrupted while putting events in the queue
+	 **/
+	public void replay(InputStream in) throws IOException, InterruptedException {
+
+		byte[] buffer = new byte[BUFFER_SIZE];
+		int count;
+
+		while ((count = in.read(buffer)) >= 0) {
+			long time = System.nanoTime();
+			for (int i = 0; i < count; i++) {
+				if (buffer[i] == '\n') this.parseLine(time);
+				else this.line.append(buffer[i]);
+			}
+		}
+
+		// The last line of the archive may not be terminated.
+		if (this.line.length() > 0)
+			this.parseLine(System.nanoTime());
+
+	}
+
+	/**
+	 * @author agent
+	 * @return long
+	 **/
+	public long getLines() {
+		return this.lines;
+	}
+
+	/**
+	 * @author agent
+	 * @return long
+	 **/
+	public long getEvents() {
+		return this.events;
+	}
+
+	/**
+	 * Parse the line currently held in the line buffer and dispatch the produced events.
+	 *
+	 * @author agent
+	 * @param  time The time (System.nanoTime) at which the line has been read
+	 * @throws InterruptedException If interrupted while putting events in the queue
+	 **/
+	private void parseLine(long time) throws InterruptedException {
+
+		this.parser.parseLine(this.line, time, this.eventQueue);
+		this.line.clear();
+		this.lines++;
+
+		Event event;
+		while ((event = this.eventQueue.poll()) != null) {
+			this.processor.dispatch(event);
+			this.events++;
+		}
+
+	}
+
+	/**
+	 * Open the given games.log archive.
+	 * Gzip compressed archives are detected by their magic number.
+	 *
+	 * @author agent
+	 * @param  path The games.log archive path
+	 * @throws IOException If the archive can't be opened
+	 * @return InputStream
+	 **/
+	public static InputStream open(Path path) throws IOException {
+
+		InputStream in = new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE);
+
+		in.mark(2);
+		int magic = in.read() | in.read() << 8;
+		in.reset();
+
+		if (magic == GZIPInputStream.GZIP_MAGIC)
+			return new GZIPInputStream(in, BUFFER_SIZE);
+
+		return in;
+
+	}
+
+	/**
+	 * Return the number of garbage collections performed so far and their total time.
+	 *
+	 * @author agent
+	 * @return long[]. The collection count and the collection time in milliseconds
+	 **/
+	private static long[] getCollections() {
+
+		long[] collections = new long[2];
+
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			collections[0] += Math.max(0, gc.getCollectionCount());
+			collections[1] += Math.max(0, gc.getCollectionTime());
+		}
+
+		return collections;
+
+	}
+
+	/**
+	 * Replay an archived games.log.
+	 *
+	 * @author agent
+	 * @param args The optional --pooled flag, the games.log archive path and an optional log level
+	 **/
+	public static void main(String[] args) {
+
+		boolean pooled = args.length > 0 && args[0].equals("--pooled");
+		if (pooled) args = Arrays.copyOfRange(args, 1, args.length);
+
+		if (args.length < 1) {
+			System.err.println("Usage: " + Replay.class.getName() + " [--pooled] <games.log[.gz]> [<log level>]");
+			System.exit(1);
+		}
+
+		OfflinePipeline pipeline = new OfflinePipeline("replay", args.length > 1 ? args[1] : null);
+		Log log = pipeline.getLog();
+		Path path = Paths.get(args[0]);
+
+		try (InputStream in = open(path)) {
+
+			EventPool pool = pooled ? new EventPool() : null;
+			pipeline.getParser().setEventPool(pool);
+			Replay replay = new Replay(pipeline.getParser(), pipeline.getProcessor(), pipeline.getEventQueue());
+			Map<String, Plugin> plugins = pipeline.loadPlugins();
+
+			log.info("Replaying " + path + " [ plugins : " + plugins.keySet() + " ]");
+
+			long[] gc = getCollections();
+			long start = System.nanoTime();
+			replay.replay(in);
+			long elapsed = Math.max(1, System.nanoTime() - start);
+			long[] collections = getCollections();
+
+			double seconds = (double) elapsed / TimeUnit.SECONDS.toNanos(1);
+			System.out.println(String.format("Replayed %s: %d lines, %d events, %d console commands in %.3f s [ %.0f lines/sec | %.0f events/sec ]",
+					path, replay.getLines(), replay.getEvents(), pipeline.getConsole().getCount(), seconds, replay.getLines() / seconds, replay.getEvents() / seconds));
+			System.out.println(String.format("Garbage collections: %d in %d ms%s", collections[0] - gc[0], collections[1] - gc[1],
+					pool != null ? " [ pooled events : " + pool.getCreated() + " created, " + pool.getReused() + " reused ]" : ""));
+
+			pipeline.printMetrics();
+
+		} catch (ConfigurationException | IOException e) {
+			log.fatal("Unable to replay log file: " + path, e);
+			System.exit(1);
+		} catch (InterruptedException e) {
+			log.fatal("Replay interrupted: " + path);
+			System.exit(1);
+		}
+
+	}
+
+}
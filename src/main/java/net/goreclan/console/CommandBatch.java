@@ -0,0 +1,96 @@
+/**
+ * Commands collected by a ConsoleBatch, without no-op duplicates.
+ *
+ * Only idempotent commands are deduplicated. A forceteam on a player who has
+ * already been forced in a team, and a set of a cvar which has already been set,
+ * replace the previous one and take its place at the end of the batch. An addip,
+ * removeip or kick identical to one already collected is dropped. Every other
+ * command (say, tell, bigtext, slap, nuke, smite, mute...) has an effect each
+ * time it is executed, and is always kept.
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.console
+ **/
+
+package net.goreclan.console;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class CommandBatch {
+
+    // Commands where the last one wins, keyed by their 1st argument (player slot, cvar name).
+    private static final String[] LAST_WINS = { "forceteam ", "set " };
+
+    // Commands executed once however many times they are repeated.
+    private static final String[] IDEMPOTENT = { "addip ", "removeip ", "kick " };
+
+    // Commands by key, in the order they have to be sent: commands
+    // which are never deduplicated get a key of their own.
+    private final Map<Object, String> commands = new LinkedHashMap<Object, String>();
+
+
+    /**
+     * Add a command to the batch.
+     *
+     * @author agent
+     * @param  command The command
+     * @return boolean. This will return false if the command has been dropped as a no-op
+     **/
+    public boolean add(String command) {
+
+        for (String prefix : LAST_WINS) {
+            if (command.startsWith(prefix)) {
+                int end = command.indexOf(' ', prefix.length());
+                String key = end < 0 ? command : command.substring(0, end);
+                String previous = this.commands.remove(key);
+                this.commands.put(key, command);
+                return !command.equals(previous);
+            }
+        }
+
+        for (String prefix : IDEMPOTENT) {
+            if (command.startsWith(prefix)) {
+                if (this.commands.containsKey(command)) return false;
+                this.commands.put(command, command);
+                return true;
+            }
+        }
+
+        this.commands.put(new Object(), command);
+        return true;
+
+    }
+
+
+    /**
+     * Return the number of commands collected.
+     *
+     * @author agent
+     * @return int
+     **/
+    public int size() {
+        return this.commands.size();
+    }
+
+
+    /**
+     * Return the commands collected, in order, and empty the batch.
+     *
+     * @author agent
+     * @return List<String>
+     **/
+    public List<String> drain() {
+
+        List<String> drained = new ArrayList<String>(this.commands.values());
+        this.commands.clear();
+
+        return drained;
+
+    }
+
+}
@@ -2,7 +2,7 @@
  * Urban Terror 4.2 RCON console interface.
  * 
  * @author      Daniele Pantaleone
- * @version     1.0
+ * @version     1.1
  * @copyright   Daniele Pantaleone, 04 October, 2012
  * @package     net.goreclan.console
  **/
@@ -18,7 +18,7 @@ import net.goreclan.exception.ParserException;
 import net.goreclan.iourt42.Gametype;
 import net.goreclan.iourt42.Team;
 
-public interface Console {s
+public interface Console {
 	
 	 /**
      * Ban a player from the server permanently.
@@ -40,6 +40,16 @@ public interface Console {s
     public void ban(String ip) throws IOException;
     
     
+    /**
+     * Start a batch of commands: the commands written in the batch are
+     * collected and sent together by ConsoleBatch.send().
+     * 
+     * @author agent
+     * @return ConsoleBatch
+     **/
+    public ConsoleBatch batch();
+    
+    
     /**
      * Write a bold message in the middle of the screen of all players.
      * The message is going to disappear in few seconds (almost 3).
@@ -0,0 +1,45 @@
+/**
+ * Batch of console commands sent together.
+ *
+ * Commands which do not expect a response (forceteam, tell, say, kick...) are
+ * collected instead of being sent straight away, and are sent by send() in as few
+ * RCON packets as possible. No-op commands are dropped while collecting: a player
+ * forced in a team more than once is forced in the last team only, a cvar set more
+ * than once gets the last value only, and the same ban, unban or kick written twice
+ * is sent once. Commands having an effect every time they are executed (say, tell,
+ * slap, mute...) are all sent. Commands expecting a response (dumpuser, status,
+ * cvar values...) are not batched: they are sent straight away.
+ *
+ * A batch is meant to be filled and sent by a single thread (i.e: the handler of an
+ * admin command shuffling the teams).
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.console
+ **/
+
+package net.goreclan.console;
+
+import java.io.IOException;
+
+public interface ConsoleBatch extends Console {
+
+    /**
+     * Send the commands collected so far, and empty the batch.
+     *
+     * @author agent
+     * @throws IOException If the RCON commands fail in being executed
+     **/
+    public void send() throws IOException;
+
+
+    /**
+     * Return the number of commands collected so far.
+     *
+     * @author agent
+     * @return int
+     **/
+    public int size();
+
+}
@@ -1,8 +1,20 @@
 /**
  * Urban Terror 4.2 server engine (Quake3-UrT[-ded]) RCON connection interface.
+ * 
+ * Commands are sent through a non-blocking RconEngine: sendRead() waits for the
+ * response up to a per-request deadline, while submit() returns a Future.
+ * Commands are queued in an RconScheduler first, which paces them not to trip
+ * the server RCON flood protection, sends penalties ahead of chat messages and
+ * retries the commands left unanswered.
+ * 
+ * Many commands can be sent in a single packet as a ';' separated chain: the
+ * chain is executed by the server command buffer, up to MAX_COMMAND_LENGTH
+ * characters. Engines executing an RCON packet as one single command don't
+ * split the chain, so chaining is disabled by default: it has to be enabled
+ * (rcon.chaining in the main configuration file) for engines splitting it.
  *
  * @author      Daniele Pantaleone
- * @version     1.2
+ * @version     1.5
  * @copyright   Daniele Pantaleone, 04 October, 2012
  * @package     net.goreclan.console
  **/
@@ -10,25 +22,46 @@
 package net.goreclan.console;
 
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
-import java.net.InetAddress;
-import java.net.SocketException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
+import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.commons.logging.Log;
 
 
 public class Rcon {
     
+    /**
+     * How long to wait for the server response by default.
+     **/
+    public static final long DEFAULT_TIMEOUT = TimeUnit.SECONDS.toMillis(1);
+    
+    /**
+     * Longest command (or command chain) executed by the server: the command
+     * is copied in a 1024 characters buffer before being executed.
+     **/
+    public static final int MAX_COMMAND_LENGTH = 1023;
+    
+    /**
+     * Largest RCON packet sent, not to be fragmented on the way (MTU).
+     **/
+    public static final int MAX_PACKET_SIZE = 1400;
+    
 	private final Log log;
 	
-    private InetAddress ip;
-    private int port;
+    private InetSocketAddress address;
     private String password;
     
-    private DatagramSocket socket;
-    private int timeout = 10000;
+    private RconEngine engine;
+    private RconScheduler scheduler;
+    private volatile boolean chaining = false;
+    private int maxChainLength;
         
     
     /**
@@ -48,42 +81,119 @@ public class Rcon {
     	
         try {
         	
-            this.ip = InetAddress.getByName(address);
-            this.port = port;
+            this.address = new InetSocketAddress(address, port);
             this.password = password;
-            this.socket = new DatagramSocket();
-            this.socket.setSoTimeout(this.timeout);
+            
+            if (this.address.isUnresolved())
+                throw new UnknownHostException(address);
+            
+            this.engine = new RconEngine(this.address, this.password, this.log).start();
+            this.scheduler = new RconScheduler(this.engine, this.log).start();
+            
+            // The packet starts with the OutOfBand bytes and "rcon <password> ".
+            this.maxChainLength = Math.min(MAX_COMMAND_LENGTH, MAX_PACKET_SIZE - 10 - this.password.length());
              
-            this.log.debug("RCON utility configured [ ip : " + this.ip.getHostAddress() + " | port : " + this.port + " | password : " + this.password + " ]");
+            this.log.debug("RCON utility configured [ ip : " + this.address.getAddress().getHostAddress() + " | port : " + port + " | password : " + this.password + " ]");
             
-        } catch (UnknownHostException | SocketException e) {
+        } catch (IOException e) {
         	this.log.fatal("Unable to initialize RCON utility", e);
             System.exit(1);
         }
     }
     
+    
+    /**
+     * Set how long sendRead() waits for the server response.
+     * 
+     * @author agent
+     * @param  timeout The response timeout
+     * @param  unit The timeout unit
+     **/
+    public void setTimeout(long timeout, TimeUnit unit) {
+        this.scheduler.setTimeout(timeout, unit);
+    }
+    
+    
+    /**
+     * Enable or disable command chaining (disabled by default).
+     * When disabled, every command is sent in its own packet.
+     * 
+     * @author agent
+     * @param  chaining Whether many commands can be sent in the same packet
+     **/
+    public void setChaining(boolean chaining) {
+        this.chaining = chaining;
+    }
+    
+    
+    /**
+     * Return the scheduler pacing the commands (i.e: to read the queue depth).
+     * 
+     * @author agent
+     * @return RconScheduler
+     **/
+    public RconScheduler getScheduler() {
+        return this.scheduler;
+    }
+    
   
     /**
      * Write a command in the RCON console without returning the server response.
+     * The command is queued: this returns as soon as it is accepted by the scheduler.
      * 
      * @author Daniele Pantaleone 
      * @param  command The command to be sent to the server engine
-     * @throws IOException 
+     * @throws IOException If the command has been dropped straight away (i.e: queue full)
      **/
     public void sendNoRead(String command) throws IOException {
+        this.check(this.scheduler.send(command));
+    }
+    
+    
+    /**
+     * Write many commands in the RCON console without returning the server response.
+     * Commands are chained in as few packets as possible, in the given order: a chain is
+     * sent with the priority of its most urgent command. Commands holding a separator
+     * themselves (i.e: a message with a ';' in it) are sent on their own.
+     * 
+     * @author agent
+     * @param  commands The commands to be sent to the server engine
+     * @throws IOException If a command has been dropped straight away (i.e: queue full)
+     **/
+    public void sendNoRead(Collection<String> commands) throws IOException {
         
-        this.log.trace("RCON sending [" + this.ip.getHostAddress() + ":" + this.port + "]: " + command);
-        String send = "xxxxrcon " + this.password + " " + command;
+        if (!this.chaining) {
+            for (String command : commands)
+                this.sendNoRead(command);
+            return;
+        }
         
-        byte[] sendBuffer = send.getBytes();
+        StringBuilder chain = new StringBuilder(this.maxChainLength);
+        RconScheduler.Priority priority = RconScheduler.Priority.LOW;
         
-        sendBuffer[0] = (byte)0xff; // Replacing 1st byte with the correct OutOfBound byte
-        sendBuffer[1] = (byte)0xff; // Replacing 2nd byte with the correct OutOfBound byte
-        sendBuffer[2] = (byte)0xff; // Replacing 3rd byte with the correct OutOfBound byte
-        sendBuffer[3] = (byte)0xff; // Replacing 4th byte with the correct OutOfBound byte
+        for (String command : commands) {
+            
+            if (command.indexOf(';') >= 0 || command.indexOf('\n') >= 0 || command.length() > this.maxChainLength) {
+                this.sendNoRead(command);
+                continue;
+            }
+            
+            if (chain.length() > 0 && chain.length() + 1 + command.length() > this.maxChainLength) {
+                this.check(this.scheduler.schedule(chain.toString(), priority, false));
+                chain.setLength(0);
+                priority = RconScheduler.Priority.LOW;
+            }
+            
+            if (chain.length() > 0) chain.append(';');
+            chain.append(command);
+            
+            RconScheduler.Priority p = RconScheduler.Priority.of(command);
+            if (p.compareTo(priority) < 0) priority = p;
+            
+        }
         
-        // Sending the command to the server engine. Exiting right after the send to succeed.
-        this.socket.send(new DatagramPacket(sendBuffer, sendBuffer.length, this.ip, this.port));
+        if (chain.length() > 0)
+            this.check(this.scheduler.schedule(chain.toString(), priority, false));
         
     }
     
@@ -92,33 +202,71 @@ public class Rcon {
      * Write a command in the RCON console and return the result.
      * Note that this function simply return the string given back 
      * by the server engine without parsing the server response.
+     * The calling thread waits for the response, up to the configured timeout
+     * for every attempt plus one for the time spent queued (see RconScheduler.getMaxWait()):
+     * the command is cancelled if it is still queued by then. Use submit() not to wait.
      * 
      * @author Daniele Pantaleone 
      * @param  command The command to be sent to the server engine
-     * @throws IOException 
+     * @throws IOException If the command fails or times out (SocketTimeoutException)
      * @return String
      **/
     public String sendRead(String command) throws IOException {
         
-    	this.log.trace("RCON sending [" + this.ip.getHostAddress() + ":" + this.port + "]: " + command);
-    	String send = "xxxxrcon " + this.password + " " + command;
+        Future<String> future = this.submit(command);
         
-        byte[] recvBuffer = new byte[2048];
-        byte[] sendBuffer = send.getBytes();
-       
-        sendBuffer[0] = (byte)0xff; // Replacing 1st byte with the correct OutOfBound byte
-        sendBuffer[1] = (byte)0xff; // Replacing 2nd byte with the correct OutOfBound byte
-        sendBuffer[2] = (byte)0xff; // Replacing 3rd byte with the correct OutOfBound byte
-        sendBuffer[3] = (byte)0xff; // Replacing 4th byte with the correct OutOfBound byte
+        try {
+            
+            return future.get(this.scheduler.getMaxWait(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS);
+            
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new SocketTimeoutException("RCON command not answered in time: " + command);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for RCON response: " + command);
+        }
         
-        DatagramPacket recvPacket = new DatagramPacket(recvBuffer, recvBuffer.length);
-        DatagramPacket sendPacket = new DatagramPacket(sendBuffer, sendBuffer.length, this.ip, this.port);
+    }
+    
+    
+    /**
+     * Write a command in the RCON console without waiting for the result.
+     * The returned Future holds the server response, or fails with a SocketTimeoutException
+     * if it is not received within the configured timeout, after all the retries.
+     * 
+     * @author agent
+     * @param  command The command to be sent to the server engine
+     * @return Future<String>
+     **/
+    public Future<String> submit(String command) {
+        return this.scheduler.submit(command);
+    }
+    
+    
+    /**
+     * Raise the failure of a command dropped straight away by the scheduler.
+     * 
+     * @author agent
+     * @param  future The Future of the queued command
+     * @throws IOException If the command has been dropped
+     **/
+    private void check(Future<String> future) throws IOException {
         
-        this.socket.send(sendPacket);
-        this.socket.receive(recvPacket);
+        if (!future.isDone()) return;
         
-        return new String(recvPacket.getData()).replace("print", "");
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
         
     }
     
-}
\ No newline at end of file
+}
@@ -0,0 +1,656 @@
+/**
+ * Non-blocking RCON engine.
+ *
+ * A single I/O thread drives a Selector: commands expecting a response are submitted
+ * from any thread and return a Future, so that many requests can be in flight at the
+ * same time and a lost UDP reply only fails the request it belongs to. The server
+ * response does not carry anything identifying the command it answers, so every
+ * request is sent on its own DatagramChannel (connected to the server): whatever
+ * comes back on such channel is the response to that request. Every request has its
+ * own deadline, checked by the I/O thread with millisecond resolution: once expired
+ * the request fails with a SocketTimeoutException and its channel is closed.
+ *
+ * Long responses (status, players, fdir...) are split by the server in many OOB
+ * print packets. Fragments are collected in pooled buffers until no packet has been
+ * received for a short quiet window, then the whole response is returned. Fragments
+ * of a response are sent back to back by the server, so they only arrive apart by
+ * the network jitter: the quiet window is derived from the measured round trip time
+ * and its variation (smoothed like TCP does), and it is just a couple of milliseconds
+ * on a LAN, so that short responses are not delayed any longer than needed.
+ *
+ * Commands which do not expect a response are written straight away by the calling
+ * thread on a shared channel.
+ *
+ * Packets are built in pooled direct buffers, each one holding the OutOfBand bytes
+ * and the "rcon <password> " prefix since its allocation: sending a command only
+ * encodes the command itself (ISO-8859-1, the charset responses are decoded with)
+ * right after the prefix, without any intermediate String or byte array.
+ *
+ * @author      agent
+ * @version     1.2
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.console
+ **/
+
+package net.goreclan.console;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+
+public class RconEngine implements Runnable, Closeable {
+
+    // Largest UDP datagram.
+    private static final int BUFFER_SIZE = 65536;
+
+    // Send buffers kept for reuse, and their size (longer commands are truncated by the server anyway).
+    private static final int PACKET_POOL_SIZE = 8;
+    private static final int PACKET_SIZE = 2048;
+
+    // Header of every response packet: 4 OutOfBand bytes followed by "print\n".
+    private static final byte[] RESPONSE_HEADER = { (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 'p', 'r', 'i', 'n', 't', '\n' };
+
+    // Response buffers kept for reuse, and their initial size.
+    private static final int POOL_SIZE = 16;
+    private static final int RESPONSE_SIZE = 16 * 1024;
+
+    // Bounds of the quiet window closing a response, and the window used before the 1st RTT sample.
+    private static final long MIN_QUIET_WINDOW = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final long MAX_QUIET_WINDOW = TimeUnit.MILLISECONDS.toNanos(250);
+    private static final long DEFAULT_QUIET_WINDOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final Log log;
+    private final InetSocketAddress server;
+    private final byte[] header;
+
+    private final Selector selector;
+    private final DatagramChannel channel;
+    private final ByteBuffer buffer;
+
+    // Requests submitted and not yet sent (any thread), and requests waiting for a response (I/O thread only).
+    private final Queue<Request> submitted = new ConcurrentLinkedQueue<Request>();
+    private final List<Request> inflight = new ArrayList<Request>();
+    private final ArrayDeque<ByteBuffer> buffers = new ArrayDeque<ByteBuffer>();
+    private final BlockingQueue<ByteBuffer> packets = new ArrayBlockingQueue<ByteBuffer>(PACKET_POOL_SIZE);
+
+    // Smoothed round trip time and its mean deviation (written by the I/O thread only).
+    private volatile long rtt;
+    private volatile long rttvar;
+
+    private volatile boolean closed = false;
+
+
+    /**
+     * Object constructor.
+     *
+     * @author agent
+     * @param  server The server address
+     * @param  password The server Rcon password
+     * @param  log A reference to the main BOT logger object
+     * @throws IOException If the channels can't be opened
+     * @return RconEngine
+     **/
+    public RconEngine(InetSocketAddress server, String password, Log log) throws IOException {
+
+        if (server == null || password == null) throw new NullPointerException();
+
+        this.log = log;
+        this.server = server;
+        this.header = ("\u00ff\u00ff\u00ff\u00ffrcon " + password + " ").getBytes(StandardCharsets.ISO_8859_1);
+        this.selector = Selector.open();
+        this.channel = DatagramChannel.open();
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    }
+
+
+    /**
+     * Start the I/O thread.
+     *
+     * @author agent
+     * @return RconEngine
+     **/
+    public RconEngine start() {
+
+        Thread thread = new Thread(this, "RconEngine");
+        thread.setDaemon(true);
+        thread.start();
+
+        return this;
+
+    }
+
+
+    /**
+     * Write a command in the RCON console without waiting for the server response.
+     *
+     * @author agent
+     * @param  command The command to be sent to the server engine
+     * @throws IOException If the command can't be sent
+     **/
+    public void send(String command) throws IOException {
+
+        if (this.log.isTraceEnabled())
+            this.log.trace("RCON sending [" + this.server + "]: " + command);
+
+        ByteBuffer packet = this.encode(command);
+
+        try {
+            this.channel.send(packet, this.server);
+        } finally {
+            this.recycle(packet);
+        }
+
+    }
+
+
+    /**
+     * Write a command in the RCON console and return a Future holding the server response.
+     * The Future fails with a SocketTimeoutException if no response has been received in
+     * time, or with the IOException raised while sending the command.
+     *
+     * @author agent
+     * @param  command The command to be sent to the server engine
+     * @param  timeout How long to wait for the server response
+     * @param  unit The timeout unit
+     * @return Future<String>
+     **/
+    public Future<String> submit(String command, long timeout, TimeUnit unit) {
+        return this.submit(command, timeout, unit, null);
+    }
+
+
+    /**
+     * Write a command in the RCON console and return a Future holding the server response.
+     * The listener is notified once the Future is completed, usually by the I/O thread.
+     *
+     * @author agent
+     * @param  command The command to be sent to the server engine
+     * @param  timeout How long to wait for the server response
+     * @param  unit The timeout unit
+     * @param  listener The listener notified on completion (may be null)
+     * @return RconFuture
+     **/
+    RconFuture submit(String command, long timeout, TimeUnit unit, RconFuture.Listener listener) {
+
+        Request request = new Request(command, System.nanoTime() + unit.toNanos(timeout), listener);
+
+        if (this.closed) {
+            request.fail(new IOException("RCON engine closed"));
+            return request;
+        }
+
+        if (this.log.isTraceEnabled())
+            this.log.trace("RCON submitting [" + this.server + "]: " + command);
+        this.submitted.add(request);
+        this.selector.wakeup();
+
+        return request;
+
+    }
+
+
+    /**
+     * Return the smoothed round trip time measured so far.
+     *
+     * @author agent
+     * @param  unit The time unit
+     * @return long. This will return 0 if no response has been received yet
+     **/
+    public long getRoundTripTime(TimeUnit unit) {
+        return unit.convert(this.rtt, TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * Return the window of silence after which a response is considered complete.
+     *
+     * @author agent
+     * @param  unit The time unit
+     * @return long
+     **/
+    public long getQuietWindow(TimeUnit unit) {
+        return unit.convert(this.quietWindow(), TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * Stop the I/O thread: requests in flight fail.
+     *
+     * @author agent
+     **/
+    @Override
+    public void close() {
+
+        this.closed = true;
+        this.selector.wakeup();
+
+    }
+
+
+    /**
+     * Runnable implementation of the I/O thread.
+     *
+     * @author agent
+     **/
+    @Override
+    public void run() {
+
+        try {
+
+            while (!this.closed) {
+
+                this.register();
+                long wait = this.expire(System.nanoTime());
+
+                if (this.selector.select(wait) > 0)
+                    this.receive();
+
+            }
+
+        } catch (IOException | ClosedSelectorException e) {
+            this.log.error("RCON engine failure", e);
+        } finally {
+            this.shutdown();
+        }
+
+    }
+
+
+    /**
+     * Build the RCON packet for the given command in a send buffer, to be recycled once sent.
+     * Package-private for the benchmarks only.
+     *
+     * @author agent
+     * @param  command The command to be sent to the server engine
+     * @return ByteBuffer. The packet, ready to be written
+     **/
+    ByteBuffer encode(String command) {
+
+        int length = command.length();
+        ByteBuffer packet = this.header.length + length <= PACKET_SIZE ? this.packets.poll() : null;
+
+        if (packet == null) {
+            packet = this.header.length + length <= PACKET_SIZE ?
+                    ByteBuffer.allocateDirect(PACKET_SIZE) : ByteBuffer.allocate(this.header.length + length);
+            packet.put(this.header);
+        }
+
+        // The header is never overwritten: just encoding the command after it.
+        packet.limit(packet.capacity()).position(this.header.length);
+
+        for (int i = 0; i < length; i++) {
+            char c = command.charAt(i);
+            packet.put(c <= 0xff ? (byte) c : (byte) '?');
+        }
+
+        packet.flip();
+        return packet;
+
+    }
+
+
+    /**
+     * Give a send buffer back to the pool.
+     * Package-private for the benchmarks only.
+     *
+     * @author agent
+     * @param  packet The send buffer
+     **/
+    void recycle(ByteBuffer packet) {
+
+        if (packet.isDirect())
+            this.packets.offer(packet);
+
+    }
+
+
+    /**
+     * Send the submitted requests, each one on its own channel.
+     *
+     * @author agent
+     **/
+    private void register() {
+
+        Request request;
+
+        while ((request = this.submitted.poll()) != null) {
+
+            if (request.isDone()) continue;
+
+            DatagramChannel channel = null;
+
+            try {
+
+                channel = DatagramChannel.open();
+                channel.configureBlocking(false);
+                channel.connect(this.server);
+                ByteBuffer packet = this.encode(request.command);
+
+                try {
+                    channel.write(packet);
+                } finally {
+                    this.recycle(packet);
+                }
+
+                channel.register(this.selector, SelectionKey.OP_READ, request);
+
+                request.sent = System.nanoTime();
+                request.channel = channel;
+                this.inflight.add(request);
+
+            } catch (IOException e) {
+                request.fail(e);
+                close(channel);
+            }
+
+        }
+
+    }
+
+
+    /**
+     * Complete the responses whose quiet window passed, fail the requests whose deadline
+     * expired and release the channels and buffers of the completed ones.
+     *
+     * @author agent
+     * @param  now The current time
+     * @return long. The milliseconds to wait for the next deadline (0 if no request is in flight)
+     **/
+    private long expire(long now) {
+
+        long next = Long.MAX_VALUE;
+
+        for (Iterator<Request> it = this.inflight.iterator(); it.hasNext();) {
+
+            Request request = it.next();
+
+            // The response is closed by the quiet window, or by the deadline if fragments keep coming.
+            long end = request.fragments == null ? request.deadline : Math.min(request.quiet, request.deadline);
+            long remaining = end - now;
+
+            if (!request.isDone() && remaining > 0) {
+                next = Math.min(next, remaining);
+                continue;
+            }
+
+            if (request.isDone()) {
+                // Cancelled.
+            } else if (request.fragments != null) {
+                request.complete(new String(request.fragments.array(), 0, request.fragments.position(), StandardCharsets.ISO_8859_1));
+            } else {
+                request.fail(new SocketTimeoutException("RCON command timed out: " + request.command));
+            }
+
+            this.release(request);
+            it.remove();
+
+        }
+
+        if (next == Long.MAX_VALUE) return 0;
+
+        // Rounding up: select() would otherwise return right before the deadline.
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(next + TimeUnit.MILLISECONDS.toNanos(1) - 1));
+
+    }
+
+
+    /**
+     * Read the response fragments available on the selected channels.
+     *
+     * @author agent
+     **/
+    private void receive() {
+
+        for (Iterator<SelectionKey> it = this.selector.selectedKeys().iterator(); it.hasNext();) {
+
+            SelectionKey key = it.next();
+            it.remove();
+
+            Request request = (Request) key.attachment();
+            DatagramChannel channel = (DatagramChannel) key.channel();
+
+            try {
+
+                while (true) {
+
+                    this.buffer.clear();
+                    if (channel.read(this.buffer) <= 0) break;
+                    this.buffer.flip();
+
+                    long now = System.nanoTime();
+
+                    if (request.fragments == null) {
+                        this.sample(now - request.sent);
+                        request.fragments = this.acquire();
+                    }
+
+                    // Stripping the header of every fragment, if any.
+                    if (startsWith(this.buffer, RESPONSE_HEADER))
+                        this.buffer.position(RESPONSE_HEADER.length);
+
+                    request.fragments = append(request.fragments, this.buffer);
+                    request.quiet = now + this.quietWindow();
+
+                }
+
+            } catch (IOException e) {
+                // i.e: PortUnreachableException if nothing is listening on the server port.
+                request.fail(e);
+                this.release(request);
+                this.inflight.remove(request);
+            }
+
+        }
+
+    }
+
+
+    /**
+     * Update the smoothed round trip time with a new sample (RFC 6298).
+     *
+     * @author agent
+     * @param  sample The time elapsed between a request and its 1st response fragment
+     **/
+    private void sample(long sample) {
+
+        if (this.rtt == 0) {
+            this.rtt = Math.max(1, sample);
+            this.rttvar = sample / 2;
+            return;
+        }
+
+        this.rttvar = (3 * this.rttvar + Math.abs(this.rtt - sample)) / 4;
+        this.rtt = Math.max(1, (7 * this.rtt + sample) / 8);
+
+    }
+
+
+    /**
+     * Return the window of silence after which a response is considered complete.
+     *
+     * @author agent
+     * @return long
+     **/
+    private long quietWindow() {
+
+        if (this.rtt == 0)
+            return DEFAULT_QUIET_WINDOW;
+
+        return Math.max(MIN_QUIET_WINDOW, Math.min(MAX_QUIET_WINDOW, this.rtt / 2 + 4 * this.rttvar));
+
+    }
+
+
+    /**
+     * Acquire a response buffer from the pool.
+     *
+     * @author agent
+     * @return ByteBuffer
+     **/
+    private ByteBuffer acquire() {
+
+        ByteBuffer buffer = this.buffers.poll();
+        return buffer != null ? buffer : ByteBuffer.allocate(RESPONSE_SIZE);
+
+    }
+
+
+    /**
+     * Close the channel of a completed request and give its response buffer back to the pool.
+     *
+     * @author agent
+     * @param  request The completed request
+     **/
+    private void release(Request request) {
+
+        close(request.channel);
+
+        if (request.fragments != null && this.buffers.size() < POOL_SIZE) {
+            request.fragments.clear();
+            this.buffers.push(request.fragments);
+        }
+
+        request.fragments = null;
+
+    }
+
+
+    /**
+     * Append the remaining bytes of a fragment to a response buffer, growing it if needed.
+     *
+     * @author agent
+     * @param  response The response buffer
+     * @param  fragment The fragment
+     * @return ByteBuffer. The response buffer (a new one if it had to grow)
+     **/
+    private static ByteBuffer append(ByteBuffer response, ByteBuffer fragment) {
+
+        if (response.remaining() < fragment.remaining()) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(response.capacity() * 2, response.position() + fragment.remaining()));
+            response.flip();
+            grown.put(response);
+            response = grown;
+        }
+
+        return response.put(fragment);
+
+    }
+
+
+    /**
+     * Tells whether the remaining bytes of the given buffer start with the given prefix.
+     *
+     * @author agent
+     * @param  buffer The buffer
+     * @param  prefix The prefix
+     * @return boolean
+     **/
+    private static boolean startsWith(ByteBuffer buffer, byte[] prefix) {
+
+        if (buffer.remaining() < prefix.length) return false;
+
+        for (int i = 0; i < prefix.length; i++)
+            if (buffer.get(buffer.position() + i) != prefix[i]) return false;
+
+        return true;
+
+    }
+
+
+    /**
+     * Fail the pending requests and release the channels.
+     *
+     * @author agent
+     **/
+    private void shutdown() {
+
+        this.closed = true;
+        IOException e = new IOException("RCON engine closed");
+
+        Request request;
+        while ((request = this.submitted.poll()) != null)
+            request.fail(e);
+
+        for (Request r : this.inflight) {
+            r.fail(e);
+            this.release(r);
+        }
+
+        this.inflight.clear();
+        close(this.channel);
+        close(this.selector);
+
+    }
+
+
+    /**
+     * Close the given resource, ignoring errors.
+     *
+     * @author agent
+     * @param  closeable The resource to close (may be null)
+     **/
+    private static void close(Closeable closeable) {
+
+        if (closeable == null) return;
+
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Nothing to do.
+        }
+
+    }
+
+
+    /**
+     * A command waiting for the server response.
+     **/
+    private static class Request extends RconFuture {
+
+        private final long deadline;
+
+        // The channel the request has been sent on, when it has been sent, the response
+        // fragments received so far and the end of the current quiet window (I/O thread only).
+        private DatagramChannel channel;
+        private long sent;
+        private ByteBuffer fragments;
+        private long quiet;
+
+
+        /**
+         * Object constructor.
+         *
+         * @author agent
+         * @param  command The command
+         * @param  deadline The time by which the response is expected
+         * @param  listener The listener notified on completion (may be null)
+         * @return Request
+         **/
+        private Request(String command, long deadline, Listener listener) {
+            super(command, listener);
+            this.deadline = deadline;
+        }
+
+    }
+
+}
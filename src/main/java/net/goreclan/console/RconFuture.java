@@ -0,0 +1,209 @@
+/**
+ * Future holding the server response to an RCON command.
+ *
+ * Completed once, by whichever comes first among the response, a failure and a
+ * cancellation. The listener given to the constructor, if any, is notified by the
+ * thread completing the future (i.e: the RconEngine I/O thread), so it must not block.
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.console
+ **/
+
+package net.goreclan.console;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+class RconFuture implements Future<String> {
+
+    /**
+     * Notified when a future is completed.
+     **/
+    interface Listener {
+
+        /**
+         * @author agent
+         * @param  future The completed future
+         **/
+        void finished(RconFuture future);
+
+    }
+
+
+    protected final String command;
+    private final Listener listener;
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    private volatile String response;
+    private volatile Throwable failure;
+    private volatile boolean cancelled;
+
+
+    /**
+     * Object constructor.
+     *
+     * @author agent
+     * @param  command The command
+     * @param  listener The listener notified on completion (may be null)
+     * @return RconFuture
+     **/
+    RconFuture(String command, Listener listener) {
+        this.command = command;
+        this.listener = listener;
+    }
+
+
+    /**
+     * @author agent
+     * @return String
+     **/
+    String getCommand() {
+        return this.command;
+    }
+
+
+    /**
+     * Return the reason why the command failed.
+     *
+     * @author agent
+     * @return Throwable. This will return null if the command did not fail (yet)
+     **/
+    Throwable getFailure() {
+        return this.failure;
+    }
+
+
+    /**
+     * @author agent
+     * @param  response The server response
+     * @return boolean. This will return false if the future was completed already
+     **/
+    boolean complete(String response) {
+        return this.finish(response, null, false);
+    }
+
+
+    /**
+     * @author agent
+     * @param  failure The reason why the command failed
+     * @return boolean. This will return false if the future was completed already
+     **/
+    boolean fail(Throwable failure) {
+        return this.finish(null, failure, false);
+    }
+
+
+    /**
+     * Complete the future, unless it is completed already, and notify the listener.
+     *
+     * @author agent
+     * @return boolean. This will return false if the future was completed already
+     **/
+    private boolean finish(String response, Throwable failure, boolean cancelled) {
+
+        synchronized (this) {
+
+            if (this.done.getCount() == 0) return false;
+
+            this.response = response;
+            this.failure = failure;
+            this.cancelled = cancelled;
+            this.done.countDown();
+
+        }
+
+        if (this.listener != null)
+            this.listener.finished(this);
+
+        return true;
+
+    }
+
+
+    /**
+     * Cancel the command: nobody waits for its response anymore.
+     *
+     * @author agent
+     * @param  mayInterruptIfRunning Ignored
+     * @return boolean
+     **/
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return this.finish(null, null, true);
+    }
+
+
+    /**
+     * @author agent
+     * @return boolean
+     **/
+    @Override
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+
+    /**
+     * @author agent
+     * @return boolean
+     **/
+    @Override
+    public boolean isDone() {
+        return this.done.getCount() == 0;
+    }
+
+
+    /**
+     * @author agent
+     * @throws InterruptedException
+     * @throws ExecutionException If the command failed
+     * @return String
+     **/
+    @Override
+    public String get() throws InterruptedException, ExecutionException {
+        this.done.await();
+        return this.report();
+    }
+
+
+    /**
+     * @author agent
+     * @param  timeout How long to wait
+     * @param  unit The timeout unit
+     * @throws InterruptedException
+     * @throws ExecutionException If the command failed
+     * @throws TimeoutException If the command is not complete in time
+     * @return String
+     **/
+    @Override
+    public String get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+
+        if (!this.done.await(timeout, unit))
+            throw new TimeoutException();
+
+        return this.report();
+
+    }
+
+
+    /**
+     * @author agent
+     * @throws ExecutionException If the command failed
+     * @return String
+     **/
+    private String report() throws ExecutionException {
+
+        if (this.cancelled) throw new CancellationException();
+        if (this.failure != null) throw new ExecutionException(this.failure);
+
+        return this.response;
+
+    }
+
+}
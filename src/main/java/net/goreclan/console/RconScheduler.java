@@ -0,0 +1,766 @@
+/**
+ * Flood protection aware RCON command scheduler.
+ *
+ * The server engine rate limits RCON packets (per source address), silently
+ * dropping the ones exceeding the limit: a burst of say/tell/forceteam commands
+ * (i.e: during a team shuffle) would partly get lost. Commands are therefore
+ * queued and sent at a pace controlled by a token bucket: a burst of commands is
+ * sent straight away, then commands are sent at the bucket rate.
+ *
+ * Queued commands are ordered by priority: penalties (kick, ban...) are sent first,
+ * cosmetic messages (say, tell, bigtext) last, everything else in between. Commands
+ * of the same priority are sent in submission order. When the queue is full, the
+ * newest command of a lower priority is dropped to make room, if any. Retries count
+ * against the queue capacity too: a retry finding no room is given up.
+ *
+ * Commands expecting a response are retried when no response is received in time:
+ * since the server does not tell apart a dropped packet from a lost one, an unanswered
+ * command is taken as a sign of the rate being too high, and the rate is halved. Every
+ * response received raises the rate again, up to the configured one (AIMD, like TCP
+ * congestion control), so that throughput stays close to what the server accepts.
+ * Note that a command sent twice is executed twice if only its response got lost:
+ * read commands (status, dumpuser...) are the ones expected to be submitted this way.
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.console
+ **/
+
+package net.goreclan.console;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.logging.Log;
+
+public class RconScheduler implements Runnable, Closeable {
+
+    /**
+     * Command priorities, from the highest.
+     **/
+    public enum Priority {
+
+        HIGH, NORMAL, LOW;
+
+        /**
+         * Return the priority of the given command.
+         *
+         * @author agent
+         * @param  command The command to be sent to the server engine
+         * @return Priority
+         **/
+        public static Priority of(String command) {
+
+            int end = command.indexOf(' ');
+            String name = (end < 0 ? command : command.substring(0, end)).toLowerCase(Locale.ENGLISH);
+
+            switch (name) {
+
+                case "kick":
+                case "clientkick":
+                case "addip":
+                case "removeip":
+                case "ban":
+                case "tempban":
+                case "mute":
+                    return HIGH;
+
+                case "say":
+                case "tell":
+                case "bigtext":
+                    return LOW;
+
+                default:
+                    return NORMAL;
+
+            }
+
+        }
+
+    }
+
+
+    /**
+     * Default sustained rate (commands per second) and burst size.
+     **/
+    public static final double DEFAULT_RATE = 10;
+    public static final int DEFAULT_BURST = 10;
+
+    /**
+     * Default number of times an unanswered command is sent again.
+     **/
+    public static final int DEFAULT_RETRIES = 2;
+
+    /**
+     * Default maximum number of queued commands.
+     **/
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    // Lowest rate the scheduler slows down to.
+    private static final double MIN_RATE = 1;
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final RconEngine engine;
+    private final Log log;
+    private final double maxRate;
+    private final int burst;
+    private final int retries;
+    private final int capacity;
+
+    // Queued commands, one lane per priority, and the token bucket (guarded by the lock).
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition ready = this.lock.newCondition();
+    private final EnumMap<Priority, ArrayDeque<Command>> lanes;
+    private int size;
+    private double rate;
+    private double tokens;
+    private long refilled;
+    private long slowed;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile long timeout = Rcon.DEFAULT_TIMEOUT;
+    private volatile boolean closed = false;
+
+
+    /**
+     * Object constructor.
+     *
+     * @author agent
+     * @param  engine The engine sending the commands
+     * @param  log A reference to the main BOT logger object
+     * @return RconScheduler
+     **/
+    public RconScheduler(RconEngine engine, Log log) {
+        this(engine, DEFAULT_RATE, DEFAULT_BURST, DEFAULT_RETRIES, DEFAULT_CAPACITY, log);
+    }
+
+
+    /**
+     * Object constructor.
+     *
+     * @author agent
+     * @param  engine The engine sending the commands
+     * @param  rate The maximum sustained rate (commands per second)
+     * @param  burst The number of commands which can be sent in a row
+     * @param  retries The number of times an unanswered command is sent again
+     * @param  capacity The maximum number of queued commands
+     * @param  log A reference to the main BOT logger object
+     * @return RconScheduler
+     **/
+    public RconScheduler(RconEngine engine, double rate, int burst, int retries, int capacity, Log log) {
+
+        if (engine == null) throw new NullPointerException();
+        if (rate < MIN_RATE) throw new IllegalArgumentException("Invalid RCON rate: " + rate);
+        if (burst < 1) throw new IllegalArgumentException("Invalid RCON burst: " + burst);
+        if (retries < 0) throw new IllegalArgumentException("Invalid RCON retries: " + retries);
+        if (capacity < 1) throw new IllegalArgumentException("Invalid RCON queue capacity: " + capacity);
+
+        this.engine = engine;
+        this.log = log;
+        this.maxRate = rate;
+        this.burst = burst;
+        this.retries = retries;
+        this.capacity = capacity;
+
+        this.lanes = new EnumMap<Priority, ArrayDeque<Command>>(Priority.class);
+        for (Priority priority : PRIORITIES)
+            this.lanes.put(priority, new ArrayDeque<Command>());
+
+        this.rate = rate;
+        this.tokens = burst;
+        this.refilled = System.nanoTime();
+
+    }
+
+
+    /**
+     * Start the scheduler thread.
+     *
+     * @author agent
+     * @return RconScheduler
+     **/
+    public RconScheduler start() {
+
+        Thread thread = new Thread(this, "RconScheduler");
+        thread.setDaemon(true);
+        thread.start();
+
+        return this;
+
+    }
+
+
+    /**
+     * Set how long to wait for the server response before sending a command again.
+     *
+     * @author agent
+     * @param  timeout The response timeout
+     * @param  unit The timeout unit
+     **/
+    public void setTimeout(long timeout, TimeUnit unit) {
+        this.timeout = unit.toMillis(timeout);
+    }
+
+
+    /**
+     * Return the longest time a command expecting a response is waited for: the
+     * response timeout of every attempt, plus one more for the time spent queued.
+     *
+     * @author agent
+     * @param  unit The time unit
+     * @return long
+     **/
+    public long getMaxWait(TimeUnit unit) {
+        return unit.convert((this.retries + 2) * this.timeout, TimeUnit.MILLISECONDS);
+    }
+
+
+    /**
+     * Queue a command which does not expect a response.
+     * The Future completes with a null response once the command has been sent.
+     *
+     * @author agent
+     * @param  command The command to be sent to the server engine
+     * @return Future<String>
+     **/
+    public Future<String> send(String command) {
+        return this.schedule(command, Priority.of(command), false);
+    }
+
+
+    /**
+     * Queue a command expecting a response.
+     * The Future fails with a SocketTimeoutException if no response has been received
+     * after all the retries.
+     *
+     * @author agent
+     * @param  command The command to be sent to the server engine
+     * @return Future<String>
+     **/
+    public Future<String> submit(String command) {
+        return this.schedule(command, Priority.of(command), true);
+    }
+
+
+    /**
+     * Queue a command with the given priority.
+     *
+     * @author agent
+     * @param  command The command to be sent to the server engine
+     * @param  priority The command priority
+     * @param  read Whether the command expects a response
+     * @return Future<String>
+     **/
+    public Future<String> schedule(String command, Priority priority, boolean read) {
+
+        Command c = new Command(command, priority, read);
+        Command evicted = null;
+
+        this.submitted.incrementAndGet();
+        this.lock.lock();
+
+        try {
+
+            if (this.closed) {
+                c.fail(new IOException("RCON scheduler closed"));
+                return c;
+            }
+
+            if (this.size >= this.capacity) {
+
+                evicted = this.evict(priority);
+
+                if (evicted == null) {
+                    evicted = c;
+                } else {
+                    this.lanes.get(priority).add(c);
+                }
+
+            } else {
+                this.lanes.get(priority).add(c);
+                this.size++;
+            }
+
+            this.ready.signal();
+
+        } finally {
+            this.lock.unlock();
+        }
+
+        if (evicted != null)
+            this.drop(evicted);
+
+        return c;
+
+    }
+
+
+    /**
+     * Make room in the full queue by removing the newest command of the lowest
+     * priority queued, provided it is lower than the given one.
+     * Must be called holding the lock: the queue size is left unchanged.
+     *
+     * @author agent
+     * @param  priority The priority of the command to be queued
+     * @return Command. This will return null if there is no command of a lower priority
+     **/
+    private Command evict(Priority priority) {
+
+        Command evicted = null;
+
+        for (int i = PRIORITIES.length - 1; i > priority.ordinal() && evicted == null; i--)
+            evicted = this.lanes.get(PRIORITIES[i]).pollLast();
+
+        return evicted;
+
+    }
+
+
+    /**
+     * Fail a command which found no room in the queue.
+     *
+     * @author agent
+     * @param  command The dropped command
+     **/
+    private void drop(Command command) {
+        this.dropped.incrementAndGet();
+        this.log.debug("RCON queue full: dropping command " + command.command);
+        command.fail(new IOException("RCON queue full: " + command.command));
+    }
+
+
+    /**
+     * Return the number of queued commands.
+     *
+     * @author agent
+     * @return int
+     **/
+    public int getQueueDepth() {
+
+        this.lock.lock();
+
+        try {
+            return this.size;
+        } finally {
+            this.lock.unlock();
+        }
+
+    }
+
+
+    /**
+     * Return the number of queued commands of the given priority.
+     *
+     * @author agent
+     * @param  priority The command priority
+     * @return int
+     **/
+    public int getQueueDepth(Priority priority) {
+
+        this.lock.lock();
+
+        try {
+            return this.lanes.get(priority).size();
+        } finally {
+            this.lock.unlock();
+        }
+
+    }
+
+
+    /**
+     * Return the current rate (commands per second).
+     *
+     * @author agent
+     * @return double
+     **/
+    public double getRate() {
+
+        this.lock.lock();
+
+        try {
+            return this.rate;
+        } finally {
+            this.lock.unlock();
+        }
+
+    }
+
+
+    /**
+     * @author agent
+     * @return long
+     **/
+    public long getSubmitted() {
+        return this.submitted.get();
+    }
+
+
+    /**
+     * Return the number of packets sent, retries included.
+     *
+     * @author agent
+     * @return long
+     **/
+    public long getSent() {
+        return this.sent.get();
+    }
+
+
+    /**
+     * @author agent
+     * @return long
+     **/
+    public long getRetried() {
+        return this.retried.get();
+    }
+
+
+    /**
+     * Return the number of commands dropped because the queue was full,
+     * or left unanswered after all the retries.
+     *
+     * @author agent
+     * @return long
+     **/
+    public long getDropped() {
+        return this.dropped.get();
+    }
+
+
+    /**
+     * Return the share of the submitted commands which have been dropped.
+     *
+     * @author agent
+     * @return double
+     **/
+    public double getDropRate() {
+
+        long submitted = this.submitted.get();
+        return submitted == 0 ? 0 : (double) this.dropped.get() / submitted;
+
+    }
+
+
+    /**
+     * Stop the scheduler thread: queued commands fail.
+     *
+     * @author agent
+     **/
+    @Override
+    public void close() {
+
+        this.lock.lock();
+
+        try {
+            this.closed = true;
+            this.ready.signal();
+        } finally {
+            this.lock.unlock();
+        }
+
+    }
+
+
+    /**
+     * Runnable implementation of the scheduler thread.
+     *
+     * @author agent
+     **/
+    @Override
+    public void run() {
+
+        try {
+
+            Command command;
+
+            while ((command = this.take()) != null)
+                this.dispatch(command);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            this.shutdown();
+        }
+
+    }
+
+
+    /**
+     * Wait for a command to be queued and for a token to be available,
+     * then take the command with the highest priority.
+     *
+     * @author agent
+     * @throws InterruptedException If interrupted while waiting
+     * @return Command. This will return null if the scheduler has been closed
+     **/
+    private Command take() throws InterruptedException {
+
+        this.lock.lock();
+
+        try {
+
+            while (!this.closed) {
+
+                if (this.size == 0) {
+                    this.ready.await();
+                    continue;
+                }
+
+                long now = System.nanoTime();
+                this.tokens = Math.min(this.burst, this.tokens + (now - this.refilled) * this.rate / TimeUnit.SECONDS.toNanos(1));
+                this.refilled = now;
+
+                if (this.tokens < 1) {
+                    // Waking up for the next token, or for a command with a higher priority.
+                    this.ready.awaitNanos((long) Math.ceil((1 - this.tokens) * TimeUnit.SECONDS.toNanos(1) / this.rate));
+                    continue;
+                }
+
+                for (ArrayDeque<Command> lane : this.lanes.values()) {
+
+                    Command command = lane.poll();
+                    if (command == null) continue;
+
+                    this.size--;
+
+                    // Cancelled while queued: no need to spend a token.
+                    if (command.isDone()) break;
+
+                    this.tokens--;
+                    return command;
+
+                }
+
+            }
+
+            return null;
+
+        } finally {
+            this.lock.unlock();
+        }
+
+    }
+
+
+    /**
+     * Send a command.
+     *
+     * @author agent
+     * @param  command The command to be sent
+     **/
+    private void dispatch(Command command) {
+
+        this.sent.incrementAndGet();
+        command.attempts++;
+
+        if (command.read) {
+            this.engine.submit(command.command, this.timeout, TimeUnit.MILLISECONDS, command);
+            return;
+        }
+
+        try {
+            this.engine.send(command.command);
+            command.complete(null);
+        } catch (IOException e) {
+            command.fail(e);
+        }
+
+    }
+
+
+    /**
+     * Queue again a command left unanswered, ahead of the commands of the same priority,
+     * and halve the rate (at most once per timeout period). When the queue is full, the
+     * newest command of a lower priority is dropped to make room, as for a new command.
+     *
+     * @author agent
+     * @param  command The command to be sent again
+     * @return boolean. This will return false if the scheduler has been closed or if
+     *         there is no room left in the queue
+     **/
+    private boolean retry(Command command) {
+
+        Command evicted = null;
+
+        this.lock.lock();
+
+        try {
+
+            if (this.closed) return false;
+
+            long now = System.nanoTime();
+
+            if (this.slowed == 0 || now - this.slowed >= TimeUnit.MILLISECONDS.toNanos(this.timeout)) {
+                this.rate = Math.max(MIN_RATE, this.rate / 2);
+                this.slowed = now;
+                this.log.debug("RCON command unanswered: slowing down to " + this.rate + " commands/s");
+            }
+
+            if (this.size >= this.capacity) {
+                evicted = this.evict(command.priority);
+                if (evicted == null) return false;
+            } else {
+                this.size++;
+            }
+
+            this.lanes.get(command.priority).addFirst(command);
+            this.retried.incrementAndGet();
+            this.ready.signal();
+
+        } finally {
+            this.lock.unlock();
+        }
+
+        if (evicted != null)
+            this.drop(evicted);
+
+        return true;
+
+    }
+
+
+    /**
+     * Raise the rate after a response has been received.
+     *
+     * @author agent
+     **/
+    private void answered() {
+
+        this.lock.lock();
+
+        try {
+            // Adding 1 command/s for every <rate> responses, i.e: about once per second.
+            this.rate = Math.min(this.maxRate, this.rate + 1 / this.rate);
+        } finally {
+            this.lock.unlock();
+        }
+
+    }
+
+
+    /**
+     * Fail the queued commands.
+     *
+     * @author agent
+     **/
+    private void shutdown() {
+
+        List<Command> queued = new ArrayList<Command>();
+
+        this.lock.lock();
+
+        try {
+
+            this.closed = true;
+
+            for (ArrayDeque<Command> lane : this.lanes.values()) {
+                queued.addAll(lane);
+                lane.clear();
+            }
+
+            this.size = 0;
+
+        } finally {
+            this.lock.unlock();
+        }
+
+        IOException e = new IOException("RCON scheduler closed");
+
+        for (Command command : queued)
+            command.fail(e);
+
+    }
+
+
+    /**
+     * A queued command, notified when the engine completes an attempt to send it.
+     **/
+    private class Command extends RconFuture implements RconFuture.Listener {
+
+        private final Priority priority;
+        private final boolean read;
+
+        // Times the command has been sent (written by the scheduler thread before each attempt).
+        private int attempts;
+
+
+        /**
+         * Object constructor.
+         *
+         * @author agent
+         * @param  command The command
+         * @param  priority The command priority
+         * @param  read Whether the command expects a response
+         * @return Command
+         **/
+        private Command(String command, Priority priority, boolean read) {
+            super(command, null);
+            this.priority = priority;
+            this.read = read;
+        }
+
+
+        /**
+         * RconFuture.Listener implementation: an attempt has been completed by the engine.
+         *
+         * @author agent
+         * @param  attempt The engine future
+         **/
+        @Override
+        public void finished(RconFuture attempt) {
+
+            // Cancelled in the meantime: nobody is waiting for the response.
+            if (this.isDone() || attempt.isCancelled()) return;
+
+            Throwable failure = attempt.getFailure();
+
+            if (failure == null) {
+
+                try {
+                    answered();
+                    this.complete(attempt.get());
+                } catch (InterruptedException | ExecutionException e) {
+                    // Not happening: the attempt is complete.
+                    this.fail(e);
+                }
+
+                return;
+
+            }
+
+            if (failure instanceof SocketTimeoutException) {
+
+                if (this.attempts <= retries && retry(this))
+                    return;
+
+                dropped.incrementAndGet();
+                log.debug("RCON command unanswered after " + this.attempts + " attempts: " + this.command);
+
+            }
+
+            this.fail(failure);
+
+        }
+
+    }
+
+}
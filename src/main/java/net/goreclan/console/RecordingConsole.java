@@ -0,0 +1,296 @@
+/**
+ * Urban Terror 4.2 console which doesn't talk to any server.
+ *
+ * Commands are recorded in memory instead of being sent over RCON, so that the
+ * plugins can be run against an archived games.log (see Replay) without touching
+ * a live server. The commands are the very same built by UrTConsole: only send()
+ * and read() are overridden. Cvars and the map set through the console are kept
+ * and returned back by getCvar() and getMap(), while all the other queries get an
+ * empty response. Commands written in a batch are recorded once the batch is sent,
+ * without the no-op duplicates, while queries made through the batch are answered
+ * by the console straight away.
+ *
+ * Commands can be recorded by many threads at once (i.e: asynchronous handlers).
+ *
+ * @author      agent
+ * @version     1.2
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.console
+ **/
+
+package net.goreclan.console;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+
+public class RecordingConsole extends UrTConsole {
+
+    private static final String SET = "set ";
+    private static final String MAP = "map ";
+
+    private final Log log;
+    private final List<String> commands;
+    private final Map<String, String> cvars;
+    private final boolean keep;
+    private long count;
+
+
+    /**
+     * Object constructor.
+     *
+     * @author agent
+     * @param  keep Whether to keep the recorded commands in memory or just count them
+     * @param  log A reference to the main bot logger object
+     * @return RecordingConsole
+     **/
+    public RecordingConsole(boolean keep, Log log) {
+        super(log);
+        this.log = log;
+        this.keep = keep;
+        this.commands = new ArrayList<String>();
+        this.cvars = new HashMap<String, String>();
+    }
+
+
+    /**
+     * Return the commands recorded so far.
+     *
+     * @author agent
+     * @return List<String>. This will return an empty list if commands are not kept in memory
+     **/
+    public synchronized List<String> getCommands() {
+        return new ArrayList<String>(this.commands);
+    }
+
+
+    /**
+     * Return the number of commands recorded so far.
+     *
+     * @author agent
+     * @return long
+     **/
+    public synchronized long getCount() {
+        return this.count;
+    }
+
+
+    /**
+     * Record a console command. Cvars and map changes are kept, so that they
+     * can be returned back by getCvar() and getMap().
+     *
+     * @author agent
+     * @param  command The command which would have been sent to the server
+     **/
+    protected synchronized void record(String command) {
+
+        this.count++;
+
+        if (this.keep)
+            this.commands.add(command);
+
+        if (command.startsWith(SET)) {
+            // Command format: set <name> "<value>"
+            int index = command.indexOf(' ', SET.length());
+            if (index > 0) this.cvars.put(command.substring(SET.length(), index), unquote(command.substring(index + 1)));
+        } else if (command.startsWith(MAP)) {
+            this.cvars.put("mapname", command.substring(MAP.length()));
+        }
+
+        if (this.log.isTraceEnabled())
+            this.log.trace("Recorded console command: " + command);
+
+    }
+
+
+    /**
+     * Record a command instead of sending it.
+     *
+     * @author agent
+     * @param  command The command which would have been sent to the server
+     **/
+    @Override
+    protected void send(String command) {
+        this.record(command);
+    }
+
+
+    /**
+     * Record a command instead of sending it.
+     *
+     * @author agent
+     * @param  command The command which would have been sent to the server
+     * @return An empty server response
+     **/
+    @Override
+    protected String read(String command) {
+        this.record(command);
+        return "";
+    }
+
+
+    /**
+     * Start a batch of commands, recorded once the batch is sent.
+     *
+     * @author agent
+     * @return ConsoleBatch
+     **/
+    @Override
+    public ConsoleBatch batch() {
+        return new Batch(this);
+    }
+
+
+    /**
+     * Return a cvar value previously set through the console.
+     *
+     * @author agent
+     * @param  name The cvar name
+     * @return The cvar value as a String. This will return null if the cvar has never been set
+     **/
+    @Override
+    public synchronized String getCvar(String name) {
+        return this.cvars.get(name);
+    }
+
+
+    /**
+     * Return the map previously set through the console.
+     *
+     * @author agent
+     * @return The current map name. This will return null if the map has never been set
+     **/
+    @Override
+    public String getMap() {
+        return this.getCvar("mapname");
+    }
+
+
+    /**
+     * Remove the double quotes surrounding the given value, if any.
+     *
+     * @author agent
+     * @param  value The value
+     * @return String
+     **/
+    private static String unquote(String value) {
+        if (value.length() >= 2 && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"')
+            return value.substring(1, value.length() - 1);
+
+        return value;
+    }
+
+
+    /**
+     * Batch of commands recorded by the console which started it.
+     **/
+    private static class Batch extends RecordingConsole implements ConsoleBatch {
+
+        private final RecordingConsole console;
+        private final CommandBatch commands = new CommandBatch();
+
+
+        /**
+         * Object constructor.
+         *
+         * @author agent
+         * @param  console The console which started the batch
+         * @return Batch
+         **/
+        private Batch(RecordingConsole console) {
+            super(false, console.log);
+            this.console = console;
+        }
+
+
+        /**
+         * Collect a command instead of recording it.
+         *
+         * @author agent
+         * @param  command The command to be collected
+         **/
+        @Override
+        protected void record(String command) {
+            this.commands.add(command);
+        }
+
+
+        /**
+         * Queries are not batched: they are recorded by the console straight away.
+         *
+         * @author agent
+         * @param  command The command which would have been sent to the server
+         * @return An empty server response
+         **/
+        @Override
+        protected String read(String command) {
+            return this.console.read(command);
+        }
+
+
+        /**
+         * Start a batch of commands: a batch is its own batch.
+         *
+         * @author agent
+         * @return ConsoleBatch
+         **/
+        @Override
+        public ConsoleBatch batch() {
+            return this;
+        }
+
+
+        /**
+         * Return a cvar value set through the console (not the batch, until it is sent).
+         *
+         * @author agent
+         * @param  name The cvar name
+         * @return The cvar value as a String. This will return null if the cvar has never been set
+         **/
+        @Override
+        public String getCvar(String name) {
+            return this.console.getCvar(name);
+        }
+
+
+        /**
+         * Return the map set through the console (not the batch, until it is sent).
+         *
+         * @author agent
+         * @return The current map name. This will return null if the map has never been set
+         **/
+        @Override
+        public String getMap() {
+            return this.console.getMap();
+        }
+
+
+        /**
+         * Record the commands collected so far, and empty the batch.
+         *
+         * @author agent
+         **/
+        @Override
+        public void send() {
+            for (String command : this.commands.drain())
+                this.console.record(command);
+        }
+
+
+        /**
+         * Return the number of commands collected so far.
+         *
+         * @author agent
+         * @return int
+         **/
+        @Override
+        public int size() {
+            return this.commands.size();
+        }
+
+    }
+
+}
@@ -1,8 +1,13 @@
 /**
  * Urban Terror 4.2 RCON console implementation.
  * 
+ * Commands which do not expect a response go through send(), while commands
+ * expecting one go through read(): the console returned by batch() overrides
+ * send() to collect them (see ConsoleBatch), RecordingConsole overrides both
+ * so that nothing is sent to a server.
+ * 
  * @author      Daniele Pantaleone
- * @version     1.2.2
+ * @version     1.4
  * @copyright   Daniele Pantaleone, 04 October, 2012
  * @package     net.goreclan.console
  **/
@@ -50,6 +55,68 @@ public class UrTConsole implements Console{
     }
     
     
+    /**
+     * Object constructor.
+     * 
+     * @author agent
+     * @param  rcon The RCON utility object to be shared
+     * @param  log A reference to the main bot logger object
+     * @return An initialized UrtConsole object.
+     **/
+    private UrTConsole(Rcon rcon, Log log) {
+    	this.rcon = rcon;
+    	this.log = log;
+    }
+    
+    
+    /**
+     * Object constructor for consoles which do not talk to a server.
+     * Subclasses MUST override both send() and read().
+     * 
+     * @author agent
+     * @param  log A reference to the main bot logger object
+     **/
+    protected UrTConsole(Log log) {
+    	this(null, log);
+    }
+    
+    
+    /**
+     * Return the RCON utility object of the console.
+     * 
+     * @author agent
+     * @return Rcon. This will return null if the console does not talk to a server
+     **/
+    protected Rcon getRcon() {
+    	return this.rcon;
+    }
+    
+    
+    /**
+     * Write a command in the RCON console without returning the server response.
+     * 
+     * @author agent
+     * @param  command The command to be sent
+     * @throws IOException If the RCON command fails in being executed
+     **/
+    protected void send(String command) throws IOException {
+    	this.rcon.sendNoRead(command);
+    }
+    
+    
+    /**
+     * Write a command in the RCON console and return the server response.
+     * 
+     * @author agent
+     * @param  command The command to be sent
+     * @throws IOException If the RCON command fails in being executed
+     * @return The server response to the RCON command
+     **/
+    protected String read(String command) throws IOException {
+    	return this.rcon.sendRead(command);
+    }
+    
+    
     /**
      * Ban a player from the server permanently.
      * 
@@ -58,7 +125,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed 
      **/
     public void ban(Client client) throws IOException {
-        this.rcon.sendNoRead("addip " + client.ip);
+        this.send("addip " + client.ip);
     }
     
     
@@ -70,7 +137,33 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void ban(String ip) throws IOException {
-        this.rcon.sendNoRead("addip " + ip);
+        this.send("addip " + ip);
+    }
+    
+    
+    /**
+     * Start a batch of commands: the commands written in the batch are
+     * collected and sent together by ConsoleBatch.send(), chained in as
+     * few RCON packets as possible.
+     * 
+     * @author agent
+     * @return ConsoleBatch
+     **/
+    public ConsoleBatch batch() {
+    	return new Batch(this.rcon, this.log);
+    }
+    
+    
+    /**
+     * Enable or disable the chaining of the batched commands in the same
+     * RCON packet (disabled by default, see Rcon).
+     * 
+     * @author agent
+     * @param  chaining Whether many commands can be sent in the same packet
+     **/
+    public void setChaining(boolean chaining) {
+    	if (this.rcon != null)
+    		this.rcon.setChaining(chaining);
     }
     
     
@@ -83,7 +176,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void bigtext(String message) throws IOException {
-        this.rcon.sendNoRead("bigtext \"" + message + "\"");
+        this.send("bigtext \"" + message + "\"");
     }
     
     
@@ -97,7 +190,7 @@ public class UrTConsole implements Console{
      **/
     public Map<String, String> dumpuser(Client client) throws IOException {
         
-    	String result = this.rcon.sendRead("dumpuser " + client.slot);
+    	String result = this.read("dumpuser " + client.slot);
         
         // This is the string we expect from the /rcon dumpuser <slot> command.
         // We need to parse it and build an HashMap containing the client data.
@@ -139,7 +232,7 @@ public class UrTConsole implements Console{
      **/
     public Map<String, String> dumpuser(int slot) throws IOException {
         
-    	String result = this.rcon.sendRead("dumpuser " + slot);
+    	String result = this.read("dumpuser " + slot);
         
         // This is the string we expect from the /rcon dumpuser <slot> command.
         // We need to parse it and build an HashMap containing the client data.
@@ -182,7 +275,7 @@ public class UrTConsole implements Console{
     	// Do not execute if the client is already in the specified team.
     	// This will prevent to overflow the server with RCON commands.
     	if (client.team != Team.TEAM_BLUE)
-    		this.rcon.sendNoRead("forceteam " + client.slot + " blue");
+    		this.send("forceteam " + client.slot + " blue");
     }
     
     
@@ -197,7 +290,7 @@ public class UrTConsole implements Console{
     	// Since we do not have a Client object as input, we cannot match the current
     	// client team. The RCON command is going to be executed anyway.
     	// NOTE: Use the previous version of the command if possible.
-    	this.rcon.sendNoRead("forceteam " + slot + " blue");
+    	this.send("forceteam " + slot + " blue");
     }
     
     
@@ -209,7 +302,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void forcefree(Client client) throws IOException {
-    	this.rcon.sendNoRead("forceteam " + client.slot + " free");
+    	this.send("forceteam " + client.slot + " free");
     }
     
     
@@ -221,7 +314,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void forcefree(int slot) throws IOException {
-    	this.rcon.sendNoRead("forceteam " + slot +" free");
+    	this.send("forceteam " + slot +" free");
     }
     
     
@@ -236,7 +329,7 @@ public class UrTConsole implements Console{
     	// Do not execute if the client is already in the specified team.
     	// This will prevent to overflow the server with RCON commands.
     	if (client.team != Team.TEAM_RED)
-    		this.rcon.sendNoRead("forceteam " + client.slot +" red");
+    		this.send("forceteam " + client.slot +" red");
     }
     
     
@@ -251,7 +344,7 @@ public class UrTConsole implements Console{
     	// Since we do not have a Client object as input, we cannot match the current
     	// client team. The RCON command is going to be executed anyway.
     	// NOTE: Use the previous version of the command if possible.
-    	this.rcon.sendNoRead("forceteam " + slot + " red");
+    	this.send("forceteam " + slot + " red");
     }
     
     
@@ -266,7 +359,7 @@ public class UrTConsole implements Console{
     	// Do not execute if the client is already in the specified team.
     	// This will prevent to overflow the server with RCON commands.
     	if (client.team != Team.TEAM_SPEC)
-    		this.rcon.sendNoRead("forceteam " + client.slot + " spectator");
+    		this.send("forceteam " + client.slot + " spectator");
     }
     
     
@@ -281,7 +374,7 @@ public class UrTConsole implements Console{
     	// Since we do not have a Client object as input, we cannot match the current
     	// client team. The RCON command is going to be executed anyway.
     	// NOTE: Use the previous version of the command if possible.
-    	this.rcon.sendNoRead("forceteam " + slot + " spectator");
+    	this.send("forceteam " + slot + " spectator");
     }
     
     
@@ -293,7 +386,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void forcesub(Client client) throws IOException {
-        this.rcon.sendNoRead("forcesub " + client.slot);
+        this.send("forcesub " + client.slot);
     }
     
     
@@ -305,7 +398,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void forcesub(int slot) throws IOException {
-        this.rcon.sendNoRead("forcesub " + slot);
+        this.send("forcesub " + slot);
     }
     
     
@@ -381,7 +474,7 @@ public class UrTConsole implements Console{
      **/
     public String getCvar(String name) throws IOException {
     	
-        String result = this.rcon.sendRead(name);
+        String result = this.read(name);
         
         String value = null;
         Pattern pattern = Pattern.compile("^\\s*\"[\\w\\d]*\"\\s*is:\"([\\w\\d]*)\".*$");
@@ -428,7 +521,7 @@ public class UrTConsole implements Console{
      **/
     public String getMap() throws IOException {
         
-    	String result = this.rcon.sendRead("status");
+    	String result = this.read("status");
         
     	// This is the string we expect from the /rcon status command.
         // We need to parse it and get only the current map name.
@@ -463,7 +556,7 @@ public class UrTConsole implements Console{
      **/
     public List<String> getMapList() throws IOException {
     	
-    	String result = this.rcon.sendRead("fdir *.bsp");
+    	String result = this.read("fdir *.bsp");
     	List<String> maplist = new LinkedList<String>();
     	Pattern pattern = Pattern.compile("^*maps/(.*).bsp$");
     	
@@ -512,7 +605,7 @@ public class UrTConsole implements Console{
      **/
     public List<List<String>> getPlayers() throws IOException {
     	
-        String result = this.rcon.sendRead("players");
+        String result = this.read("players");
         
         // Quake3 color notations can be boring sometime.
         // We are going to remove all the Quake3 color codes (^[0-9]) from the string
@@ -568,7 +661,7 @@ public class UrTConsole implements Console{
      **/
     public List<List<String>> getStatus() throws IOException {
         
-    	String result = this.rcon.sendRead("status");
+    	String result = this.read("status");
     	
     	// Quake3 color notations can be boring sometime.
         // We are going to remove all the Quake3 color codes (^[0-9]) from the string
@@ -636,7 +729,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void kick(Client client) throws IOException {
-        this.rcon.sendNoRead("kick " + client.slot);
+        this.send("kick " + client.slot);
     }
     
     
@@ -648,7 +741,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void kick(int slot) throws IOException {
-        this.rcon.sendNoRead("kick " + slot);
+        this.send("kick " + slot);
     }
     
     
@@ -661,7 +754,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void kick(Client client, String reason) throws IOException {
-        this.rcon.sendNoRead("kick " + client.slot + reason);
+        this.send("kick " + client.slot + " " + reason);
     }
     
     
@@ -674,7 +767,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void kick(int slot, String reason) throws IOException {
-    	this.rcon.sendNoRead("kick " + slot + reason);
+    	this.send("kick " + slot + " " + reason);
     }
     
     
@@ -686,7 +779,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void kill(Client client) throws IOException {
-        this.rcon.sendNoRead("smite " + client.slot);
+        this.send("smite " + client.slot);
     }
     
     
@@ -698,7 +791,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void kill(int slot) throws IOException {
-    	this.rcon.sendNoRead("smite " + slot);
+    	this.send("smite " + slot);
     }
     
     
@@ -710,7 +803,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void map(String mapname) throws IOException {
-        this.rcon.sendNoRead("map " + mapname);
+        this.send("map " + mapname);
     }
     
     
@@ -722,7 +815,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void mute(Client client) throws IOException {
-        this.rcon.sendNoRead("mute " + client.slot);
+        this.send("mute " + client.slot);
     }
     
     
@@ -734,7 +827,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void mute(int slot) throws IOException {
-        this.rcon.sendNoRead("mute " + slot);
+        this.send("mute " + slot);
     }
     
      
@@ -746,7 +839,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void nuke(Client client) throws IOException {
-    	this.rcon.sendNoRead("nuke " + client.slot);
+    	this.send("nuke " + client.slot);
     }
     
     
@@ -758,7 +851,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void nuke(int slot) throws IOException {
-    	this.rcon.sendNoRead("nuke " + slot);
+    	this.send("nuke " + slot);
     }
     
     
@@ -770,7 +863,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void say(String message) throws IOException {
-        this.rcon.sendNoRead("say " + message);
+        this.send("say " + message);
     }
     
     
@@ -783,7 +876,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void setCvar(String name, String value) throws IOException {
-        this.rcon.sendNoRead("set " + name + " \"" + value + "\"");
+        this.send("set " + name + " \"" + value + "\"");
     }
     
     
@@ -795,7 +888,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void slap(Client client) throws IOException {
-        this.rcon.sendNoRead("slap " + client.slot);
+        this.send("slap " + client.slot);
     }
     
     
@@ -807,7 +900,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void slap(int slot) throws IOException {
-        this.rcon.sendNoRead("slap " + slot);
+        this.send("slap " + slot);
     }
     
     
@@ -819,7 +912,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void startserverdemo(Client client) throws IOException {
-        this.rcon.sendNoRead("startserverdemo " + client.slot);
+        this.send("startserverdemo " + client.slot);
     }
 
     
@@ -831,7 +924,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void startserverdemo(int slot) throws IOException {
-        this.rcon.sendNoRead("startserverdemo " + slot);
+        this.send("startserverdemo " + slot);
     }
     
     
@@ -842,7 +935,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void startserverdemo() throws IOException {
-        this.rcon.sendNoRead("startserverdemo all");
+        this.send("startserverdemo all");
     }
     
     
@@ -854,7 +947,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void stopserverdemo(Client client) throws IOException {
-        this.rcon.sendNoRead("stopserverdemo " + client.slot);
+        this.send("stopserverdemo " + client.slot);
     }
     
     
@@ -866,7 +959,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void stopserverdemo(int slot) throws IOException {
-        this.rcon.sendNoRead("stopserverdemo " + slot);
+        this.send("stopserverdemo " + slot);
     }
     
     
@@ -877,7 +970,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void stopserverdemo() throws IOException {
-        this.rcon.sendNoRead("stopserverdemo all");
+        this.send("stopserverdemo all");
     }
     
     
@@ -890,7 +983,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void tell(Client client, String message) throws IOException {
-    	this.rcon.sendNoRead("tell " + client.slot + message);
+    	this.send("tell " + client.slot + " " + message);
     }
     
     
@@ -903,7 +996,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void tell(int slot, String message) throws IOException {
-    	this.rcon.sendNoRead("tell " + slot + message);
+    	this.send("tell " + slot + " " + message);
     }
     
     
@@ -915,7 +1008,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void unban(Client client) throws IOException {
-        this.rcon.sendNoRead("removeip " + client.ip);
+        this.send("removeip " + client.ip);
     }
     
 
@@ -927,7 +1020,7 @@ public class UrTConsole implements Console{
      * @throws IOException If the RCON command fails in being executed
      **/
     public void unban(String ip) throws IOException {
-        this.rcon.sendNoRead("removeip " + ip);
+        this.send("removeip " + ip);
     }
     
     
@@ -941,7 +1034,78 @@ public class UrTConsole implements Console{
      * @return The server response to the RCON command
      **/
     public String write(String command) throws IOException  {
-        return this.rcon.sendRead(command);
+        return this.read(command);
+    }
+     
+    
+    /**
+     * Batch of commands sharing the RCON utility object of the console.
+     **/
+    private static class Batch extends UrTConsole implements ConsoleBatch {
+        
+        private final CommandBatch commands = new CommandBatch();
+        
+        
+        /**
+         * Object constructor.
+         * 
+         * @author agent
+         * @param  rcon The RCON utility object of the console
+         * @param  log A reference to the main bot logger object
+         * @return Batch
+         **/
+        private Batch(Rcon rcon, Log log) {
+            super(rcon, log);
+        }
+        
+        
+        /**
+         * Collect a command instead of sending it.
+         * 
+         * @author agent
+         * @param  command The command to be collected
+         **/
+        @Override
+        protected void send(String command) {
+            this.commands.add(command);
+        }
+        
+        
+        /**
+         * Start a batch of commands: a batch is its own batch.
+         * 
+         * @author agent
+         * @return ConsoleBatch
+         **/
+        @Override
+        public ConsoleBatch batch() {
+            return this;
+        }
+        
+        
+        /**
+         * Send the commands collected so far, and empty the batch.
+         * 
+         * @author agent
+         * @throws IOException If the RCON commands fail in being executed
+         **/
+        @Override
+        public void send() throws IOException {
+            this.getRcon().sendNoRead(this.commands.drain());
+        }
+        
+        
+        /**
+         * Return the number of commands collected so far.
+         * 
+         * @author agent
+         * @return int
+         **/
+        @Override
+        public int size() {
+            return this.commands.size();
+        }
+        
     }
      
 }
\ No newline at end of file
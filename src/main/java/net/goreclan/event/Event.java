@@ -1,20 +1,37 @@
 /**
  * Event template class. All the Event classes MUST extend this one.
  * 
+ * Every event carries two timestamps: the monotonic time (System.nanoTime) at which
+ * the log line generating it has been ingested, and the game time printed at the
+ * beginning of such line (in seconds since the map start). The former is meant to
+ * measure latencies and to order events, the latter to reason about the match.
+ * 
+ * Events acquired from an EventPool are reference counted through retain() and
+ * release(), so that they can be recycled once dispatched (see EventPool for the
+ * lifetime rules). For any other event both methods do nothing.
+ * 
  * @author      Daniele Pantaleone, Mathias Van Malderen
- * @version     1.1
+ * @version     1.2
  * @copyright   Daniele Pantaleone, Mathias Van Malderen, 02 July, 2012
  * @package     net.goreclan.event
  **/
 
 package net.goreclan.event;
 
-import java.util.Date;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import net.goreclan.domain.Client;
 
 public abstract class Event {
     
+    private static final AtomicIntegerFieldUpdater<Event> REFERENCES = AtomicIntegerFieldUpdater.newUpdater(Event.class, "references");
+    
     private final EventType type;
-    private final Date time;
+    private long time;
+    private int gameTime;
+    
+    private EventPool pool;
+    private volatile int references;
     
     /**
      * Object constructor.
@@ -24,7 +41,8 @@ public abstract class Event {
      **/
     public Event(EventType type) {
         this.type = type;
-        this.time = new Date();
+        this.time = System.nanoTime();
+        this.gameTime = -1;
     }
     
     
@@ -37,12 +55,95 @@ public abstract class Event {
     }
     
     /**
+     * Return the client who generated the event.
+     * Events involving a client MUST override this method.
+     * 
+     * @author agent
+     * @return Client. This will return null for game-wide events
+     **/
+    public Client getClient() {
+        return null;
+    }
+    
+    
+    /**
+     * Return the monotonic time at which the event has been ingested.
+     * Meaningful only when compared with another System.nanoTime() value.
+     * 
      * @author Daniele Pantaleone
-     * @return Date
+     * @return long
      **/
-    public Date getTime() {
+    public long getTime() {
         return this.time;
     }
     
     
+    /**
+     * Return the game time of the log line which generated the event.
+     * 
+     * @author agent
+     * @return int. This will return -1 if the event has not been generated by a log line
+     **/
+    public int getGameTime() {
+        return this.gameTime;
+    }
+    
+    
+    /**
+     * Set the event timestamps. This is meant to be called by the
+     * parser only, before the event is put in the event queue.
+     * 
+     * @author agent
+     * @param  time The monotonic time at which the log line has been ingested
+     * @param  gameTime The game time of the log line, in seconds
+     **/
+    public void setTime(long time, int gameTime) {
+        this.time = time;
+        this.gameTime = gameTime;
+    }
+    
+    
+    /**
+     * Add a reference to a pooled event, preventing it from being recycled
+     * until release() is called.
+     * 
+     * @author agent
+     * @return Event
+     **/
+    public Event retain() {
+        
+        if (this.pool != null)
+            REFERENCES.incrementAndGet(this);
+        
+        return this;
+        
+    }
+    
+    
+    /**
+     * Release a reference to a pooled event: the event goes back to its pool
+     * when the last reference is released, and MUST NOT be used anymore.
+     * 
+     * @author agent
+     **/
+    public void release() {
+        
+        if (this.pool != null && REFERENCES.decrementAndGet(this) == 0)
+            this.pool.recycle(this);
+        
+    }
+    
+    
+    /**
+     * Mark the event as acquired from the given pool, with a single reference.
+     * 
+     * @author agent
+     * @param  pool The pool the event belongs to
+     **/
+    void acquire(EventPool pool) {
+        this.pool = pool;
+        this.references = 1;
+    }
+    
+    
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 /**
  * Event object for Client Hit
  * 
+ * Instances may be recycled by an EventPool: see EventPool for the lifetime rules.
+ * 
  * @author      Daniele Pantaleone
- * @version     1.2
+ * @version     1.3
  * @copyright   Daniele Pantaleone, 15 July, 2012
  * @package     net.goreclan.event
  **/
@@ -15,10 +17,10 @@ import net.goreclan.iourt42.Mod;
 
 public class EventClientHit extends Event {
 
-    private final Client client;
-    private final Client target;
-    private final Hitlocation location;
-    private final Mod mod ;
+    private Client client;
+    private Client target;
+    private Hitlocation location;
+    private Mod mod;
     
     /**
      * Object constructor.
@@ -40,6 +42,25 @@ public class EventClientHit extends Event {
     }
     
     
+    /**
+     * Reinitialize a pooled event.
+     * 
+     * @author agent
+     * @param  client The client who made the hit
+     * @param  target The client who suffered the hit
+     * @param  mod The UrT MOD for this hit
+     * @param  location The hit location
+     * @return EventClientHit
+     **/
+    EventClientHit set(Client client, Client target, Mod mod, Hitlocation location) {
+        this.client = client;
+        this.target = target;
+        this.mod = mod;
+        this.location = location;
+        return this;
+    }
+    
+    
     /**
      * @author Daniele Pantaleone
      * @return Client
@@ -1,8 +1,10 @@
 /**
  * Event object for Client Kill.
  * 
+ * Instances may be recycled by an EventPool: see EventPool for the lifetime rules.
+ * 
  * @author      Daniele Pantaleone
- * @version     1.1
+ * @version     1.2
  * @copyright   Daniele Pantaleone, 02 July, 2012
  * @package     net.goreclan.event
  **/
@@ -14,9 +16,9 @@ import net.goreclan.iourt42.Mod;
 
 public class EventClientKill extends Event {
 
-    private final Client client;
-    private final Client target;
-    private final Mod mod;
+    private Client client;
+    private Client target;
+    private Mod mod;
     
     /**
      * Object constructor.
@@ -35,6 +37,23 @@ public class EventClientKill extends Event {
     }
     
     
+    /**
+     * Reinitialize a pooled event.
+     * 
+     * @author agent
+     * @param  client The client who made the kill
+     * @param  target The client who has been killed
+     * @param  mod The UrT MOD for this kill
+     * @return EventClientKill
+     **/
+    EventClientKill set(Client client, Client target, Mod mod) {
+        this.client = client;
+        this.target = target;
+        this.mod = mod;
+        return this;
+    }
+    
+    
     /**
      * @author Daniele Pantaleone
      * @return Client
@@ -1,8 +1,10 @@
 /**
  * Event object for Client Radio.
  * 
+ * Instances may be recycled by an EventPool: see EventPool for the lifetime rules.
+ * 
  * @author      Daniele Pantaleone
- * @version     1.1
+ * @version     1.2
  * @copyright   Daniele Pantaleone, 8 September, 2012
  * @package     net.goreclan.event
  **/
@@ -13,11 +15,11 @@ import net.goreclan.domain.Client;
 
 public class EventClientRadio extends Event {
 
-    private final Client client;
-    private final int msg_group;
-    private final int msg_id;
-    private final String location;
-    private final String message;
+    private Client client;
+    private int msg_group;
+    private int msg_id;
+    private String location;
+    private String message;
     
     /**
      * Object constructor.
@@ -40,6 +42,27 @@ public class EventClientRadio extends Event {
     }
     
     
+    /**
+     * Reinitialize a pooled event.
+     * 
+     * @author agent
+     * @param  client The client who sent the radio message
+     * @param  msg_group The radio message group
+     * @param  msg_id The radio message id
+     * @param  location The client location
+     * @param  message The radio message
+     * @return EventClientRadio
+     **/
+    EventClientRadio set(Client client, int msg_group, int msg_id, String location, String message) {
+        this.client = client;
+        this.msg_group = msg_group;
+        this.msg_id = msg_id;
+        this.location = location;
+        this.message = message;
+        return this;
+    }
+    
+    
     /**
      * @author Daniele Pantaleone
      * @return Client
@@ -1,8 +1,10 @@
 /**
  * Event object for Client Say.
  * 
+ * Instances may be recycled by an EventPool: see EventPool for the lifetime rules.
+ * 
  * @author      Daniele Pantaleone
- * @version     1.1
+ * @version     1.2
  * @copyright   Daniele Pantaleone, 02 July, 2012
  * @package     net.goreclan.event
  **/
@@ -13,8 +15,8 @@ import net.goreclan.domain.Client;
 
 public class EventClientSay extends Event {
 
-    private final Client client;
-    private final String message;
+    private Client client;
+    private String message;
     
     /**
      * Object constructor.
@@ -31,6 +33,21 @@ public class EventClientSay extends Event {
     }
     
     
+    /**
+     * Reinitialize a pooled event.
+     * 
+     * @author agent
+     * @param  client The client who said something
+     * @param  message The sentence said
+     * @return EventClientSay
+     **/
+    EventClientSay set(Client client, String message) {
+        this.client = client;
+        this.message = message;
+        return this;
+    }
+    
+    
     /**
      * @author Daniele Pantaleone
      * @return Client
@@ -0,0 +1,130 @@
+/**
+ * Event object for Hit summaries.
+ *
+ * Produced by the HitAggregator instead of (or together with) the EventClientHit
+ * events: it holds the number of hits made by every attacker on every victim on
+ * every hit location since the previous summary. Entries are stored in the order
+ * the attacker/victim/location combination has been hit for the 1st time.
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.event
+ **/
+
+package net.goreclan.event;
+
+import net.goreclan.domain.Client;
+import net.goreclan.iourt42.Hitlocation;
+
+public class EventGameHitSummary extends Event {
+
+    private final Client[] clients;
+    private final Client[] targets;
+    private final Hitlocation[] locations;
+    private final int[] hits;
+    private final int start;
+
+    /**
+     * Object constructor.
+     *
+     * @author agent
+     * @param  clients The clients who made the hits
+     * @param  targets The clients who suffered the hits
+     * @param  locations The hit locations
+     * @param  hits The number of hits for each entry
+     * @param  start The game time of the 1st hit summarized
+     * @return EventGameHitSummary
+     **/
+    public EventGameHitSummary(Client[] clients, Client[] targets, Hitlocation[] locations, int[] hits, int start) {
+        super(EventType.EVT_GAME_HIT_SUMMARY);
+        this.clients = clients;
+        this.targets = targets;
+        this.locations = locations;
+        this.hits = hits;
+        this.start = start;
+    }
+
+
+    /**
+     * Return the number of attacker/victim/location entries.
+     *
+     * @author agent
+     * @return int
+     **/
+    public int size() {
+        return this.hits.length;
+    }
+
+
+    /**
+     * @author agent
+     * @param  index The entry index
+     * @return Client
+     **/
+    public Client getClient(int index) {
+        return this.clients[index];
+    }
+
+
+    /**
+     * @author agent
+     * @param  index The entry index
+     * @return Client
+     **/
+    public Client getTarget(int index) {
+        return this.targets[index];
+    }
+
+
+    /**
+     * @author agent
+     * @param  index The entry index
+     * @return Hitlocation
+     **/
+    public Hitlocation getLocation(int index) {
+        return this.locations[index];
+    }
+
+
+    /**
+     * @author agent
+     * @param  index The entry index
+     * @return int
+     **/
+    public int getHits(int index) {
+        return this.hits[index];
+    }
+
+
+    /**
+     * Return the number of hits made by a client on another one, on any location.
+     *
+     * @author agent
+     * @param  client The client who made the hits
+     * @param  target The client who suffered the hits
+     * @return int
+     **/
+    public int getHits(Client client, Client target) {
+
+        int total = 0;
+        for (int i = 0; i < this.hits.length; i++)
+            if (this.clients[i] == client && this.targets[i] == target)
+                total += this.hits[i];
+
+        return total;
+
+    }
+
+
+    /**
+     * Return the game time of the 1st hit summarized.
+     *
+     * @author agent
+     * @return int
+     **/
+    public int getStart() {
+        return this.start;
+    }
+
+}
@@ -0,0 +1,241 @@
+/**
+ * Pool of the high frequency event objects (EventClientHit, EventClientKill,
+ * EventClientSay and EventClientRadio).
+ *
+ * When the Parser is given a pool, it recycles the events of such types instead of
+ * allocating a new object for every log line. A pooled event is reference counted:
+ * it is acquired by the parser with one reference, which is released by the
+ * EventProcessor once the event has been dispatched to all the handlers, and the
+ * object goes back to the pool when its last reference is released.
+ *
+ * Lifetime rules for EventHandlers: a pooled event is valid only until onEvent()
+ * returns. Handlers MUST NOT keep a reference to the event (or hand it over to
+ * another thread) after returning, unless they call retain() before returning and
+ * release() once done with it. The event fields (clients, strings...) are never
+ * recycled and can be kept freely. Asynchronous and isolated handlers do not need
+ * to care: the EventProcessor retains the event for them.
+ *
+ * Events which are never released (i.e: dropped by the event queue) are simply
+ * garbage collected: the pool allocates a new object when it is empty.
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.event
+ **/
+
+package net.goreclan.event;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import net.goreclan.domain.Client;
+import net.goreclan.iourt42.Hitlocation;
+import net.goreclan.iourt42.Mod;
+
+public class EventPool {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final BlockingQueue<EventClientHit> hits;
+    private final BlockingQueue<EventClientKill> kills;
+    private final BlockingQueue<EventClientSay> says;
+    private final BlockingQueue<EventClientRadio> radios;
+
+    // Written by the parser thread only.
+    private volatile long created;
+    private volatile long reused;
+
+    /**
+     * Object constructor.
+     *
+     * @author agent
+     * @return EventPool
+     **/
+    public EventPool() {
+        this(DEFAULT_CAPACITY);
+    }
+
+
+    /**
+     * Object constructor.
+     *
+     * @author agent
+     * @param  capacity The maximum number of idle events kept for each event type
+     * @return EventPool
+     **/
+    public EventPool(int capacity) {
+        this.hits = new ArrayBlockingQueue<EventClientHit>(capacity);
+        this.kills = new ArrayBlockingQueue<EventClientKill>(capacity);
+        this.says = new ArrayBlockingQueue<EventClientSay>(capacity);
+        this.radios = new ArrayBlockingQueue<EventClientRadio>(capacity);
+    }
+
+
+    /**
+     * Acquire an EventClientHit.
+     *
+     * @author agent
+     * @param  client The client who made the hit
+     * @param  target The client who suffered the hit
+     * @param  mod The UrT MOD for this hit
+     * @param  location The hit location
+     * @return EventClientHit
+     **/
+    public EventClientHit hit(Client client, Client target, Mod mod, Hitlocation location) {
+
+        EventClientHit event = this.hits.poll();
+
+        if (event == null) {
+            event = new EventClientHit(client, target, mod, location);
+            this.created++;
+        } else {
+            event.set(client, target, mod, location);
+            this.reused++;
+        }
+
+        event.acquire(this);
+        return event;
+
+    }
+
+
+    /**
+     * Acquire an EventClientKill.
+     *
+     * @author agent
+     * @param  client The client who made the kill
+     * @param  target The client who has been killed
+     * @param  mod The UrT MOD for this kill
+     * @return EventClientKill
+     **/
+    public EventClientKill kill(Client client, Client target, Mod mod) {
+
+        EventClientKill event = this.kills.poll();
+
+        if (event == null) {
+            event = new EventClientKill(client, target, mod);
+            this.created++;
+        } else {
+            event.set(client, target, mod);
+            this.reused++;
+        }
+
+        event.acquire(this);
+        return event;
+
+    }
+
+
+    /**
+     * Acquire an EventClientSay.
+     *
+     * @author agent
+     * @param  client The client who said the message
+     * @param  message The message
+     * @return EventClientSay
+     **/
+    public EventClientSay say(Client client, String message) {
+
+        EventClientSay event = this.says.poll();
+
+        if (event == null) {
+            event = new EventClientSay(client, null, message);
+            this.created++;
+        } else {
+            event.set(client, message);
+            this.reused++;
+        }
+
+        event.acquire(this);
+        return event;
+
+    }
+
+
+    /**
+     * Acquire an EventClientRadio.
+     *
+     * @author agent
+     * @param  client The client who sent the radio message
+     * @param  msg_group The radio message group
+     * @param  msg_id The radio message id
+     * @param  location The client location
+     * @param  message The radio message
+     * @return EventClientRadio
+     **/
+    public EventClientRadio radio(Client client, int msg_group, int msg_id, String location, String message) {
+
+        EventClientRadio event = this.radios.poll();
+
+        if (event == null) {
+            event = new EventClientRadio(client, msg_group, msg_id, location, message);
+            this.created++;
+        } else {
+            event.set(client, msg_group, msg_id, location, message);
+            this.reused++;
+        }
+
+        event.acquire(this);
+        return event;
+
+    }
+
+
+    /**
+     * Put back an event whose last reference has been released.
+     * The event is discarded if the pool is full.
+     *
+     * @author agent
+     * @param  event The event to recycle
+     **/
+    void recycle(Event event) {
+
+        switch (event.getType()) {
+
+            case EVT_CLIENT_HIT:
+                this.hits.offer((EventClientHit) event);
+                break;
+
+            case EVT_CLIENT_KILL:
+                this.kills.offer((EventClientKill) event);
+                break;
+
+            case EVT_CLIENT_SAY:
+                this.says.offer((EventClientSay) event);
+                break;
+
+            case EVT_CLIENT_RADIO:
+                this.radios.offer((EventClientRadio) event);
+                break;
+
+            default:
+                break;
+
+        }
+
+    }
+
+
+    /**
+     * Return the number of events allocated by the pool.
+     *
+     * @author agent
+     * @return long
+     **/
+    public long getCreated() {
+        return this.created;
+    }
+
+
+    /**
+     * Return the number of events recycled by the pool.
+     *
+     * @author agent
+     * @return long
+     **/
+    public long getReused() {
+        return this.reused;
+    }
+
+}
@@ -30,6 +30,7 @@ public enum EventType {
     EVT_CLIENT_TEAM_CHANGE,
     EVT_CLIENT_VOTE,
     EVT_GAME_EXIT,
+    EVT_GAME_HIT_SUMMARY,
     EVT_GAME_ROUND_START,
     EVT_GAME_WARMUP,
     EVT_SURVIVOR_WINNER,
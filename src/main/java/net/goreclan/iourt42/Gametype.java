@@ -24,17 +24,26 @@ public enum Gametype {
     GT_CTF	(7,	"CTF"),
     GT_BOMB	(8, "BOMB");
     
-    private static final Map<Integer, Gametype> gametypeByCode = new HashMap<Integer, Gametype>();
     private static final Map<String, Gametype> gametypeByName = new HashMap<String, Gametype>();
+    private static final Gametype[] gametypeByCode;
     private Integer code;
     private String name;
     
     
     static {
+        
+        int maxCode = 0;
+        
         for (Gametype g : EnumSet.allOf(Gametype.class)) {
-            Gametype.gametypeByCode.put(g.code, g);
             Gametype.gametypeByName.put(g.name, g);
+            maxCode = Math.max(maxCode, g.code);
         }
+        
+        // Dense lookup table indexed by code.
+        gametypeByCode = new Gametype[maxCode + 1];
+        for (Gametype g : EnumSet.allOf(Gametype.class))
+            gametypeByCode[g.code] = g;
+        
     }
     
     
@@ -80,10 +89,24 @@ public enum Gametype {
      **/
     public static Gametype getByCode(Integer code) throws IndexOutOfBoundsException {
         
-    	if (!gametypeByCode.containsKey(code)) 
+    	Gametype gametype = code == null ? null : findByCode(code);
+    	if (gametype == null) 
         	throw new IndexOutOfBoundsException("Unable to match gametype code: " + code + ".");
         
-    	return gametypeByCode.get(code);
+    	return gametype;
+    }
+    
+    
+    /**
+     * Return a Gametype object by matching the Gametype code without 
+     * boxing the code or throwing an exception when there is no match.
+     * 
+     * @author agent
+     * @param  code The Gametype code
+     * @return Gametype. This will return null if the Gametype code is not valid
+     **/
+    public static Gametype findByCode(int code) {
+        return code >= 0 && code < gametypeByCode.length ? gametypeByCode[code] : null;
     }
     
     
@@ -24,17 +24,27 @@ public enum Hitlocation {
     LEGS		(9,"LEGS");
     //TODO: Find the hit code for body hits
     
-    private static final Map<Integer, Hitlocation> hitlocationByCode = new HashMap<Integer, Hitlocation>();
     private static final Map<String, Hitlocation> hitlocationByName = new HashMap<String, Hitlocation>();
+    private static final Hitlocation[] hitlocationByCode;
     private Integer code = null;
     private String  name = null;
     
     
     static {
+        
+        int maxCode = 0;
+        
         for (Hitlocation h : EnumSet.allOf(Hitlocation.class)) {
-            Hitlocation.hitlocationByCode.put(h.code, h);
             Hitlocation.hitlocationByName.put(h.name, h);
+            maxCode = Math.max(maxCode, h.code);
         }
+        
+        // Dense lookup table indexed by code: this is hit
+        // for every Hit line, so we avoid boxing and hashing.
+        hitlocationByCode = new Hitlocation[maxCode + 1];
+        for (Hitlocation h : EnumSet.allOf(Hitlocation.class))
+            hitlocationByCode[h.code] = h;
+        
     }
     
     
@@ -78,10 +88,24 @@ public enum Hitlocation {
      **/
     public static Hitlocation getByCode(Integer code) throws IndexOutOfBoundsException {
         
-    	if (!hitlocationByCode.containsKey(code)) 
+    	Hitlocation location = code == null ? null : findByCode(code);
+    	if (location == null) 
         	throw new IndexOutOfBoundsException("Unable to match hit location code: " + code + ".");
         
-    	return hitlocationByCode.get(code);
+    	return location;
+    }
+    
+    
+    /**
+     * Return a Hitlocation object by matching the hit location code without 
+     * boxing the code or throwing an exception when there is no match.
+     * 
+     * @author agent
+     * @param  code The hit location code
+     * @return Hitlocation. This will return null if the hit location code is not valid
+     **/
+    public static Hitlocation findByCode(int code) {
+        return code >= 0 && code < hitlocationByCode.length ? hitlocationByCode[code] : null;
     }
     
     
@@ -10,8 +10,6 @@
 package net.goreclan.iourt42;
 
 import java.util.EnumSet;
-import java.util.HashMap;
-import java.util.Map;
 
 public enum Mod {
     
@@ -50,17 +48,31 @@ public enum Mod {
     UT_MOD_GOOMBA(39,null);
     
     
-    private static final Map<Integer, Mod> modByKillMode = new HashMap<Integer, Mod>();
-    private static final Map<Integer, Mod> modByHitMode  = new HashMap<Integer, Mod>();
+    private static final Mod[] modByKillMode;
+    private static final Mod[] modByHitMode;
     private Integer killmode = null;
     private Integer hitmode = null;
     
     
     static {
+        
+        int maxKillMode = 0, maxHitMode = 0;
+        
+        for (Mod m : EnumSet.allOf(Mod.class)) {
+            maxKillMode = Math.max(maxKillMode, m.killmode);
+            if (m.hitmode != null) maxHitMode = Math.max(maxHitMode, m.hitmode);
+        }
+        
+        // Dense lookup tables indexed by code: these are hit
+        // for every Hit/Kill line, so we avoid boxing and hashing.
+        modByKillMode = new Mod[maxKillMode + 1];
+        modByHitMode = new Mod[maxHitMode + 1];
+        
         for (Mod m : EnumSet.allOf(Mod.class)) {
-            Mod.modByKillMode.put(m.killmode, m);
-            Mod.modByHitMode.put(m.hitmode, m);
+            modByKillMode[m.killmode] = m;
+            if (m.hitmode != null) modByHitMode[m.hitmode] = m;
         }
+        
     }
     
     
@@ -104,10 +116,37 @@ public enum Mod {
      **/
     public static Mod getByKillMode(Integer killmode) throws IndexOutOfBoundsException {
         
-    	if (!modByKillMode.containsKey(killmode)) 
+    	Mod mod = killmode == null ? null : findByKillMode(killmode);
+    	if (mod == null) 
         	throw new IndexOutOfBoundsException("Unable to match kill mode code: " + killmode + ".");
         
-    	return modByKillMode.get(killmode);
+    	return mod;
+    }
+    
+    
+    /**
+     * Return a Mod object by matching the Kill Mode without boxing the code
+     * or throwing an exception when there is no match.
+     * 
+     * @author agent
+     * @param  killmode The kill mode code
+     * @return Mod. This will return null if the kill mode code is not valid
+     **/
+    public static Mod findByKillMode(int killmode) {
+        return killmode >= 0 && killmode < modByKillMode.length ? modByKillMode[killmode] : null;
+    }
+    
+    
+    /**
+     * Return a Mod object by matching the Hit Mode without boxing the code
+     * or throwing an exception when there is no match.
+     * 
+     * @author agent
+     * @param  hitmode The hit mode code
+     * @return Mod. This will return null if the hit mode code is not valid
+     **/
+    public static Mod findByHitMode(int hitmode) {
+        return hitmode >= 0 && hitmode < modByHitMode.length ? modByHitMode[hitmode] : null;
     }
     
     
@@ -121,10 +160,11 @@ public enum Mod {
      */
     public static Mod getByHitMode(Integer hitmode) throws IndexOutOfBoundsException {
         
-    	if (!modByHitMode.containsKey(hitmode)) 
+    	Mod mod = hitmode == null ? null : findByHitMode(hitmode);
+    	if (mod == null) 
         	throw new IndexOutOfBoundsException("Unable to match hit mode code: " + hitmode + ".");
      
-        return modByHitMode.get(hitmode);
+        return mod;
     }
     
 }
\ No newline at end of file
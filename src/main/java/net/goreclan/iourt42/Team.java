@@ -20,17 +20,30 @@ public enum Team {
     TEAM_SPEC (3,  "SPECTATOR"),
     TEAM_FREE (-1, "FREE");
     
-    private static final Map<Integer, Team> teamByCode = new HashMap<Integer, Team>();
     private static final Map<String, Team> teamByName = new HashMap<String, Team>();
+    private static final Team[] teamByCode;
+    private static final int minCode;
     private int code;
     private String name;
     
     
     static {
+        
+        int min = 0, max = 0;
+        
         for (Team t : EnumSet.allOf(Team.class)) {
-            Team.teamByCode.put(t.code, t);
             Team.teamByName.put(t.name, t);
+            min = Math.min(min, t.code);
+            max = Math.max(max, t.code);
         }
+        
+        // Dense lookup table indexed by code. Codes are shifted
+        // by the minimum one since TEAM_FREE has a negative code.
+        minCode = min;
+        teamByCode = new Team[max - min + 1];
+        for (Team t : EnumSet.allOf(Team.class))
+            teamByCode[t.code - min] = t;
+        
     }
     
     
@@ -76,10 +89,25 @@ public enum Team {
      */
     public static Team getByCode(Integer code) throws IndexOutOfBoundsException {
        
-    	if (!teamByCode.containsKey(code)) 
+    	Team team = code == null ? null : findByCode(code);
+    	if (team == null) 
         	throw new IndexOutOfBoundsException("Unable to match team code: " + code + ".");
         
-        return teamByCode.get(code);
+        return team;
+    }
+    
+    
+    /**
+     * Return a Team object by matching the Team code without boxing 
+     * the code or throwing an exception when there is no match.
+     * 
+     * @author agent
+     * @param  code The Urban Terror 4.2 team code
+     * @return Team. This will return null if the team code is not valid
+     **/
+    public static Team findByCode(int code) {
+        int index = code - minCode;
+        return index >= 0 && index < teamByCode.length ? teamByCode[index] : null;
     }
     
     
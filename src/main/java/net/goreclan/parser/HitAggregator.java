@@ -0,0 +1,185 @@
+/**
+ * Hit aggregation stage of the Parser.
+ *
+ * Hit lines are by far the most common ones during a round, and most plugins only
+ * want to know how many times a client hit another one. The aggregator counts hits
+ * in a dense table of primitive counters indexed by attacker slot, victim slot and
+ * hit location, and the Parser turns them into a single EventGameHitSummary at the
+ * end of a round or map, or every given interval of game time. Raw EventClientHit
+ * events are still produced as long as some EventHandler is subscribed to them.
+ *
+ * The interval is measured in game time, the clock of the games.log lines, not in
+ * wall clock time: it has a resolution of one second, and it is checked when a line
+ * is parsed only. A summary is therefore emitted with the first line logged once the
+ * interval has elapsed (a quiet server doesn't get one until something happens).
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.parser
+ **/
+
+package net.goreclan.parser;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import net.goreclan.domain.Client;
+import net.goreclan.event.EventGameHitSummary;
+import net.goreclan.event.EventType;
+import net.goreclan.iourt42.Hitlocation;
+import net.goreclan.utility.EventProcessor;
+
+public class HitAggregator {
+
+    private static final Hitlocation[] LOCATIONS = Hitlocation.values();
+
+    private final int[] hits;
+    private final Client[] clients;
+    private final long interval;
+    private final EventProcessor processor;
+
+    // Indexes of the counters hit since the last summary, in order.
+    private int[] cells;
+    private int size;
+    private int start;
+
+
+    /**
+     * Object constructor.
+     *
+     * @author agent
+     * @param  interval The game time after which hits are summarized (0 to summarize them at round/map end only)
+     * @param  unit The interval unit (game time has a resolution of one second)
+     * @param  processor The event processor used to check for EventClientHit subscribers (null to always produce them)
+     * @return HitAggregator
+     **/
+    public HitAggregator(long interval, TimeUnit unit, EventProcessor processor) {
+
+        if (interval < 0)
+            throw new IllegalArgumentException("Invalid hit summary interval: " + interval);
+
+        this.hits = new int[Parser.MAX_CLIENTS * Parser.MAX_CLIENTS * LOCATIONS.length];
+        this.clients = new Client[Parser.MAX_CLIENTS];
+        this.interval = unit.toMillis(interval);
+        this.processor = processor;
+        this.cells = new int[256];
+
+    }
+
+
+    /**
+     * Tells whether the given clients are the ones the pending hits have been counted
+     * for. A slot reused by a new client makes the pending hits to be summarized first.
+     *
+     * @author agent
+     * @param  client The client who made the hit
+     * @param  target The client who suffered the hit
+     * @return boolean
+     **/
+    public boolean accepts(Client client, Client target) {
+
+        Client c = this.clients[client.slot];
+        Client t = this.clients[target.slot];
+
+        return (c == null || c == client) && (t == null || t == target);
+
+    }
+
+
+    /**
+     * Count a hit.
+     *
+     * @author agent
+     * @param  client The client who made the hit
+     * @param  target The client who suffered the hit
+     * @param  location The hit location
+     * @param  gameTime The game time of the hit
+     **/
+    public void add(Client client, Client target, Hitlocation location, int gameTime) {
+
+        int cell = (client.slot * Parser.MAX_CLIENTS + target.slot) * LOCATIONS.length + location.ordinal();
+
+        if (this.hits[cell]++ == 0) {
+
+            if (this.size == 0)
+                this.start = gameTime;
+
+            if (this.size == this.cells.length)
+                this.cells = Arrays.copyOf(this.cells, this.size * 2);
+
+            this.cells[this.size++] = cell;
+            this.clients[client.slot] = client;
+            this.clients[target.slot] = target;
+
+        }
+
+    }
+
+
+    /**
+     * Tells whether the pending hits are due to be summarized.
+     *
+     * @author agent
+     * @param  gameTime The current game time
+     * @return boolean
+     **/
+    public boolean isDue(int gameTime) {
+
+        if (this.size == 0 || this.interval == 0)
+            return false;
+
+        // The game time restarts from 0 on map change.
+        return gameTime < this.start || TimeUnit.SECONDS.toMillis(gameTime - this.start) >= this.interval;
+
+    }
+
+
+    /**
+     * Tells whether raw EventClientHit events must still be produced.
+     *
+     * @author agent
+     * @return boolean
+     **/
+    public boolean isRawHits() {
+        return this.processor == null || this.processor.isSubscribed(EventType.EVT_CLIENT_HIT);
+    }
+
+
+    /**
+     * Summarize the pending hits and reset the counters.
+     *
+     * @author agent
+     * @return EventGameHitSummary. This will return null if no hit is pending
+     **/
+    public EventGameHitSummary flush() {
+
+        if (this.size == 0)
+            return null;
+
+        Client[] clients = new Client[this.size];
+        Client[] targets = new Client[this.size];
+        Hitlocation[] locations = new Hitlocation[this.size];
+        int[] hits = new int[this.size];
+
+        for (int i = 0; i < this.size; i++) {
+
+            int cell = this.cells[i];
+            int pair = cell / LOCATIONS.length;
+
+            clients[i] = this.clients[pair / Parser.MAX_CLIENTS];
+            targets[i] = this.clients[pair % Parser.MAX_CLIENTS];
+            locations[i] = LOCATIONS[cell % LOCATIONS.length];
+            hits[i] = this.hits[cell];
+            this.hits[cell] = 0;
+
+        }
+
+        Arrays.fill(this.clients, null);
+        this.size = 0;
+
+        return new EventGameHitSummary(clients, targets, locations, hits, this.start);
+
+    }
+
+}
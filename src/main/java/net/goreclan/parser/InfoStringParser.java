@@ -0,0 +1,160 @@
+/**
+ * Streaming parser for Quake3 infostrings.
+ * InfoString format: \ip\110.143.73.144:27960\challenge\1052098110\qport\51418\protocol\68...
+ *
+ * The infostring is walked only once, directly on the games.log line. Keys belonging
+ * to the fixed Urban Terror 4.2 userinfo vocabulary are resolved to a canonical String
+ * instance without creating a new String, and the caller can restrict the parsing to
+ * the keys it's interested in, so that no String is created for the other values.
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.parser
+ **/
+
+package net.goreclan.parser;
+
+import java.util.Map;
+import java.util.Set;
+
+public class InfoStringParser {
+
+	/**
+	 * Known infostring keys (ClientUserinfo, ClientUserinfoChanged and InitRound).
+	 **/
+	private static final String[] KEYS = {
+		"ip", "name", "gear", "team", "cl_guid", "authl", "racered", "raceblue", "rate",
+		"ut_timenudge", "cg_rgb", "cg_predictitems", "cg_physics", "cg_ghost", "cg_autopickup",
+		"snaps", "model", "headmodel", "team_model", "team_headmodel", "sex", "handicap",
+		"color1", "color2", "funred", "funblue", "weapmodes", "challenge", "qport", "protocol",
+		"password", "cl_anonymous", "characterfile", "teamtask",
+		"n", "t", "r", "tl", "f0", "f1", "f2", "a0", "a1", "a2",
+		"g_gametype", "g_matchmode", "g_gear", "g_needpass", "mapname", "sv_hostname",
+		"sv_maxclients", "fraglimit", "timelimit", "capturelimit", "version", "auth"
+	};
+
+	private static final String[] TABLE = new String[256];
+
+	static {
+		for (String key : KEYS) {
+			int i = key.hashCode() & (TABLE.length - 1);
+			while (TABLE[i] != null) i = (i + 1) & (TABLE.length - 1);
+			TABLE[i] = key;
+		}
+	}
+
+
+	/**
+	 * Return the canonical instance of the given infostring key.
+	 *
+	 * @author agent
+	 * @param  s The character sequence holding the key
+	 * @param  start The index of the 1st key character
+	 * @param  end The index following the last key character
+	 * @return String. This will return null if the key is not part of the known vocabulary
+	 **/
+	public static String intern(CharSequence s, int start, int end) {
+
+		// Same hash function used by java.lang.String.
+		int hash = 0;
+		for (int i = start; i < end; i++)
+			hash = 31 * hash + s.charAt(i);
+
+		for (int i = hash & (TABLE.length - 1); TABLE[i] != null; i = (i + 1) & (TABLE.length - 1)) {
+			if (regionEquals(TABLE[i], s, start, end))
+				return TABLE[i];
+		}
+
+		return null;
+
+	}
+
+
+	/**
+	 * Parse the given infostring section and store the key/value pairs in the given map.
+	 *
+	 * @author agent
+	 * @param  s The character sequence holding the infostring
+	 * @param  start The index of the 1st infostring character
+	 * @param  end The index following the last infostring character
+	 * @param  keys The keys to be stored in the map or null to store all of them
+	 * @param  userinfo The map where to store the key/value pairs
+	 **/
+	public static void parse(CharSequence s, int start, int end, Set<String> keys, Map<String, String> userinfo) {
+
+		int remaining = keys == null ? Integer.MAX_VALUE : keys.size();
+		int index = start;
+
+		// The leading backslash is optional.
+		if (index < end && s.charAt(index) == '\\')
+			index++;
+
+		while (index < end && remaining > 0) {
+
+			int keyEnd = indexOf(s, index, end);
+			if (keyEnd == end)
+				break;
+
+			int valueEnd = indexOf(s, keyEnd + 1, end);
+			String key = intern(s, index, keyEnd);
+
+			if (keys == null) {
+				if (key == null) key = s.subSequence(index, keyEnd).toString();
+				userinfo.put(key, s.subSequence(keyEnd + 1, valueEnd).toString());
+			} else if (key != null && keys.contains(key)) {
+				userinfo.put(key, s.subSequence(keyEnd + 1, valueEnd).toString());
+				remaining--;
+			}
+
+			index = valueEnd + 1;
+
+		}
+
+	}
+
+
+	/**
+	 * Return the index of the next backslash.
+	 *
+	 * @author agent
+	 * @param  s The character sequence holding the infostring
+	 * @param  start The index from which to start searching
+	 * @param  end The index following the last infostring character
+	 * @return int. This will return end if there is no backslash
+	 **/
+	private static int indexOf(CharSequence s, int start, int end) {
+
+		while (start < end && s.charAt(start) != '\\')
+			start++;
+
+		return start;
+
+	}
+
+
+	/**
+	 * Tells whether the given key matches the character sequence section.
+	 *
+	 * @author agent
+	 * @param  key The key to be compared
+	 * @param  s The character sequence holding the infostring
+	 * @param  start The index of the 1st character to compare
+	 * @param  end The index following the last character to compare
+	 * @return boolean
+	 **/
+	private static boolean regionEquals(String key, CharSequence s, int start, int end) {
+
+		if (key.length() != end - start)
+			return false;
+
+		for (int i = 0; i < key.length(); i++) {
+			if (key.charAt(i) != s.charAt(start + i))
+				return false;
+		}
+
+		return true;
+
+	}
+
+}
@@ -0,0 +1,130 @@
+/**
+ * Allocation free tokenizer for games.log lines.
+ *
+ * The tokenizer is a cursor over a CharSequence (i.e: the LineBuffer filled by
+ * the log reader) or over a section of a ByteBuffer (i.e: a memory mapped log
+ * archive) and reads numeric fields straight into primitive ints. A single
+ * instance is meant to be reset and reused for every parsed line.
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.parser
+ **/
+
+package net.goreclan.parser;
+
+import java.nio.ByteBuffer;
+
+public class LineTokenizer {
+
+	private CharSequence chars;
+	private ByteBuffer bytes;
+	private int index;
+	private int limit;
+
+
+	/**
+	 * Start tokenizing the given line.
+	 *
+	 * @author agent
+	 * @param  line The line to be tokenized
+	 * @param  index The index from which to start reading
+	 * @return LineTokenizer
+	 **/
+	public LineTokenizer reset(CharSequence line, int index) {
+		this.chars = line;
+		this.bytes = null;
+		this.index = index;
+		this.limit = line.length();
+		return this;
+	}
+
+
+	/**
+	 * Start tokenizing the given buffer section.
+	 * Bytes are read using absolute positions: the buffer state is not modified.
+	 *
+	 * @author agent
+	 * @param  buffer The buffer holding the line
+	 * @param  index The index from which to start reading
+	 * @param  limit The index following the last byte of the line
+	 * @return LineTokenizer
+	 **/
+	public LineTokenizer reset(ByteBuffer buffer, int index, int limit) {
+		this.chars = null;
+		this.bytes = buffer;
+		this.index = index;
+		this.limit = limit;
+		return this;
+	}
+
+
+	/**
+	 * Read the next non negative integer, skipping leading spaces.
+	 *
+	 * @author agent
+	 * @throws NumberFormatException If there is no integer at the current position
+	 * @return int
+	 **/
+	public int nextInt() throws NumberFormatException {
+
+		while (this.index < this.limit && this.charAt(this.index) == ' ')
+			this.index++;
+
+		int start = this.index, value = 0;
+
+		while (this.index < this.limit) {
+			int digit = this.charAt(this.index) - '0';
+			if (digit < 0 || digit > 9) break;
+			value = value * 10 + digit;
+			this.index++;
+		}
+
+		if (this.index == start)
+			throw new NumberFormatException("expecting a number at index " + start);
+
+		return value;
+
+	}
+
+
+	/**
+	 * Consume the given character if it's found at the current position.
+	 *
+	 * @author agent
+	 * @param  c The expected character
+	 * @return boolean
+	 **/
+	public boolean skip(char c) {
+
+		if (this.index >= this.limit || this.charAt(this.index) != c)
+			return false;
+
+		this.index++;
+		return true;
+
+	}
+
+
+	/**
+	 * @author agent
+	 * @return int
+	 **/
+	public int position() {
+		return this.index;
+	}
+
+
+	/**
+	 * Return the character at the given index of the current source.
+	 *
+	 * @author agent
+	 * @param  i The character index
+	 * @return int
+	 **/
+	private int charAt(int i) {
+		return this.chars != null ? this.chars.charAt(i) : this.bytes.get(i) & 0xff;
+	}
+
+}
@@ -1,24 +1,109 @@
 /**
  * Urban Terror 4.2.x log parser.
  * 
+ * Hits can optionally be aggregated (see HitAggregator): in such case the parser
+ * also produces an EventGameHitSummary when a round or map ends (SurvivorWinner,
+ * InitRound and Exit lines) and whenever the aggregator summary interval expires.
+ * 
  * @author      Daniele Pantaleone
- * @version     1.1
+ * @version     1.2
  * @copyright   Daniele Pantaleone, 07 October, 2012
  * @package     net.goreclan.parser
  **/
 
 package net.goreclan.parser;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.log4j.Logger;
 
+import net.goreclan.domain.Client;
+import net.goreclan.event.Event;
+import net.goreclan.event.EventClientAccountValidated;
+import net.goreclan.event.EventClientCallvote;
+import net.goreclan.event.EventClientConnect;
+import net.goreclan.event.EventClientDisconnect;
+import net.goreclan.event.EventClientGearChange;
+import net.goreclan.event.EventClientHit;
+import net.goreclan.event.EventClientKill;
+import net.goreclan.event.EventClientNameChange;
+import net.goreclan.event.EventClientRadio;
+import net.goreclan.event.EventClientSay;
+import net.goreclan.event.EventClientSayPrivate;
+import net.goreclan.event.EventClientSayTeam;
+import net.goreclan.event.EventClientSuicide;
+import net.goreclan.event.EventClientTeamChange;
+import net.goreclan.event.EventClientVote;
+import net.goreclan.event.EventGameExit;
+import net.goreclan.event.EventGameHitSummary;
+import net.goreclan.event.EventGameRoundStart;
+import net.goreclan.event.EventGameWarmup;
+import net.goreclan.event.EventPool;
+import net.goreclan.event.EventSurvivorWinner;
+import net.goreclan.iourt42.Hitlocation;
+import net.goreclan.iourt42.Mod;
+import net.goreclan.iourt42.Team;
+
 public class Parser {
     
+    public static final int MAX_CLIENTS = 64;
+    public static final int WORLD_SLOT = 1022;
+    
+    /**
+     * Layout of the fields filled by decode().
+     **/
+    public static final int FIELD_GAMETIME = 0;
+    public static final int FIELD_INDEX = 1;
+    public static final int FIELD_ARGS = 2;
+    public static final int FIELDS = 6;
+    
+    /**
+     * Userinfo keys used to update the client attributes.
+     **/
+    private static final Set<String> USERINFO_KEYS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList("name", "ip", "cl_guid", "authl", "gear")));
+    private static final Set<String> USERINFO_CHANGED_KEYS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList("n", "t")));
+    
+    /**
+     * Action keywords following the game time in a log line, grouped by their 1st character
+     * (lower case: keywords are matched ignoring the case, as the line format patterns do).
+     * Each group holds pairs of keyword and matching line format name. Groups are ordered by
+     * frequency: Hit and Kill lines are by far the most common ones during a round.
+     **/
+    private static final String[][] KEYWORDS = new String[128][];
+    
+    static {
+        KEYWORDS['a'] = new String[] { "AccountValidated", "AccountValidated", "AccountBan", "AccountBan", "AccountKick", "AccountKick", "AccountRejected", "AccountRejected" };
+        KEYWORDS['b'] = new String[] { "Bombholder", "BombHolder" };
+        KEYWORDS['c'] = new String[] { "ClientUserinfoChanged", "ClientUserinfoChanged", "ClientUserinfo", "ClientUserinfo", "ClientConnect", "ClientConnect", "ClientBegin", "ClientBegin", "ClientDisconnect", "ClientDisconnect", "Callvote", "ClientCallvote" };
+        KEYWORDS['e'] = new String[] { "Exit", "GameExit" };
+        KEYWORDS['h'] = new String[] { "Hit", "ClientHit" };
+        KEYWORDS['i'] = new String[] { "Item", "ClientItem", "InitRound", "GameRoundStart" };
+        KEYWORDS['k'] = new String[] { "Kill", "ClientKill" };
+        KEYWORDS['r'] = new String[] { "Radio", "ClientRadio" };
+        KEYWORDS['s'] = new String[] { "say", "ClientSay", "sayteam", "ClientSayTeam", "saytell", "ClientSayPrivate", "SurvivorWinner", "SurvivorWinner" };
+        KEYWORDS['v'] = new String[] { "Vote", "ClientVote" };
+        KEYWORDS['w'] = new String[] { "Warmup", "GameWarmup" };
+    }
+    
 	private final Logger log;
     private final Map<String, Pattern> lineformats;
+    private final Client[] clients;
+    private final LineTokenizer tokenizer;
+    private final Map<String, String> userinfo;
+    private final int[] fields;
+    
+    private HitAggregator hitAggregator;
+    private EventPool eventPool;
+    private long time;
+    private int gameTime;
 
     
     /**
@@ -32,6 +117,10 @@ public class Parser {
     	
     	this.log = log;
         this.lineformats = new HashMap<String,Pattern>();
+        this.clients = new Client[MAX_CLIENTS];
+        this.tokenizer = new LineTokenizer();
+        this.userinfo = new HashMap<String, String>();
+        this.fields = new int[FIELDS];
        
         this.log.debug("Initializing ioUrT42 log parser...");
        
@@ -82,27 +171,661 @@ public class Parser {
     }
     
     
+    /**
+     * Set the stage aggregating hits into EventGameHitSummary events.
+     * 
+     * @author agent
+     * @param  hitAggregator The hit aggregator (null to disable hit aggregation)
+     **/
+    public void setHitAggregator(HitAggregator hitAggregator) {
+        this.hitAggregator = hitAggregator;
+    }
+    
+    
+    /**
+     * Set the pool recycling the high frequency events (hits, kills, say and radio).
+     * 
+     * @author agent
+     * @param  eventPool The event pool (null to allocate a new event for every line)
+     **/
+    public void setEventPool(EventPool eventPool) {
+        this.eventPool = eventPool;
+    }
+    
+    
+    /**
+     * Return the Client object currently connected on the given slot.
+     *
+     * @author agent
+     * @param  slot The client slot
+     * @return Client. This will return null if there is no client on the given slot
+     **/
+    public Client getClient(int slot) {
+    	if (slot < 0 || slot >= MAX_CLIENTS)
+    		return null;
+
+    	return this.clients[slot];
+    }
+
+
+    /**
+     * Parse a single games.log line and put the produced events in the given queue.
+     * Lines which do not generate an event (ClientBegin, Item...) are used to keep
+     * the slot/client table up to date or simply discarded.
+     * 
+     * The line is first decoded (see decode()) and then applied to the current
+     * session state (see apply()): Hit and Kill lines are parsed without using
+     * regular expressions (nor allocating anything but the produced event), while
+     * all the other lines are matched against their own line format pattern only.
+     * The produced events are stamped with the current time as ingest time.
+     *
+     * @author agent
+     * @param  line The games.log line to be parsed
+     * @param  eventQueue The queue where to put the produced events
+     * @throws InterruptedException If interrupted while waiting for space in the event queue
+     **/
+    public void parseLine(CharSequence line, BlockingQueue<Event> eventQueue) throws InterruptedException {
+        this.parseLine(line, System.nanoTime(), eventQueue);
+    }
+    
+    
+    /**
+     * Parse a single games.log line and put the produced events in the given queue.
+     * 
+     * @author agent
+     * @param  line The games.log line to be parsed
+     * @param  time The time (System.nanoTime) at which the line has been read from the log file
+     * @param  eventQueue The queue where to put the produced events
+     * @throws InterruptedException If interrupted while waiting for space in the event queue
+     **/
+    public void parseLine(CharSequence line, long time, BlockingQueue<Event> eventQueue) throws InterruptedException {
+        
+        String lineformat;
+        
+        try {
+            lineformat = decode(line, this.tokenizer, this.fields, 0);
+        } catch (NumberFormatException e) {
+            this.log.debug("Unable to parse log line: " + line + " [ " + e.getMessage() + " ]");
+            return;
+        }
+        
+        if (lineformat == null) {
+            this.log.trace("Unable to match log line: " + line);
+            return;
+        }
+        
+        this.apply(lineformat, this.fields, 0, time, line, eventQueue);
+        
+    }
+    
+    
+    /**
+     * Decode the given games.log line without looking at the session state.
+     * The game time and the index following the action keyword are stored in the
+     * given fields, together with the numeric arguments of Hit and Kill lines:
+     * 
+     *   - fields[offset + FIELD_GAMETIME]: the game time, in seconds
+     *   - fields[offset + FIELD_INDEX]: the index of the 1st character following the action keyword
+     *   - fields[offset + FIELD_ARGS...]: Hit <target> <client> <hitlocation> <hitmode>, Kill <client> <target> <killmode>
+     * 
+     * This method is thread safe (given a tokenizer per thread), so that lines can be
+     * decoded in parallel (i.e: when bulk importing a log archive) and then applied
+     * in order to the session state using apply().
+     *
+     * @author agent
+     * @param  line The games.log line to be decoded
+     * @param  tokenizer The tokenizer used to read numeric arguments
+     * @param  fields The array where to store the decoded fields (FIELDS elements starting from offset)
+     * @param  offset The index of the 1st field in the array
+     * @throws NumberFormatException If the line is a malformed Hit or Kill line
+     * @return String. This will return the line format name, or null if the line is not of any interest
+     **/
+    public static String decode(CharSequence line, LineTokenizer tokenizer, int[] fields, int offset) throws NumberFormatException {
+        
+        int start = skipGameTime(line, fields, offset);
+        if (start < 0)
+            return null;
+        
+        // Looking for the end of the action keyword.
+        int end = start;
+        while (end < line.length() && line.charAt(end) != ':' && line.charAt(end) != ' ')
+            end++;
+        
+        String lineformat = getLineFormatName(line, start, end);
+        if (lineformat == null)
+            return null;
+        
+        fields[offset + FIELD_INDEX] = end + 1;
+        
+        switch (lineformat) {
+            
+            case "ClientHit":
+                tokenizer.reset(line, end + 1);
+                fields[offset + FIELD_ARGS] = tokenizer.nextInt();
+                fields[offset + FIELD_ARGS + 1] = tokenizer.nextInt();
+                fields[offset + FIELD_ARGS + 2] = tokenizer.nextInt();
+                fields[offset + FIELD_ARGS + 3] = tokenizer.nextInt();
+                if (!tokenizer.skip(':'))
+                    throw new NumberFormatException("expecting ':' at index " + tokenizer.position());
+                break;
+                
+            case "ClientKill":
+                tokenizer.reset(line, end + 1);
+                fields[offset + FIELD_ARGS] = tokenizer.nextInt();
+                fields[offset + FIELD_ARGS + 1] = tokenizer.nextInt();
+                fields[offset + FIELD_ARGS + 2] = tokenizer.nextInt();
+                if (!tokenizer.skip(':'))
+                    throw new NumberFormatException("expecting ':' at index " + tokenizer.position());
+                break;
+                
+        }
+        
+        return lineformat;
+        
+    }
+    
+    
+    /**
+     * Apply a decoded games.log line to the session state (slot/client table)
+     * and put the produced events in the given queue. Lines MUST be applied in
+     * the same order they have been written in the log file.
+     *
+     * @author agent
+     * @param  lineformat The line format name returned by decode()
+     * @param  fields The fields filled by decode()
+     * @param  offset The index of the 1st field in the array
+     * @param  time The time (System.nanoTime) at which the line has been read from the log file
+     * @param  line The decoded games.log line
+     * @param  eventQueue The queue where to put the produced events
+     * @throws InterruptedException If interrupted while waiting for space in the event queue
+     **/
+    public void apply(String lineformat, int[] fields, int offset, long time, CharSequence line, BlockingQueue<Event> eventQueue) throws InterruptedException {
+        
+        this.time = time;
+        this.gameTime = fields[offset + FIELD_GAMETIME];
+        
+        if (this.hitAggregator != null && this.hitAggregator.isDue(this.gameTime))
+            this.flushHits(eventQueue);
+        
+        int index = fields[offset + FIELD_INDEX];
+        
+        try {
+            
+            switch (lineformat) {
+                
+                case "ClientHit":
+                    this.parseHit(fields[offset + FIELD_ARGS], fields[offset + FIELD_ARGS + 1], fields[offset + FIELD_ARGS + 2], fields[offset + FIELD_ARGS + 3], line, eventQueue);
+                    break;
+                    
+                case "ClientKill":
+                    this.parseKill(fields[offset + FIELD_ARGS], fields[offset + FIELD_ARGS + 1], fields[offset + FIELD_ARGS + 2], line, eventQueue);
+                    break;
+                    
+                case "ClientUserinfo":
+                    this.parseClientUserinfo(this.parseUserinfo(line, index, USERINFO_KEYS), this.userinfo, eventQueue);
+                    break;
+                    
+                case "ClientUserinfoChanged":
+                    this.parseClientUserinfoChanged(this.parseUserinfo(line, index, USERINFO_CHANGED_KEYS), this.userinfo, eventQueue);
+                    break;
+                    
+                default:
+                    Matcher m = this.lineformats.get(lineformat).matcher(line);
+                    if (m.matches()) this.parseMatch(lineformat, m, eventQueue);
+                    else this.log.trace("Unable to match " + lineformat + " line: " + line);
+                    break;
+                    
+            }
+            
+        } catch (IndexOutOfBoundsException | NumberFormatException e) {
+            // Invalid codes (Mod, Hitlocation, Team...) or a client slot we are not tracking.
+            this.log.debug("Unable to parse " + lineformat + " line: " + line + " [ " + e.getMessage() + " ]");
+        }
+
+    }
+    
+    
+    /**
+     * Build the event for a decoded Hit line.
+     * Line format: Hit: <target> <client> <hitlocation> <hitmode>: <text>
+     * 
+     * @author agent
+     * @param  target The slot of the client who suffered the hit
+     * @param  slot The slot of the client who made the hit
+     * @param  code The hit location code
+     * @param  hitmode The hit mode code
+     * @param  line The games.log line being parsed
+     * @param  eventQueue The queue where to put the produced events
+     * @throws InterruptedException If interrupted while waiting for space in the event queue
+     * @throws IndexOutOfBoundsException If there is no client connected on the given slots
+     **/
+    private void parseHit(int target, int slot, int code, int hitmode, CharSequence line, BlockingQueue<Event> eventQueue) throws InterruptedException, IndexOutOfBoundsException {
+        
+        Mod mod = Mod.findByHitMode(hitmode);
+        Hitlocation location = Hitlocation.findByCode(code);
+        
+        if (mod == null || location == null) {
+            this.log.debug("Unable to parse ClientHit line: " + line + " [ unknown hit mode/location code ]");
+            return;
+        }
+        
+        Client client = this.getConnectedClient(slot);
+        Client victim = this.getConnectedClient(target);
+        
+        if (this.hitAggregator == null) {
+            this.put(eventQueue, this.eventPool != null ? this.eventPool.hit(client, victim, mod, location) : new EventClientHit(client, victim, mod, location));
+            return;
+        }
+        
+        // A slot has been reused since the pending hits have been counted.
+        if (!this.hitAggregator.accepts(client, victim))
+            this.flushHits(eventQueue);
+        
+        this.hitAggregator.add(client, victim, location, this.gameTime);
+        
+        if (this.hitAggregator.isRawHits())
+            this.put(eventQueue, this.eventPool != null ? this.eventPool.hit(client, victim, mod, location) : new EventClientHit(client, victim, mod, location));
+        
+    }
+    
+    
+    /**
+     * Build the event for a decoded Kill line.
+     * Line format: Kill: <client> <target> <killmode>: <text>
+     * 
+     * @author agent
+     * @param  slot The slot of the client who made the kill
+     * @param  victim The slot of the client who has been killed
+     * @param  killmode The kill mode code
+     * @param  line The games.log line being parsed
+     * @param  eventQueue The queue where to put the produced events
+     * @throws InterruptedException If interrupted while waiting for space in the event queue
+     * @throws IndexOutOfBoundsException If there is no client connected on the given slots
+     **/
+    private void parseKill(int slot, int victim, int killmode, CharSequence line, BlockingQueue<Event> eventQueue) throws InterruptedException, IndexOutOfBoundsException {
+        
+        Client target = this.getConnectedClient(victim);
+        Mod mod = Mod.findByKillMode(killmode);
+        
+        if (mod == null) {
+            this.log.debug("Unable to parse ClientKill line: " + line + " [ unknown kill mode code ]");
+            return;
+        }
+        
+        if (slot == WORLD_SLOT || slot == target.slot)
+            this.put(eventQueue, new EventClientSuicide(target, mod));
+        else
+            this.put(eventQueue, this.eventPool != null ? this.eventPool.kill(this.getConnectedClient(slot), target, mod) : new EventClientKill(this.getConnectedClient(slot), target, mod));
+        
+    }
+    
+    
+    /**
+     * Put the summary of the aggregated hits in the queue, if any hit is pending.
+     * 
+     * @author agent
+     * @param  eventQueue The queue where to put the produced events
+     * @throws InterruptedException If interrupted while waiting for space in the event queue
+     **/
+    private void flushHits(BlockingQueue<Event> eventQueue) throws InterruptedException {
+        
+        if (this.hitAggregator == null)
+            return;
+        
+        EventGameHitSummary summary = this.hitAggregator.flush();
+        if (summary != null) this.put(eventQueue, summary);
+        
+    }
+    
+    
+    /**
+     * Stamp the given event with the time of the line being parsed and put it in the queue.
+     * 
+     * @author agent
+     * @param  eventQueue The queue where to put the event
+     * @param  event The event generated by the line being parsed
+     * @throws InterruptedException If interrupted while waiting for space in the event queue
+     **/
+    private void put(BlockingQueue<Event> eventQueue, Event event) throws InterruptedException {
+        event.setTime(this.time, this.gameTime);
+        eventQueue.put(event);
+    }
+    
+    
+    /**
+     * Return the index of the 1st character following the game time prefix.
+     * The game time (minutes and seconds) is converted in seconds and stored
+     * in the given fields, so that it can be attached to the produced events.
+     * Prefix format: ^\s*[\d]+:[\d]+\s?
+     * 
+     * @author agent
+     * @param  line The games.log line
+     * @param  fields The array where to store the game time
+     * @param  offset The index of the 1st field in the array
+     * @return int. This will return -1 if the line doesn't start with a game time
+     **/
+    private static int skipGameTime(CharSequence line, int[] fields, int offset) {
+        
+        int length = line.length();
+        int index = 0;
+        int minutes = 0, seconds = 0;
+        
+        while (index < length && Character.isWhitespace(line.charAt(index)))
+            index++;
+        
+        int start = index;
+        while (index < length && Character.isDigit(line.charAt(index)))
+            minutes = minutes * 10 + line.charAt(index++) - '0';
+        
+        if (index == start || index == length || line.charAt(index++) != ':')
+            return -1;
+        
+        start = index;
+        while (index < length && Character.isDigit(line.charAt(index)))
+            seconds = seconds * 10 + line.charAt(index++) - '0';
+        
+        if (index == start)
+            return -1;
+        
+        fields[offset + FIELD_GAMETIME] = minutes * 60 + seconds;
+        
+        if (index < length && Character.isWhitespace(line.charAt(index)))
+            index++;
+        
+        return index;
+        
+    }
+    
+    
+    /**
+     * Return the name of the line format matching the given action keyword (ignoring the case).
+     * 
+     * @author agent
+     * @param  line The games.log line
+     * @param  start The index of the 1st character of the action keyword
+     * @param  end The index following the last character of the action keyword
+     * @return String. This will return null if the keyword is unknown
+     **/
+    private static String getLineFormatName(CharSequence line, int start, int end) {
+        
+        if (start >= end || line.charAt(start) >= KEYWORDS.length)
+            return null;
+        
+        String[] keywords = KEYWORDS[toLowerCase(line.charAt(start))];
+        if (keywords == null)
+            return null;
+        
+        for (int i = 0; i < keywords.length; i += 2) {
+            
+            String keyword = keywords[i];
+            if (keyword.length() != end - start)
+                continue;
+            
+            int j = 1;
+            while (j < keyword.length() && toLowerCase(keyword.charAt(j)) == toLowerCase(line.charAt(start + j)))
+                j++;
+            
+            if (j == keyword.length())
+                return keywords[i + 1];
+            
+        }
+        
+        return null;
+        
+    }
+    
+    
+    /**
+     * Return the lower case version of the given ASCII character.
+     * 
+     * @author agent
+     * @param  c The character
+     * @return char. This will return the given character if it's not an upper case ASCII letter
+     **/
+    private static char toLowerCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+
+    /**
+     * Build the events matching the given line format.
+     *
+     * @author agent
+     * @param  lineformat The name of the matched line format
+     * @param  m The matcher holding the parsed line
+     * @param  eventQueue The queue where to put the produced events
+     * @throws InterruptedException If interrupted while waiting for space in the event queue
+     **/
+    private void parseMatch(String lineformat, Matcher m, BlockingQueue<Event> eventQueue) throws InterruptedException {
+
+        Client client;
+
+        switch (lineformat) {
+
+            case "AccountValidated":
+                client = this.getConnectedClient(Integer.parseInt(m.group(1)));
+                client.auth = m.group(2);
+                this.put(eventQueue, new EventClientAccountValidated(client, m.group(2), Integer.parseInt(m.group(3)), m.group(4)));
+                break;
+
+            case "ClientCallvote":
+                client = this.getConnectedClient(Integer.parseInt(m.group(1)));
+                this.put(eventQueue, new EventClientCallvote(client, m.group(2), m.group(3)));
+                break;
+
+            case "ClientConnect":
+                client = new Client();
+                client.slot = Integer.parseInt(m.group(1));
+                this.setClient(client.slot, client);
+                this.put(eventQueue, new EventClientConnect(client));
+                break;
+
+            case "ClientDisconnect":
+                client = this.getConnectedClient(Integer.parseInt(m.group(1)));
+                this.setClient(client.slot, null);
+                this.put(eventQueue, new EventClientDisconnect(client));
+                break;
+
+            case "ClientRadio":
+                client = this.getConnectedClient(Integer.parseInt(m.group(1)));
+                if (this.eventPool != null) this.put(eventQueue, this.eventPool.radio(client, Integer.parseInt(m.group(2)), Integer.parseInt(m.group(3)), m.group(4), m.group(5)));
+                else this.put(eventQueue, new EventClientRadio(client, Integer.parseInt(m.group(2)), Integer.parseInt(m.group(3)), m.group(4), m.group(5)));
+                break;
+
+            case "ClientSay":
+                client = this.getConnectedClient(Integer.parseInt(m.group(1)));
+                this.put(eventQueue, this.eventPool != null ? this.eventPool.say(client, m.group(3)) : new EventClientSay(client, null, m.group(3)));
+                break;
+
+            case "ClientSayPrivate":
+                client = this.getConnectedClient(Integer.parseInt(m.group(1)));
+                this.put(eventQueue, new EventClientSayPrivate(client, this.getConnectedClient(Integer.parseInt(m.group(2))), m.group(4)));
+                break;
+
+            case "ClientSayTeam":
+                client = this.getConnectedClient(Integer.parseInt(m.group(1)));
+                this.put(eventQueue, new EventClientSayTeam(client, m.group(3)));
+                break;
+
+            case "ClientVote":
+                client = this.getConnectedClient(Integer.parseInt(m.group(1)));
+                this.put(eventQueue, new EventClientVote(client, m.group(2)));
+                break;
+
+            case "GameExit":
+                this.flushHits(eventQueue);
+                this.put(eventQueue, new EventGameExit());
+                break;
+
+            case "GameRoundStart":
+                this.flushHits(eventQueue);
+                this.put(eventQueue, new EventGameRoundStart(m.group(1)));
+                break;
+
+            case "GameWarmup":
+                this.put(eventQueue, new EventGameWarmup());
+                break;
+
+            case "SurvivorWinner":
+                this.flushHits(eventQueue);
+                this.put(eventQueue, new EventSurvivorWinner(Team.getByName(m.group(1))));
+                break;
+
+            default:
+                // AccountBan, AccountKick, AccountRejected, BombHolder, ClientBegin and
+                // ClientItem lines do not have a matching event yet: discarding them.
+                break;
+
+        }
+
+    }
+
+
+    /**
+     * Parse a ClientUserinfo/ClientUserinfoChanged line without using regular expressions.
+     * The requested userinfo keys are stored in the userinfo map, which is reused for every line.
+     * Line format: ClientUserinfo: <slot> <infostring>
+     * 
+     * @author agent
+     * @param  line The games.log line to be parsed
+     * @param  index The index of the 1st character following the action keyword
+     * @param  keys The userinfo keys to be parsed
+     * @throws NumberFormatException If the line doesn't contain a valid client slot
+     * @throws IndexOutOfBoundsException If there is no client connected on the given slot
+     * @return Client The client whose userinfo has been parsed
+     **/
+    private Client parseUserinfo(CharSequence line, int index, Set<String> keys) throws NumberFormatException, IndexOutOfBoundsException {
+        
+        LineTokenizer tokenizer = this.tokenizer.reset(line, index);
+        Client client = this.getConnectedClient(tokenizer.nextInt());
+        tokenizer.skip(' ');
+        
+        this.userinfo.clear();
+        InfoStringParser.parse(line, tokenizer.position(), line.length(), keys, this.userinfo);
+        
+        return client;
+        
+    }
+    
+    
+    /**
+     * Update the client attributes using the ClientUserinfo infostring.
+     *
+     * @author agent
+     * @param  client The client whose userinfo has been sent
+     * @param  userinfo The parsed userinfo
+     * @param  eventQueue The queue where to put the produced events
+     * @throws InterruptedException If interrupted while waiting for space in the event queue
+     **/
+    private void parseClientUserinfo(Client client, Map<String, String> userinfo, BlockingQueue<Event> eventQueue) throws InterruptedException {
+
+        if (userinfo.containsKey("name")) client.name = userinfo.get("name");
+        if (userinfo.containsKey("cl_guid")) client.guid = userinfo.get("cl_guid");
+        if (userinfo.containsKey("authl")) client.auth = userinfo.get("authl");
+
+        if (userinfo.containsKey("ip")) {
+            // Removing the port from the IP address.
+            String ip = userinfo.get("ip");
+            int index = ip.indexOf(':');
+            client.ip = index < 0 ? ip : ip.substring(0, index);
+        }
+
+        String gear = userinfo.get("gear");
+        if (gear != null && !gear.equals(client.gear)) {
+            String before = client.gear;
+            client.gear = gear;
+            if (before != null)
+                this.put(eventQueue, new EventClientGearChange(client, before, gear));
+        }
+
+    }
+
+
+    /**
+     * Update the client attributes using the ClientUserinfoChanged infostring.
+     * InfoString format: n\[FS]Fenix\t\3\r\2\tl\0\f0\\f1\\f2\\a0\0\a1\0\a2\0
+     *
+     * @author agent
+     * @param  client The client whose userinfo changed
+     * @param  userinfo The parsed userinfo
+     * @param  eventQueue The queue where to put the produced events
+     * @throws InterruptedException If interrupted while waiting for space in the event queue
+     **/
+    private void parseClientUserinfoChanged(Client client, Map<String, String> userinfo, BlockingQueue<Event> eventQueue) throws InterruptedException {
+
+        String name = userinfo.get("n");
+        if (name != null && !name.equals(client.name)) {
+            String before = client.name;
+            client.name = name;
+            if (before != null)
+                this.put(eventQueue, new EventClientNameChange(client, before, name));
+        }
+
+        String code = userinfo.get("t");
+        if (code != null) {
+            // The server engine uses 0 for the FREE team.
+            int value = Integer.parseInt(code);
+            Team team = value == 0 ? Team.TEAM_FREE : Team.findByCode(value);
+            if (team != null && team != client.team) {
+                Team before = client.team;
+                client.team = team;
+                if (before != null)
+                    this.put(eventQueue, new EventClientTeamChange(client, before, team));
+            }
+        }
+
+    }
+
+
+    /**
+     * Return the Client object connected on the given slot.
+     *
+     * @author agent
+     * @param  slot The client slot
+     * @throws IndexOutOfBoundsException If there is no client connected on the given slot
+     * @return Client
+     **/
+    private Client getConnectedClient(int slot) throws IndexOutOfBoundsException {
+
+        Client client = this.getClient(slot);
+        if (client == null)
+            throw new IndexOutOfBoundsException("No client connected on slot: " + slot + ".");
+
+        return client;
+    }
+
+
+    /**
+     * Store the Client object connected on the given slot.
+     *
+     * @author agent
+     * @param  slot The client slot
+     * @param  client The client object or null if the slot has been freed
+     * @throws IndexOutOfBoundsException If the given slot is not valid
+     **/
+    private void setClient(int slot, Client client) throws IndexOutOfBoundsException {
+
+        if (slot < 0 || slot >= MAX_CLIENTS)
+            throw new IndexOutOfBoundsException("Invalid client slot: " + slot + ".");
+
+        this.clients[slot] = client;
+    }
+
+
     /**
      * Return an HashMap containing the informations of the info string provided.
      * InfoString format: \ip\110.143.73.144:27960\challenge\1052098110\qport\51418\protocol\68...
-     * 
+     *
      * @author Daniele Pantaleone
-     * @param  infostring The infostring to be parsed 
+     * @param  infostring The infostring to be parsed
      * @return Map<String,String>
      **/
     public Map<String,String> parseUserinfo(String infostring) {
-        
+
         Map<String, String> userinfo = new HashMap<String, String>();
-        String[] data = infostring.split("\\");
-        
-        for(int i=0; i<data.length; i=i+2) {
-            // Adding values in to the HashMap.
-            // Using key(i)/value(i+1) format.
-            userinfo.put(data[i], data[i+1]);
-        }
-        
+        InfoStringParser.parse(infostring, 0, infostring.length(), null, userinfo);
         return userinfo;
-        
+
     }
 
-}
\ No newline at end of file
+}
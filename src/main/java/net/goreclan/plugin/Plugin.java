@@ -14,13 +14,14 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Iterator;
 
-import net.goreclan.console.UrTConsole;
+import net.goreclan.console.Console;
 import net.goreclan.control.GroupC;
 import net.goreclan.domain.Client;
 import net.goreclan.domain.Group;
 import net.goreclan.exception.CommandRegisterException;
 import net.goreclan.utility.Command;
 import net.goreclan.utility.CommandList;
+import net.goreclan.utility.EventProcessor;
 
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.HierarchicalINIConfiguration;
@@ -33,7 +34,7 @@ public abstract class Plugin {
 	private static final String DEFAULT_COMMAND_MAX_LEVEL = "superadmin";
 	
 	protected HierarchicalINIConfiguration config;
-	protected UrTConsole console;
+	protected Console console;
 	protected Log log;
 	
 	protected CommandList commands;
@@ -67,6 +68,25 @@ public abstract class Plugin {
 	public void onStartup() { }
 	
 	
+	/**
+	 * Subscribe the plugin event handlers.
+	 * 
+	 * This method is called once the plugin has been loaded and the event
+	 * processor is ready to dispatch events (both when running against a live
+	 * server and when replaying an archived games.log). Use this function to
+	 * register the EventHandler objects of the plugin on the wanted event types.
+	 * This is called through EventProcessor.registerEvents(Plugin), so that the
+	 * handlers belong to the plugin: if the watchdog disables one of them for
+	 * exceeding its time budget, the whole plugin is disabled.
+	 * If this method can also not be overridden while extending the class:
+	 * in such case nothing will happen since we will execute an empty method.
+	 * 
+	 * @author agent
+	 * @param  processor The event processor
+	 **/
+	public void registerEvents(EventProcessor processor) { }
+	
+	
 	/**
 	 * Tells whether the plugin is enabled.
 	 * 
@@ -319,7 +339,7 @@ public abstract class Plugin {
 	 * @param  config The plugin configuration file name
 	 * @return Plugin
 	 **/
-	public static Plugin buildPlugin(UrTConsole console, Log log, String pluginName, String configPath) {
+	public static Plugin buildPlugin(Console console, Log log, String pluginName, String configPath) {
 		
 		try {
 			
@@ -0,0 +1,171 @@
+/**
+ * Reusable character sequence holding a single games.log line.
+ * The buffer is filled byte by byte by the log reader and handed to the
+ * parser as a CharSequence, so that no String object is created unless
+ * the parser explicitly asks for a sub sequence of the line.
+ * While the line is being filled a 64 bit FNV-1a hash of its raw bytes is
+ * computed, so that the line can be identified later (see LogCheckpoint).
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.reader
+ **/
+
+package net.goreclan.reader;
+
+import java.util.Arrays;
+
+public class LineBuffer implements CharSequence {
+
+	public static final long HASH_SEED = 0xcbf29ce484222325L;
+	private static final long HASH_PRIME = 0x100000001b3L;
+	private static final int DEFAULT_CAPACITY = 256;
+
+	private char[] data;
+	private int length;
+	private int size;
+	private long hash;
+
+
+	/**
+	 * Object constructor.
+	 *
+	 * @author agent
+	 * @return LineBuffer
+	 **/
+	public LineBuffer() {
+		this.data = new char[DEFAULT_CAPACITY];
+		this.clear();
+	}
+
+
+	/**
+	 * Append a single games.log byte to the line.
+	 * The server engine writes the log file using a single byte charset,
+	 * so every byte is mapped to the corresponding ISO-8859-1 character.
+	 * Carriage returns are hashed but not stored as part of the line.
+	 *
+	 * @author agent
+	 * @param  b The byte to be appended
+	 **/
+	public void append(byte b) {
+
+		this.hash = hash(this.hash, b);
+		this.size++;
+
+		if (b == '\r')
+			return;
+
+		if (this.length == this.data.length)
+			this.data = Arrays.copyOf(this.data, this.data.length << 1);
+
+		this.data[this.length++] = (char) (b & 0xff);
+
+	}
+
+
+	/**
+	 * Empty the line buffer. The backing array is kept for the next line.
+	 *
+	 * @author agent
+	 **/
+	public void clear() {
+		this.length = 0;
+		this.size = 0;
+		this.hash = HASH_SEED;
+	}
+
+
+	/**
+	 * Return the number of raw bytes appended to the line.
+	 *
+	 * @author agent
+	 * @return int
+	 **/
+	public int size() {
+		return this.size;
+	}
+
+
+	/**
+	 * Return the hash of the raw bytes appended to the line.
+	 *
+	 * @author agent
+	 * @return long
+	 **/
+	public long hash() {
+		return this.hash;
+	}
+
+
+	/**
+	 * @author agent
+	 * @return int
+	 **/
+	@Override
+	public int length() {
+		return this.length;
+	}
+
+
+	/**
+	 * @author agent
+	 * @param  index The index of the character to be returned
+	 * @throws IndexOutOfBoundsException
+	 * @return char
+	 **/
+	@Override
+	public char charAt(int index) {
+
+		if (index < 0 || index >= this.length)
+			throw new IndexOutOfBoundsException("Invalid line index: " + index + ".");
+
+		return this.data[index];
+	}
+
+
+	/**
+	 * Return a String copy of the given line section.
+	 *
+	 * @author agent
+	 * @param  start The start index, inclusive
+	 * @param  end The end index, exclusive
+	 * @throws IndexOutOfBoundsException
+	 * @return CharSequence
+	 **/
+	@Override
+	public CharSequence subSequence(int start, int end) {
+
+		if (start < 0 || end > this.length || start > end)
+			throw new IndexOutOfBoundsException("Invalid line section: " + start + "-" + end + ".");
+
+		return new String(this.data, start, end - start);
+	}
+
+
+	/**
+	 * Update a FNV-1a hash value with the given byte.
+	 *
+	 * @author agent
+	 * @param  hash The current hash value
+	 * @param  b The byte to be hashed
+	 * @return long
+	 **/
+	public static long hash(long hash, byte b) {
+		return (hash ^ (b & 0xff)) * HASH_PRIME;
+	}
+
+
+	/**
+	 * String object representation.
+	 *
+	 * @author agent
+	 * @return String
+	 **/
+	@Override
+	public String toString() {
+		return new String(this.data, 0, this.length);
+	}
+
+}
@@ -0,0 +1,206 @@
+/**
+ * games.log reader checkpoint.
+ *
+ * The checkpoint stores the byte offset right after the last line handed to the
+ * parser together with the length and the hash of such line. It is written to a
+ * temporary file which is then atomically renamed over the previous checkpoint,
+ * so a crash while saving never leaves a corrupted checkpoint behind. On restart
+ * the stored line is read back from the log file and its hash compared with the
+ * stored one: a mismatch means that the file has been truncated or rotated.
+ * A checkpoint always identifies a real line: right after a truncation or a
+ * rotation nothing is saved until a line of the new content has been parsed.
+ *
+ * Checkpoint file format: <offset> <length> <hash>
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.reader
+ **/
+
+package net.goreclan.reader;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+public class LogCheckpoint {
+
+	private final Path path;
+	private final Path temp;
+
+	private long offset = -1;
+	private int length;
+	private long hash;
+
+
+	/**
+	 * Object constructor.
+	 *
+	 * @author agent
+	 * @param  path The checkpoint file path
+	 * @return LogCheckpoint
+	 **/
+	public LogCheckpoint(String path) {
+
+		if (path == null)
+			throw new NullPointerException();
+
+		this.path = Paths.get(path);
+		this.temp = Paths.get(path + ".tmp");
+
+	}
+
+
+	/**
+	 * Load the checkpoint from the file system.
+	 *
+	 * @author agent
+	 * @throws IOException If the checkpoint file can't be read or it's not valid
+	 * @return boolean. This will return false if there is no checkpoint saved yet
+	 **/
+	public boolean load() throws IOException {
+
+		String data;
+
+		try {
+			data = new String(Files.readAllBytes(this.path), StandardCharsets.US_ASCII).trim();
+		} catch (NoSuchFileException e) {
+			return false;
+		}
+
+		String[] fields = data.split("\\s+");
+
+		try {
+
+			if (fields.length != 3)
+				throw new NumberFormatException("expecting 3 fields, found " + fields.length);
+
+			this.offset = Long.parseLong(fields[0]);
+			this.length = Integer.parseInt(fields[1]);
+			this.hash = new BigInteger(fields[2], 16).longValue();
+
+		} catch (NumberFormatException e) {
+			throw new IOException("Invalid log checkpoint: " + this.path + " [ " + e.getMessage() + " ]", e);
+		}
+
+		return true;
+
+	}
+
+
+	/**
+	 * Store the checkpoint on the file system.
+	 *
+	 * @author agent
+	 * @param  offset The byte offset right after the last parsed line
+	 * @param  length The length of the last parsed line, line terminator excluded
+	 * @param  hash The hash of the last parsed line
+	 * @throws IOException If the checkpoint file can't be written
+	 **/
+	public void save(long offset, int length, long hash) throws IOException {
+
+		if (offset <= length)
+			throw new IllegalArgumentException("Invalid log checkpoint offset: " + offset + " [ length : " + length + " ]");
+
+		byte[] data = (offset + " " + length + " " + Long.toHexString(hash) + "\n").getBytes(StandardCharsets.US_ASCII);
+
+		try (FileChannel channel = FileChannel.open(this.temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			channel.write(ByteBuffer.wrap(data));
+			channel.force(true);
+		}
+
+		Files.move(this.temp, this.path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+		this.offset = offset;
+		this.length = length;
+		this.hash = hash;
+
+	}
+
+
+	/**
+	 * Tells whether the checkpoint still points to the line it was saved for.
+	 * The log file has been truncated if it's smaller than the stored offset,
+	 * while it has been rotated/rewritten if the stored line doesn't match anymore.
+	 *
+	 * @author agent
+	 * @param  channel The games.log file channel
+	 * @throws IOException If the log file can't be read
+	 * @return boolean
+	 **/
+	public boolean matches(FileChannel channel) throws IOException {
+		return matches(channel, this.offset, this.length, this.hash, null);
+	}
+
+
+	/**
+	 * Tells whether the given line is still found in the log file, right before the given offset.
+	 *
+	 * @author agent
+	 * @param  channel The games.log file channel
+	 * @param  offset The byte offset right after the line
+	 * @param  length The length of the line, line terminator excluded
+	 * @param  hash The hash of the line
+	 * @param  buffer A buffer to read the line with (may be null, or too small, to allocate a new one)
+	 * @throws IOException If the log file can't be read
+	 * @return boolean
+	 **/
+	static boolean matches(FileChannel channel, long offset, int length, long hash, ByteBuffer buffer) throws IOException {
+
+		if (offset <= 0 || channel.size() < offset)
+			return false;
+
+		long start = offset - length - 1;
+		if (start < 0)
+			return false;
+
+		// Reading the line together with its line terminator.
+		if (buffer == null || buffer.capacity() < length + 1)
+			buffer = ByteBuffer.allocate(length + 1);
+
+		buffer.clear().limit(length + 1);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, start + buffer.position()) < 0)
+				return false;
+		}
+
+		buffer.flip();
+
+		long value = LineBuffer.HASH_SEED;
+		for (int i = 0; i < length; i++)
+			value = LineBuffer.hash(value, buffer.get());
+
+		return buffer.get() == '\n' && value == hash;
+
+	}
+
+
+	/**
+	 * @author agent
+	 * @return long
+	 **/
+	public long getOffset() {
+		return this.offset;
+	}
+
+
+	/**
+	 * String object representation.
+	 *
+	 * @author agent
+	 * @return String
+	 **/
+	public String toString() {
+		return "[ offset : " + this.offset + " | length : " + this.length + " | hash : " + Long.toHexString(this.hash) + " ]";
+	}
+
+}
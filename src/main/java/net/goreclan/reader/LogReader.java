@@ -0,0 +1,459 @@
+/**
+ * Urban Terror 4.2 games.log reader.
+ *
+ * The reader follows the server log file as it grows (like "tail -f") using a
+ * FileChannel and a single reusable direct ByteBuffer. Complete lines are collected
+ * into a reusable LineBuffer and handed to the parser, which pushes the produced
+ * Events into the EventProcessor queue. No String is created while reading.
+ *
+ * When a LogCheckpoint is given, the offset of the last parsed line is saved
+ * at most once per second (saving syncs the checkpoint file to disk, which we
+ * can't afford after every write burst of the server engine) and when the reader
+ * is stopped. The LogWatcher wakes the reader up periodically even if the log is
+ * quiet, so the last lines are saved shortly after the server stops writing.
+ * On startup the reader resumes exactly after such line, so that nothing is
+ * parsed twice after a restart (which would re-issue kicks and bans).
+ *
+ * Once the end of the file is reached the reader blocks on a LogWatcher until the
+ * server engine writes something new. Every time it wakes up it checks whether the
+ * log file has been truncated in place (g_logsync) or rotated/recreated (different
+ * inode): in such cases the new content is read from its beginning. A truncated file
+ * may have grown past the old offset already by the time the reader wakes up: the
+ * last parsed line is therefore read back and compared with its hash as well.
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.reader
+ **/
+
+package net.goreclan.reader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+
+import net.goreclan.event.Event;
+import net.goreclan.parser.Parser;
+
+public class LogReader implements Runnable {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final long CHECKPOINT_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+	private final Log log;
+	private final Path path;
+	private final Parser parser;
+	private final BlockingQueue<Event> eventQueue;
+	private final LogCheckpoint checkpoint;
+
+	private final ByteBuffer buffer;
+	private final LineBuffer line;
+
+	private volatile LogWatcher watcher;
+	private FileChannel channel;
+	private Object fileKey;
+	private volatile boolean running;
+
+	private long lineEnd;
+	private int lineSize;
+	private long lineHash;
+	private long lastCheckpoint;
+	private boolean dirty;
+
+
+	/**
+	 * Object constructor.
+	 *
+	 * @author agent
+	 * @param  path The games.log file path
+	 * @param  parser The log parser to which complete lines are handed
+	 * @param  eventQueue The EventProcessor queue where to put parsed events
+	 * @param  log A reference to the main BOT logger object
+	 * @return LogReader
+	 **/
+	public LogReader(String path, Parser parser, BlockingQueue<Event> eventQueue, Log log) {
+		this(path, parser, eventQueue, null, log);
+	}
+
+
+	/**
+	 * Object constructor.
+	 *
+	 * @author agent
+	 * @param  path The games.log file path
+	 * @param  parser The log parser to which complete lines are handed
+	 * @param  eventQueue The EventProcessor queue where to put parsed events
+	 * @param  checkpoint The checkpoint used to resume reading after a restart (may be null)
+	 * @param  log A reference to the main BOT logger object
+	 * @return LogReader
+	 **/
+	public LogReader(String path, Parser parser, BlockingQueue<Event> eventQueue, LogCheckpoint checkpoint, Log log) {
+
+		if (path == null || parser == null || eventQueue == null)
+			throw new NullPointerException();
+
+		this.path = Paths.get(path);
+		this.parser = parser;
+		this.eventQueue = eventQueue;
+		this.checkpoint = checkpoint;
+		this.log = log;
+
+		this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		this.line = new LineBuffer();
+
+	}
+
+
+	/**
+	 * Runnable implementation of the log reader.
+	 *
+	 * @author agent
+	 **/
+	@Override
+	public void run() {
+
+		this.running = true;
+
+		try {
+
+			this.watcher = new LogWatcher(this.path, this.log);
+
+			// The server engine may not have created the log file yet.
+			while (this.running && (this.fileKey = this.watcher.getFileKey()) == null)
+				this.watcher.await();
+
+			this.channel = FileChannel.open(this.path, StandardOpenOption.READ);
+			this.channel.position(this.getStartOffset());
+			this.lastCheckpoint = System.nanoTime();
+			this.log.info("Reading log file: " + this.path + " [ offset : " + this.channel.position() + " ]");
+
+			while (this.running) {
+
+				long offset = this.channel.position();
+
+				if (this.channel.read(this.buffer) > 0) {
+					this.buffer.flip();
+					this.split(offset, System.nanoTime());
+					this.buffer.clear();
+					if (this.isCheckpointDue())
+						this.saveCheckpoint();
+				} else if (!this.reopen()) {
+					// We reached the end of the file: wait for the server engine to write
+					// something new. The log file is checked for truncation once awake.
+					if (this.isCheckpointDue())
+						this.saveCheckpoint();
+					this.watcher.await();
+					this.verify();
+				}
+
+			}
+
+		} catch (IOException e) {
+			if (this.running) this.log.fatal("Unable to read log file: " + this.path, e);
+		} catch (InterruptedException e) {
+			this.log.debug("Log reader interrupted: " + this.path);
+		} finally {
+			this.saveCheckpoint();
+			this.close();
+			if (this.watcher != null) this.watcher.close();
+		}
+
+	}
+
+
+	/**
+	 * Stop reading the log file.
+	 *
+	 * @author agent
+	 **/
+	public void shutdown() {
+		this.running = false;
+		// Wake up the reader if it's waiting for the log file to change.
+		if (this.watcher != null) this.watcher.close();
+	}
+
+
+	/**
+	 * Return the offset from which to start reading the log file.
+	 * Without a valid checkpoint we start from the end of the file: we
+	 * are not interested in what happened before the BOT was started.
+	 * In such case the checkpoint is saved as soon as possible, so that
+	 * nothing written from now on is lost if the BOT gets restarted.
+	 *
+	 * @author agent
+	 * @throws IOException If the log file can't be read
+	 * @return long
+	 **/
+	private long getStartOffset() throws IOException {
+
+		if (this.checkpoint == null)
+			return this.channel.size();
+
+		try {
+
+			if (!this.checkpoint.load()) {
+				this.log.debug("No log checkpoint found: starting from the end of " + this.path);
+				return this.getEndOffset();
+			}
+
+		} catch (IOException e) {
+			this.log.error("Unable to load log checkpoint: starting from the end of " + this.path, e);
+			return this.getEndOffset();
+		}
+
+		if (!this.checkpoint.matches(this.channel)) {
+			// The file we were reading has been truncated or replaced: everything
+			// that is in there now has been written while the BOT was down.
+			this.log.warn("Log file truncated or rotated since checkpoint " + this.checkpoint + ": starting from the beginning of " + this.path);
+			return 0;
+		}
+
+		this.log.debug("Resuming log file from checkpoint " + this.checkpoint);
+		return this.checkpoint.getOffset();
+
+	}
+
+
+	/**
+	 * Return the offset right after the last complete line of the log file
+	 * and mark such line as the last parsed one. A line which is still being
+	 * written by the server engine is going to be parsed once completed.
+	 *
+	 * @author agent
+	 * @throws IOException If the log file can't be read
+	 * @return long
+	 **/
+	private long getEndOffset() throws IOException {
+
+		long size = this.channel.size();
+		long start = Math.max(0, size - this.buffer.capacity());
+
+		this.buffer.clear();
+		while (this.buffer.position() < size - start) {
+			if (this.channel.read(this.buffer, start + this.buffer.position()) < 0)
+				break;
+		}
+
+		this.buffer.flip();
+
+		// Looking for the last 2 line terminators.
+		int last = -1, previous = -1;
+		for (int i = this.buffer.limit() - 1; i >= 0 && previous < 0; i--) {
+			if (this.buffer.get(i) != '\n') continue;
+			if (last < 0) last = i;
+			else previous = i;
+		}
+
+		if (last < 0 || (previous < 0 && start > 0)) {
+			// Line longer than the read buffer: we can't checkpoint it.
+			this.buffer.clear();
+			return size;
+		}
+
+		this.line.clear();
+		for (int i = previous + 1; i < last; i++)
+			this.line.append(this.buffer.get(i));
+
+		this.lineEnd = start + last + 1;
+		this.lineSize = this.line.size();
+		this.lineHash = this.line.hash();
+		this.dirty = true;
+
+		this.line.clear();
+		this.buffer.clear();
+
+		return this.lineEnd;
+
+	}
+
+
+	/**
+	 * Split the bytes currently available in the read buffer into lines.
+	 * A line which is not terminated yet is kept in the line buffer and
+	 * completed as soon as the rest of it is read from the file.
+	 *
+	 * @author agent
+	 * @param  offset The log file offset of the 1st byte in the read buffer
+	 * @param  time The time (System.nanoTime) at which the read buffer has been filled
+	 * @throws InterruptedException If interrupted while waiting for space in the event queue
+	 **/
+	private void split(long offset, long time) throws InterruptedException {
+
+		while (this.buffer.hasRemaining()) {
+
+			byte b = this.buffer.get();
+			offset++;
+
+			if (b == '\n') {
+				this.parser.parseLine(this.line, time, this.eventQueue);
+				this.lineEnd = offset;
+				this.lineSize = this.line.size();
+				this.lineHash = this.line.hash();
+				this.dirty = true;
+				this.line.clear();
+			} else {
+				this.line.append(b);
+			}
+
+		}
+
+	}
+
+
+	/**
+	 * Tells whether the checkpoint interval has elapsed since the last save.
+	 *
+	 * @author agent
+	 * @return boolean
+	 **/
+	private boolean isCheckpointDue() {
+		return System.nanoTime() - this.lastCheckpoint >= CHECKPOINT_INTERVAL;
+	}
+
+
+	/**
+	 * Save the offset of the last parsed line in the checkpoint file.
+	 *
+	 * @author agent
+	 **/
+	private void saveCheckpoint() {
+
+		if (this.checkpoint == null || !this.dirty)
+			return;
+
+		try {
+			this.checkpoint.save(this.lineEnd, this.lineSize, this.lineHash);
+			this.dirty = false;
+		} catch (IOException e) {
+			this.log.error("Unable to save log checkpoint: " + this.checkpoint, e);
+		}
+
+		this.lastCheckpoint = System.nanoTime();
+
+	}
+
+
+	/**
+	 * Check whether the log file has been rotated and, if so, start reading the
+	 * new file from its beginning. This is called only once the current file
+	 * channel has been read till its end, so nothing written in the old file
+	 * before the rotation is lost. In place truncation is checked by verify()
+	 * once the reader wakes up.
+	 *
+	 * @author agent
+	 * @throws IOException If the log file can't be reopened
+	 * @throws InterruptedException If interrupted while waiting for space in the event queue
+	 * @return boolean. This will return true if there is new content to be read
+	 **/
+	private boolean reopen() throws IOException, InterruptedException {
+
+		Object key = this.watcher.getFileKey();
+
+		// The log file has been removed: wait for
+		// the server engine to create it again.
+		if (key == null)
+			return false;
+
+		if (!key.equals(this.fileKey)) {
+
+			// Something has been written in the old file right before
+			// the rotation: we need to read it before switching file.
+			if (this.channel.size() > this.channel.position())
+				return true;
+
+			// The last line of the old file may not have been terminated.
+			if (this.line.length() > 0)
+				this.parser.parseLine(this.line, this.eventQueue);
+
+			this.log.info("Log file rotated: reading " + this.path + " from the beginning");
+			this.close();
+			this.channel = FileChannel.open(this.path, StandardOpenOption.READ);
+			this.fileKey = key;
+			this.reset();
+			return true;
+
+		}
+
+		return false;
+
+	}
+
+
+	/**
+	 * Check whether the log file has been truncated in place since the last parsed
+	 * line and, if so, start reading the new content from its beginning. The file
+	 * is truncated if it's smaller than the current offset, or if the last parsed
+	 * line is not found anymore where it was read (the file has grown again).
+	 *
+	 * @author agent
+	 * @throws IOException If the log file can't be read
+	 * @return boolean. This will return true if the log file has been truncated
+	 **/
+	private boolean verify() throws IOException {
+
+		if (this.channel.size() >= this.channel.position()) {
+
+			if (this.lineEnd == 0)
+				return false;
+
+			// The read buffer is empty at this point: reusing it to read the line back.
+			if (LogCheckpoint.matches(this.channel, this.lineEnd, this.lineSize, this.lineHash, this.buffer)) {
+				this.buffer.clear();
+				return false;
+			}
+
+			this.buffer.clear();
+
+		}
+
+		this.log.info("Log file truncated: reading " + this.path + " from the beginning");
+		this.channel.position(0);
+		this.reset();
+		return true;
+
+	}
+
+
+	/**
+	 * Reset the reader state after the log file has been rotated or truncated.
+	 * The previous checkpoint is kept until a line of the new content has been
+	 * parsed: a checkpoint at offset 0 would match any content the file may
+	 * have grown with by the time the BOT is restarted.
+	 *
+	 * @author agent
+	 **/
+	private void reset() {
+
+		this.line.clear();
+		this.lineEnd = 0;
+		this.lineSize = 0;
+		this.lineHash = LineBuffer.HASH_SEED;
+		this.dirty = false;
+
+	}
+
+
+	/**
+	 * Release the log file channel.
+	 *
+	 * @author agent
+	 **/
+	private void close() {
+
+		try {
+			if (this.channel != null) this.channel.close();
+		} catch (IOException e) {
+			this.log.error("Unable to close log file: " + this.path, e);
+		}
+
+	}
+
+}
@@ -0,0 +1,169 @@
+/**
+ * games.log file system watcher.
+ *
+ * The watcher registers the log file directory with a WatchService so that the log
+ * reader can block until the server engine writes, creates (rotation) or deletes the
+ * log file instead of polling it. If the file system doesn't support a WatchService
+ * the watcher falls back to sleeping for a short interval: in both cases the reader
+ * is expected to check the file identity (inode) and size every time it wakes up.
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.reader
+ **/
+
+package net.goreclan.reader;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+
+public class LogWatcher {
+
+	private static final long WATCH_TIMEOUT = TimeUnit.SECONDS.toMillis(1);
+	private static final long POLL_INTERVAL = 50;
+
+	private final Log log;
+	private final Path path;
+	// Closed by the thread stopping the log reader to wake it up.
+	private volatile WatchService watchService;
+
+
+	/**
+	 * Object constructor.
+	 *
+	 * @author agent
+	 * @param  path The games.log file path
+	 * @param  log A reference to the main BOT logger object
+	 * @return LogWatcher
+	 **/
+	public LogWatcher(Path path, Log log) {
+
+		this.path = path.toAbsolutePath();
+		this.log = log;
+
+		try {
+
+			this.watchService = this.path.getFileSystem().newWatchService();
+			this.path.getParent().register(this.watchService,
+					StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY,
+					StandardWatchEventKinds.ENTRY_DELETE);
+
+			this.log.debug("Watching log file directory: " + this.path.getParent());
+
+		} catch (IOException | UnsupportedOperationException e) {
+			this.log.warn("Unable to watch log file directory " + this.path.getParent() + ": falling back to polling every " + POLL_INTERVAL + "ms", e);
+			this.close();
+		}
+
+	}
+
+
+	/**
+	 * Block until the log file is modified, created or deleted.
+	 * The method returns anyway after a while, so that the caller can check
+	 * the log file state even if some file system events have been missed.
+	 *
+	 * @author agent
+	 * @throws InterruptedException If interrupted while waiting
+	 **/
+	public void await() throws InterruptedException {
+
+		WatchService watchService = this.watchService;
+
+		if (watchService == null) {
+			Thread.sleep(POLL_INTERVAL);
+			return;
+		}
+
+		try {
+
+			long deadline = System.currentTimeMillis() + WATCH_TIMEOUT;
+			long timeout = WATCH_TIMEOUT;
+			WatchKey key;
+
+			while (timeout > 0 && (key = watchService.poll(timeout, TimeUnit.MILLISECONDS)) != null) {
+
+				boolean matched = false;
+
+				for (WatchEvent<?> event : key.pollEvents()) {
+					// Events for other files in the same directory are discarded. In case
+					// of OVERFLOW we do not know what happened: better checking the file.
+					if (event.kind() == StandardWatchEventKinds.OVERFLOW || this.path.getFileName().equals(event.context()))
+						matched = true;
+				}
+
+				if (!key.reset()) {
+					this.log.warn("Log file directory is not accessible anymore: falling back to polling every " + POLL_INTERVAL + "ms");
+					this.close();
+					return;
+				}
+
+				if (matched)
+					return;
+
+				// Keep on waiting for the remaining time only.
+				timeout = deadline - System.currentTimeMillis();
+
+			}
+
+		} catch (ClosedWatchServiceException e) {
+			Thread.sleep(POLL_INTERVAL);
+		}
+
+	}
+
+
+	/**
+	 * Return the object uniquely identifying the log file (the inode on Unix).
+	 *
+	 * @author agent
+	 * @throws IOException If the log file attributes can't be read
+	 * @return Object. This will return null if the log file doesn't exist
+	 **/
+	public Object getFileKey() throws IOException {
+
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(this.path, BasicFileAttributes.class);
+			// No file key available on this file system: we use the
+			// creation time, which changes as well if the file is recreated.
+			return attributes.fileKey() != null ? attributes.fileKey() : attributes.creationTime();
+		} catch (NoSuchFileException e) {
+			return null;
+		}
+
+	}
+
+
+	/**
+	 * Release the WatchService.
+	 *
+	 * @author agent
+	 **/
+	public void close() {
+
+		WatchService watchService = this.watchService;
+
+		try {
+			if (watchService != null) watchService.close();
+		} catch (IOException e) {
+			this.log.error("Unable to close log file watcher", e);
+		}
+
+		this.watchService = null;
+
+	}
+
+}
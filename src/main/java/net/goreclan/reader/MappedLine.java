@@ -0,0 +1,111 @@
+/**
+ * games.log line view over a ByteBuffer.
+ *
+ * A reusable CharSequence pointing to a section of a (memory mapped) buffer, so
+ * that lines can be handed to the parser without copying them anywhere. Bytes are
+ * mapped to chars using ISO-8859-1 (like LineBuffer) and a trailing '\r' is
+ * excluded from the line. Bytes are read using absolute positions: the buffer
+ * state is never modified, so many views can share the same buffer.
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.reader
+ **/
+
+package net.goreclan.reader;
+
+import java.nio.ByteBuffer;
+
+public class MappedLine implements CharSequence {
+
+	private ByteBuffer buffer;
+	private int start;
+	private int end;
+
+
+	/**
+	 * Point the view to the given buffer section.
+	 *
+	 * @author agent
+	 * @param  buffer The buffer holding the line
+	 * @param  start The index of the 1st byte of the line
+	 * @param  end The index of the line terminator (or the buffer limit)
+	 * @return MappedLine
+	 **/
+	public MappedLine reset(ByteBuffer buffer, int start, int end) {
+
+		if (end > start && buffer.get(end - 1) == '\r')
+			end--;
+
+		this.buffer = buffer;
+		this.start = start;
+		this.end = end;
+		return this;
+
+	}
+
+
+	/**
+	 * @author agent
+	 * @return int
+	 **/
+	@Override
+	public int length() {
+		return this.end - this.start;
+	}
+
+
+	/**
+	 * @author agent
+	 * @param  index The index of the character to be returned
+	 * @throws IndexOutOfBoundsException
+	 * @return char
+	 **/
+	@Override
+	public char charAt(int index) {
+
+		if (index < 0 || index >= this.end - this.start)
+			throw new IndexOutOfBoundsException("Invalid line index: " + index + ".");
+
+		return (char) (this.buffer.get(this.start + index) & 0xff);
+
+	}
+
+
+	/**
+	 * Return a String copy of the given line section.
+	 *
+	 * @author agent
+	 * @param  start The start index, inclusive
+	 * @param  end The end index, exclusive
+	 * @throws IndexOutOfBoundsException
+	 * @return CharSequence
+	 **/
+	@Override
+	public CharSequence subSequence(int start, int end) {
+
+		if (start < 0 || end > this.end - this.start || start > end)
+			throw new IndexOutOfBoundsException("Invalid line section: " + start + "-" + end + ".");
+
+		char[] chars = new char[end - start];
+		for (int i = 0; i < chars.length; i++)
+			chars[i] = (char) (this.buffer.get(this.start + start + i) & 0xff);
+
+		return new String(chars);
+
+	}
+
+
+	/**
+	 * String object representation.
+	 *
+	 * @author agent
+	 * @return String
+	 **/
+	@Override
+	public String toString() {
+		return this.subSequence(0, this.end - this.start).toString();
+	}
+
+}
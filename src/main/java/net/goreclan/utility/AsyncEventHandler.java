@@ -0,0 +1,21 @@
+/**
+ * Marker interface for EventHandlers which only need fire-and-forget delivery
+ * (statistics, chat logging, demo management...).
+ *
+ * The EventProcessor never waits on an asynchronous handler: every asynchronous
+ * handler gets its own thread and a bounded mailbox, and events are posted to the
+ * mailbox instead of being handled on the dispatching threads. Events are delivered
+ * to the handler in the order they have been dispatched, but events posted while the
+ * mailbox is full are dropped (see HandlerMetrics.getDropped()).
+ *
+ * @author        agent
+ * @version       1.0
+ * @copyright     agent, 18 October, 2026
+ * @package       net.goreclan.utility
+ **/
+
+package net.goreclan.utility;
+
+public interface AsyncEventHandler extends EventHandler {
+
+}
@@ -13,6 +13,8 @@ public interface EventHandler {
     
     /**
      * Callback method that is called when a registered event occurs.
+     * The event may be pooled: it MUST NOT be used once this method returns,
+     * unless it has been retained (see EventPool).
      * 
      * @author Mathias Van Malderen
      */
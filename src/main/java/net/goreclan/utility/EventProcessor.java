@@ -1,26 +1,109 @@
 /**
  * This class is responsible for processing/dispatching the produced Events.
+ * 
+ * By default events are dispatched by the processor thread itself, in the order they
+ * have been produced. When more workers are configured, events are partitioned by
+ * client slot across the worker threads: events generated by the same client are
+ * dispatched in order by the same worker, while different clients are processed in
+ * parallel (so that a slow plugin handling one client doesn't stall the others).
+ * The ordering guarantee is per acting player: events involving two players (Hit,
+ * Kill, SayPrivate) are routed by the player who acted only (getClient()), so they
+ * are not ordered with respect to the events of the other player (i.e: the victim
+ * disconnecting right after being killed may be dispatched before the kill).
+ * Game-wide events (those with no client: GameExit, GameRoundStart, SurvivorWinner...)
+ * act as barriers: they are dispatched by the processor thread once all the previous
+ * events have been dispatched, and no following event is dispatched before them.
+ * When the event queue is a PriorityEventQueue, the worker queues get the same
+ * priority lanes, so that high priority events skip the worker backlog as well.
+ * 
+ * Handlers can be given a time budget. A watchdog thread checks the dispatching
+ * threads: when a handler exceeds the budget (i.e: a plugin blocked on a hung query),
+ * the stuck thread is abandoned and a new one takes its place, dispatching the event
+ * to the following handlers and going on with the next events. The offending handler
+ * is isolated for all the event types it is registered for: it keeps receiving events,
+ * but it is invoked on a thread of its own, with a bounded backlog, so that it can't
+ * stall dispatching (nor the other isolated handlers) anymore. A handler exceeding the
+ * budget again is eventually disabled: it is unsubscribed from all the events and, if it
+ * belongs to a Plugin (see registerEvents), the plugin is disabled as a whole together
+ * with all its other handlers. The abandoned thread keeps a reference to the event it is
+ * handling, so that a pooled event is not recycled under its feet.
+ * 
+ * Handlers implementing AsyncEventHandler never run on the dispatching threads: each
+ * of them has its own thread and bounded mailbox, so the processor only ever waits on
+ * the synchronous (latency critical) handlers.
+ * 
+ * Events are released once they have been dispatched to all the handlers, so that
+ * pooled events can be recycled: events posted to an asynchronous or isolated handler
+ * are retained until the handler returns (see EventPool).
  *  
  * @author        Mathias Van Malderen
- * @version       1.1
+ * @version       1.2
  * @copyright     Mathias Van Malderen, 23 September, 2012
  * @package       net.goreclan.utility
  **/
 
 package net.goreclan.utility;
 
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.commons.logging.Log;
+
+import net.goreclan.domain.Client;
 import net.goreclan.event.Event;
 import net.goreclan.event.EventType;
-import net.goreclan.logger.Log;
+import net.goreclan.plugin.Plugin;
 
 public class EventProcessor implements Runnable {
     
+    // Worker queues are bounded as well: a slow worker must
+    // eventually slow down the processor and fill the event queue.
+    private static final int WORKER_QUEUE_SIZE = 1024;
+    
+    /**
+     * Handlers taking longer than this to handle an event are logged as slow.
+     **/
+    public static final long DEFAULT_SLOW_HANDLER_THRESHOLD = TimeUnit.MILLISECONDS.toNanos(100);
+    
+    /**
+     * Number of time budget violations after which a handler is disabled.
+     **/
+    public static final int MAX_STRIKES = 3;
+    
+    // Events queued for an asynchronous handler before
+    // the following ones are dropped.
+    private static final int MAILBOX_SIZE = 1024;
+    
+    private static final long MIN_WATCHDOG_PERIOD = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long MAX_WATCHDOG_PERIOD = TimeUnit.SECONDS.toNanos(1);
+    
 	private final Log log;
     private BlockingQueue<Event> eventQueue;
-    private HandlersDS handlersDS;
+    private final HandlersDS handlersDS;
+    private final Worker[] workers;
+    private final Lane[] lanes;
+    
+    // Mailboxes of the asynchronous handlers. Also the lock serializing registrations,
+    // so that a mailbox is created and shut down together with the subscriptions.
+    private final Map<EventHandler, ThreadPoolExecutor> mailboxes = new IdentityHashMap<EventHandler, ThreadPoolExecutor>();
+    
+    // Plugins owning the registered handlers (guarded by the mailboxes lock),
+    // and the plugin whose registerEvents() is running on the current thread.
+    private final Map<EventHandler, Plugin> owners = new IdentityHashMap<EventHandler, Plugin>();
+    private final ThreadLocal<Plugin> registering = new ThreadLocal<Plugin>();
+    
+    private volatile long slowHandlerThreshold = DEFAULT_SLOW_HANDLER_THRESHOLD;
+    private volatile long handlerBudget = 0;
     
     
     /**
@@ -31,15 +114,38 @@ public class EventProcessor implements Runnable {
      * @param  log A reference to the main bot logger object
      * @return EventProcessor
      **/
-    private EventProcessor(BlockingQueue<Event> eventQueue, Log log) {
+    public EventProcessor(BlockingQueue<Event> eventQueue, Log log) {
+        this(eventQueue, 1, log);
+    }
+    
+    
+    /**
+     * Object constructor.
+     * 
+     * @author agent
+     * @param  eventQueue A reference to the events queue
+     * @param  workers The number of threads dispatching events (1 to dispatch on the processor thread)
+     * @param  log A reference to the main bot logger object
+     * @return EventProcessor
+     **/
+    public EventProcessor(BlockingQueue<Event> eventQueue, int workers, Log log) {
         
         if (eventQueue == null) 
         	throw new NullPointerException();
         
+        if (workers < 1)
+            throw new IllegalArgumentException("Invalid number of event workers: " + workers);
+        
         this.eventQueue = eventQueue;
         this.handlersDS = new HandlersDS();
+        this.workers = new Worker[workers > 1 ? workers : 0];
+        this.lanes = new Lane[this.workers.length + 1];
         this.log = log;
         
+        this.lanes[0] = new Router();
+        for (int i = 0; i < this.workers.length; i++)
+            this.lanes[i + 1] = this.workers[i] = new Worker();
+        
     }
     
     
@@ -51,64 +157,409 @@ public class EventProcessor implements Runnable {
     @Override
     public void run() {
         
+        String name = Thread.currentThread().getName();
+        
+        // Starting the partition workers, if any.
+        for (int i = 1; i < this.lanes.length; i++) {
+            this.lanes[i].name = name + "-" + (i - 1);
+            this.lanes[i].start(null, null, 0);
+        }
+        
+        Thread watchdog = new Thread(new Watchdog(), name + "-watchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+        
+        this.lanes[0].name = name;
+        this.lanes[0].run();
+        
+    }
+    
+    
+    /**
+     * Dispatch the given event to all the EventHandlers registered for its type.
+     * This is executed by the processor thread for every event taken from the
+     * queue, but it can also be called directly to process events synchronously
+     * (in which case every handler, asynchronous ones included, is invoked inline
+     * and handlers are not subject to the time budget).
+     * 
+     * @author agent
+     * @param  event The event to be dispatched
+     **/
+    public void dispatch(Event event) {
+        
+        // Obtain the EventHandlers that are registered for the eventType of the
+        // event that is being processed: this is a precomputed array, nothing is allocated.
+        HandlerMetrics[] handlers = this.handlersDS.getHandlers(event.getType());
+        
+        for (int i = 0; i < handlers.length; i++)
+            this.invoke(handlers[i], event);
+        
+        event.release();
+        
+    }
+    
+    
+    /**
+     * Dispatch the given event to the given EventHandlers, starting from the given
+     * position, on behalf of a dispatching lane. Every invocation is published to the
+     * watchdog: if the watchdog takes the lane over while a handler is running, the
+     * current thread must stop dispatching as soon as the handler returns.
+     * 
+     * @author agent
+     * @param  handlers The EventHandlers registered for the event type
+     * @param  event The event to be dispatched
+     * @param  from The position of the 1st EventHandler to invoke
+     * @param  lane The lane dispatching the event
+     * @return boolean. This will return false if the current thread has been replaced
+     **/
+    private boolean dispatch(HandlerMetrics[] handlers, Event event, int from, Lane lane) {
+        
+        for (int i = from; i < handlers.length; i++) {
+            
+            HandlerMetrics metrics = handlers[i];
+            
+            if (metrics.getMailbox() != null) {
+                this.post(metrics, event);
+                continue;
+            }
+            
+            if (metrics.isIsolated()) {
+                this.isolate(metrics, event);
+                continue;
+            }
+            
+            long id = ++lane.calls;
+            lane.handlers = handlers;
+            lane.event = event;
+            lane.index = i;
+            lane.started = System.nanoTime();
+            lane.running.lazySet(id);
+            
+            this.invoke(metrics, event);
+            
+            // The watchdog resets the running invocation when it takes the lane over,
+            // retaining the event on behalf of this thread: the new thread owns the
+            // reference this thread was dispatching with.
+            if (!lane.running.compareAndSet(id, 0)) {
+                lane.abandon(event);
+                this.log.debug("Event handler " + metrics.getHandler().getClass().getName() + " returned: terminating replaced thread " + Thread.currentThread().getName());
+                return false;
+            }
+            
+        }
+        
+        event.release();
+        return true;
+        
+    }
+    
+    
+    /**
+     * Invoke an EventHandler, recording its metrics.
+     * 
+     * @author agent
+     * @param  metrics The EventHandler to invoke, with its metrics
+     * @param  event The event to be handled
+     * @return long. The time the handler took to handle the event
+     **/
+    private long invoke(HandlerMetrics metrics, Event event) {
+        
+        boolean failed = false;
+        long start = System.nanoTime();
+        
+        // Wrapped in try-catch to avoid the EventProcessor being terminated
+        // because of an uncaught exception that could potentially occur in
+        // an improperly coded EventHandler ("plugin").
+        try { 
+            metrics.getHandler().onEvent(event); 
+        } catch (Throwable t) {
+            failed = true;
+            this.log.error("Uncaught exception in " + metrics.getHandler().getClass().getName() + " while handling " + event.getType(), t);
+        }
+        
+        long elapsed = System.nanoTime() - start;
+        metrics.record(elapsed, failed);
+        
+        if (elapsed > this.slowHandlerThreshold)
+            this.log.warn("Slow event handler: " + metrics.getHandler().getClass().getName() + " took " + TimeUnit.NANOSECONDS.toMillis(elapsed) + "ms to handle " + event.getType());
+        
+        return elapsed;
+        
+    }
+    
+    
+    /**
+     * Post an event to the mailbox of an asynchronous EventHandler.
+     * The event is dropped if the mailbox is full: the dispatching thread never waits.
+     * 
+     * @author agent
+     * @param  metrics The EventHandler to invoke, with its metrics
+     * @param  event The event to be handled
+     **/
+    private void post(final HandlerMetrics metrics, final Event event) {
+        
+        event.retain();
+        
         try {
             
-            while (true) {
+            metrics.getMailbox().execute(new Runnable() {
                 
-                Event event = this.eventQueue.take(); // should block if empty queue
+                @Override
+                public void run() {
+                    try {
+                        invoke(metrics, event);
+                    } finally {
+                        event.release();
+                    }
+                }
                 
-                // Obtain an Iterator that will iterate over all the EventHandlers
-                // that are registered for the eventType of the event that is being processed.
-                Iterator<EventHandler> it = this.handlersDS.iterator(event.getType());
+            });
+            
+        } catch (RejectedExecutionException e) {
+            event.release();
+            metrics.drop();
+            this.log.debug("Mailbox of " + metrics.getHandler().getClass().getName() + " is full: dropped " + event.getType());
+        }
+        
+    }
+    
+    
+    /**
+     * Invoke an isolated EventHandler on its isolation thread.
+     * Isolated handlers are invoked asynchronously, so the events they receive
+     * are no longer ordered with respect to the other handlers.
+     * 
+     * @author agent
+     * @param  metrics The EventHandler to invoke, with its metrics
+     * @param  event The event to be handled
+     **/
+    private void isolate(final HandlerMetrics metrics, final Event event) {
+        
+        event.retain();
+        
+        // A handler hanging on its isolation thread as well can't queue more than
+        // its backlog: the following invocations are rejected and dropped.
+        try {
+            
+            metrics.getGuard().getIsolation().execute(new Runnable() {
                 
-                while (it.hasNext()) {
-                    
-                    EventHandler handler = it.next();
+                @Override
+                public void run() {
                     
-                    // Wrapped in try-catch to avoid the EventProcessor being terminated
-                    // because of an uncaught exception that could potentially occur in
-                    // an improperly coded EventHandler ("plugin").
-                    try { handler.onEvent(event); } 
-                    catch (Exception e) { this.log.error("Uncaught exception: " + e.toString()); }
+                    try {
+                        long budget = handlerBudget;
+                        if (invoke(metrics, event) > budget && budget > 0)
+                            strike(metrics, "exceeded its time budget of " + TimeUnit.NANOSECONDS.toMillis(budget) + "ms handling " + event.getType());
+                    } finally {
+                        event.release();
+                    }
                     
                 }
                 
-            }
+            });
             
-        } catch (InterruptedException e) {
-            // Should never occur!
-            this.log.fatal(e.toString());
-            System.exit(1);
+        } catch (RejectedExecutionException e) {
+            event.release();
+            metrics.drop();
+            this.strike(metrics, "too many pending invocations, dropped " + event.getType());
         }
         
     }
     
     
+    /**
+     * Record a time budget violation of an EventHandler. The handler is isolated for
+     * all its event types, and disabled if it reached the maximum number of strikes:
+     * it is unsubscribed from all the event types and the Plugin owning it, if any,
+     * is disabled together with all its handlers.
+     * 
+     * @author agent
+     * @param  metrics The EventHandler metrics
+     * @param  reason The violation description
+     **/
+    private void strike(HandlerMetrics metrics, String reason) {
+        
+        EventHandler handler = metrics.getHandler();
+        int strikes = metrics.getGuard().strike();
+        
+        if (strikes < MAX_STRIKES) {
+            this.log.warn("Isolating event handler " + handler.getClass().getName() + ": " + reason + " [strike " + strikes + "/" + MAX_STRIKES + "]");
+            return;
+        }
+        
+        // Pending invocations may still strike a disabled handler.
+        if (strikes > MAX_STRIKES) return;
+        
+        this.log.error("Disabling event handler " + handler.getClass().getName() + ": " + reason + " [strike " + strikes + "/" + MAX_STRIKES + "]");
+        metrics.getGuard().shutdown();
+        
+        Plugin plugin = this.getOwner(handler);
+        
+        if (plugin == null) {
+            this.unregisterEvents(handler);
+            return;
+        }
+        
+        this.log.error("Disabling plugin " + plugin.getClass().getName() + ": event handler " + handler.getClass().getName() + " disabled");
+        this.unregisterEvents(plugin);
+        plugin.setEnabled(false);
+        
+    }
+    
+    
+    /**
+     * Return the Plugin owning an EventHandler.
+     * 
+     * @author agent
+     * @param  handler The event handler
+     * @return Plugin. This will return null if the handler doesn't belong to any plugin
+     **/
+    private Plugin getOwner(EventHandler handler) {
+        
+        synchronized (this.mailboxes) {
+            Plugin plugin = this.owners.get(handler);
+            if (plugin == null && handler instanceof Plugin) plugin = (Plugin) handler;
+            return plugin;
+        }
+        
+    }
+    
+    
+    /**
+     * Return the dispatch metrics (invocations, errors and latencies) of
+     * every registered EventHandler, for each EventType it is registered for.
+     * 
+     * @author agent
+     * @return List<HandlerMetrics>
+     **/
+    public List<HandlerMetrics> getMetrics() {
+        return this.handlersDS.getMetrics();
+    }
+    
+    
+    /**
+     * Tells whether any EventHandler is subscribed to events of the specified type.
+     * 
+     * @author agent
+     * @param  eventType The event type
+     * @return boolean
+     **/
+    public boolean isSubscribed(EventType eventType) {
+        return this.handlersDS.getHandlers(eventType).length > 0;
+    }
+    
+    
+    /**
+     * Set the time above which an EventHandler is logged as slow.
+     * 
+     * @author agent
+     * @param  threshold The slow handler threshold
+     * @param  unit The threshold unit
+     **/
+    public void setSlowHandlerThreshold(long threshold, TimeUnit unit) {
+        this.slowHandlerThreshold = unit.toNanos(threshold);
+    }
+    
+    
+    /**
+     * Set the time an EventHandler is allowed to take to handle an event before
+     * being isolated by the watchdog. A value of 0 (the default) disables the watchdog.
+     * The budget applies to events dispatched by the processor thread only.
+     * 
+     * @author agent
+     * @param  budget The handler time budget
+     * @param  unit The budget unit
+     **/
+    public void setHandlerBudget(long budget, TimeUnit unit) {
+        
+        if (budget < 0)
+            throw new IllegalArgumentException("Invalid handler time budget: " + budget);
+        
+        this.handlerBudget = unit.toNanos(budget);
+        
+    }
+    
+    
     /**
      * Subscribe an EventHandler to events of the specified type.
      * If the specified handler is already subscribed to the specified event type,
-     * then nothing happens.
+     * then nothing happens. This can be safely called from any thread, also while
+     * events are being dispatched (i.e: a plugin enabled in the middle of a match).
+     * An AsyncEventHandler gets the same mailbox for all the event types it subscribes.
      * 
      * @author Mathias Van Malderen
      * @param  eventType The type of the event to be registered
      * @param  handler The handler of such event
      **/
     public void registerEvent(EventType eventType, EventHandler handler) {
-    	this.handlersDS.registerEvent(eventType, handler);
+        this.registerEvent(eventType, handler, this.registering.get());
+    }
+    
+    
+    /**
+     * Subscribe an EventHandler belonging to a Plugin to events of the specified type.
+     * The plugin is disabled together with all its handlers if the handler is disabled
+     * by the watchdog. Handlers subscribed from within Plugin.registerEvents() belong
+     * to the plugin already: this is needed for handlers subscribed later on only.
+     * 
+     * @author agent
+     * @param  eventType The type of the event to be registered
+     * @param  handler The handler of such event
+     * @param  plugin The plugin owning the handler (may be null)
+     **/
+    public void registerEvent(EventType eventType, EventHandler handler, Plugin plugin) {
+        
+        synchronized (this.mailboxes) {
+            
+            if (plugin != null)
+                this.owners.put(handler, plugin);
+            
+            if (!(handler instanceof AsyncEventHandler)) {
+                this.handlersDS.registerEvent(eventType, handler);
+                return;
+            }
+            
+            ThreadPoolExecutor mailbox = this.mailboxes.get(handler);
+            
+            if (mailbox == null) {
+                mailbox = newMailbox(handler);
+                this.mailboxes.put(handler, mailbox);
+            }
+            
+            this.handlersDS.registerEvent(eventType, handler, mailbox);
+            
+        }
+        
     }
     
     
     /**
      * Unsubscribe an EventHandler from receiving events of the specified event type.
      * If the specified handler is not registered for the specified event type,
-     * then nothing happens.
+     * then nothing happens. The mailbox of an AsyncEventHandler is shut down once
+     * the handler is no longer subscribed to any event type.
      * 
      * @author Mathias Van Malderen
      * @param  eventType The type of the event to be unregistered
      * @param  handler The handler of such event
      **/
     public void unregisterEvent(EventType eventType, EventHandler handler) {
-        this.handlersDS.unregisterEvent(eventType, handler);
+        
+        synchronized (this.mailboxes) {
+            
+            this.handlersDS.unregisterEvent(eventType, handler);
+            
+            if (this.handlersDS.isRegistered(handler))
+                return;
+            
+            this.owners.remove(handler);
+            
+            // Events already in the mailbox are still delivered.
+            if (this.mailboxes.containsKey(handler))
+                this.mailboxes.remove(handler).shutdown();
+            
+        }
+        
     }
     
     
@@ -121,7 +572,461 @@ public class EventProcessor implements Runnable {
      * @param  handler The event handler
      **/
     public void unregisterEvents(EventHandler handler) {
-        handlersDS.unregisterEvents(handler);
+        
+        synchronized (this.mailboxes) {
+            
+            this.handlersDS.unregisterEvents(handler);
+            this.owners.remove(handler);
+            
+            // Events already in the mailbox are still delivered.
+            ThreadPoolExecutor mailbox = this.mailboxes.remove(handler);
+            if (mailbox != null) mailbox.shutdown();
+            
+        }
+        
+    }
+    
+    
+    /**
+     * Subscribe the EventHandlers of a Plugin, by calling its registerEvents() method.
+     * The handlers it subscribes belong to the plugin: if any of them is disabled by
+     * the watchdog, the plugin is disabled together with all its handlers.
+     * 
+     * @author agent
+     * @param  plugin The plugin
+     **/
+    public void registerEvents(Plugin plugin) {
+        
+        this.registering.set(plugin);
+        
+        try {
+            plugin.registerEvents(this);
+        } finally {
+            this.registering.remove();
+        }
+        
+    }
+    
+    
+    /**
+     * Unsubscribe all the EventHandlers belonging to a Plugin from all the event types.
+     * 
+     * @author agent
+     * @param  plugin The plugin
+     **/
+    public void unregisterEvents(Plugin plugin) {
+        
+        synchronized (this.mailboxes) {
+            
+            List<EventHandler> handlers = new ArrayList<EventHandler>();
+            
+            for (Map.Entry<EventHandler, Plugin> entry : this.owners.entrySet()) {
+                if (entry.getValue() == plugin)
+                    handlers.add(entry.getKey());
+            }
+            
+            if (plugin instanceof EventHandler)
+                handlers.add((EventHandler) plugin);
+            
+            for (EventHandler handler : handlers)
+                this.unregisterEvents(handler);
+            
+        }
+        
+    }
+    
+    
+    /**
+     * Create the mailbox of an asynchronous EventHandler: a single thread executor
+     * with a bounded queue. The thread terminates when the mailbox stays idle.
+     * 
+     * @author agent
+     * @param  handler The asynchronous event handler
+     * @return ThreadPoolExecutor
+     **/
+    private static ThreadPoolExecutor newMailbox(EventHandler handler) {
+        
+        final String name = "EventMailbox-" + handler.getClass().getName();
+        
+        ThreadPoolExecutor mailbox = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(MAILBOX_SIZE), new ThreadFactory() {
+            
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            }
+            
+        });
+        
+        mailbox.allowCoreThreadTimeOut(true);
+        return mailbox;
+        
+    }
+    
+    
+    /**
+     * Marker put in the worker queues when a game-wide event is received.
+     **/
+    private static class Barrier extends Event {
+        
+        private final CountDownLatch latch;
+        
+        
+        /**
+         * Object constructor.
+         * 
+         * @author agent
+         * @param  event The game-wide event
+         * @param  latch The latch counted down by every worker reaching the barrier
+         * @return Barrier
+         **/
+        private Barrier(Event event, CountDownLatch latch) {
+            super(event.getType());
+            this.latch = latch;
+        }
+        
+    }
+    
+    
+    /**
+     * Thread dispatching events. The thread actually running the lane changes
+     * when the watchdog takes the lane over from a thread stuck in a handler.
+     **/
+    private abstract class Lane implements Runnable {
+        
+        private final boolean daemon;
+        private String name;
+        
+        // Handler invocation in progress: fields are written by the dispatching thread
+        // before the invocation id is published (0 when no handler is running).
+        private final AtomicLong running = new AtomicLong();
+        private long calls;
+        private long started;
+        private HandlerMetrics[] handlers;
+        private Event event;
+        private int index;
+        
+        
+        /**
+         * Object constructor.
+         * 
+         * @author agent
+         * @param  daemon Whether the threads running the lane are daemon threads
+         * @return Lane
+         **/
+        private Lane(boolean daemon) {
+            this.daemon = daemon;
+        }
+        
+        
+        /**
+         * Take the next event and dispatch it.
+         * 
+         * @author agent
+         * @throws InterruptedException
+         * @return boolean. This will return false if the current thread has been replaced
+         **/
+        protected abstract boolean process() throws InterruptedException;
+        
+        
+        /**
+         * Handle the interruption of the thread running the lane.
+         * 
+         * @author agent
+         * @param  e The exception
+         **/
+        protected abstract void interrupted(InterruptedException e);
+        
+        
+        /**
+         * Runnable implementation of the lane.
+         * 
+         * @author Mathias Van Malderen
+         **/
+        @Override
+        public void run() {
+            this.resume(null, null, 0);
+        }
+        
+        
+        /**
+         * Take the lane over from the thread running the given handler invocation.
+         * The event being dispatched is retained on behalf of the abandoned thread,
+         * which releases it once the handler returns (see abandon()).
+         * 
+         * @author agent
+         * @param  id The handler invocation id
+         * @return boolean. This will return false if the invocation completed in the meantime
+         **/
+        private synchronized boolean takeOver(long id) {
+            
+            // Fails if the handler returned in the meantime: the lane fields
+            // belong to the stuck invocation only if the reset succeeds.
+            if (!this.running.compareAndSet(id, 0))
+                return false;
+            
+            this.event.retain();
+            return true;
+            
+        }
+        
+        
+        /**
+         * Release the reference to the given event retained by the watchdog on behalf
+         * of the thread abandoned while handling it. Synchronized with takeOver(), so
+         * the reference is never released before it has been retained.
+         * 
+         * @author agent
+         * @param  event The event the abandoned thread was handling
+         **/
+        private synchronized void abandon(Event event) {
+            event.release();
+        }
+        
+        
+        /**
+         * Start a new thread running the lane.
+         * 
+         * @author agent
+         * @param  handlers The EventHandlers of the event being dispatched, if any
+         * @param  event The event being dispatched, if any
+         * @param  from The position of the next EventHandler to invoke
+         **/
+        private void start(final HandlerMetrics[] handlers, final Event event, final int from) {
+            
+            Thread thread = new Thread(new Runnable() {
+                
+                @Override
+                public void run() {
+                    resume(handlers, event, from);
+                }
+                
+            }, this.name);
+            
+            thread.setDaemon(this.daemon);
+            thread.start();
+            
+        }
+        
+        
+        /**
+         * Complete the dispatching of the given event, then keep on processing events.
+         * 
+         * @author agent
+         * @param  handlers The EventHandlers of the event being dispatched, if any
+         * @param  event The event being dispatched, if any
+         * @param  from The position of the next EventHandler to invoke
+         **/
+        private void resume(HandlerMetrics[] handlers, Event event, int from) {
+            
+            try {
+                
+                if (event != null && !dispatch(handlers, event, from, this))
+                    return;
+                
+                while (this.process());
+                
+            } catch (InterruptedException e) {
+                this.interrupted(e);
+            }
+            
+        }
+        
+    }
+    
+    
+    /**
+     * Lane of the processor thread: takes events from the event queue and
+     * either dispatches them or routes them to the partition workers.
+     **/
+    private class Router extends Lane {
+        
+        
+        /**
+         * Object constructor.
+         * 
+         * @author agent
+         * @return Router
+         **/
+        private Router() {
+            super(false);
+        }
+        
+        
+        /**
+         * Take the next event from the event queue and dispatch it.
+         * 
+         * @author agent
+         * @throws InterruptedException
+         * @return boolean. This will return false if the current thread has been replaced
+         **/
+        @Override
+        protected boolean process() throws InterruptedException {
+            
+            Event event = eventQueue.take(); // should block if empty queue
+            
+            if (workers.length == 0)
+                return dispatch(handlersDS.getHandlers(event.getType()), event, 0, this);
+            
+            Client client = event.getClient();
+            
+            if (client != null) {
+                // Events of the same client always go to the same worker: events
+                // involving a target (Hit, Kill...) are routed by the acting client only.
+                workers[client.slot % workers.length].queue.put(event);
+                return true;
+            }
+            
+            // Game-wide event: wait for the workers to dispatch
+            // everything they have been given so far, then dispatch it.
+            CountDownLatch latch = new CountDownLatch(workers.length);
+            for (Worker worker : workers)
+                worker.queue.put(new Barrier(event, latch));
+            
+            latch.await();
+            return dispatch(handlersDS.getHandlers(event.getType()), event, 0, this);
+            
+        }
+        
+        
+        /**
+         * @author agent
+         * @param  e The exception
+         **/
+        @Override
+        protected void interrupted(InterruptedException e) {
+            // Should never occur!
+            log.fatal(e.toString());
+            System.exit(1);
+        }
+        
+    }
+    
+    
+    /**
+     * Lane dispatching the events of a partition of client slots.
+     **/
+    private class Worker extends Lane {
+        
+        private final BlockingQueue<Event> queue;
+        
+        
+        /**
+         * Object constructor.
+         * 
+         * @author agent
+         * @return Worker
+         **/
+        private Worker() {
+            
+            super(true);
+            
+            if (eventQueue instanceof PriorityEventQueue) {
+                PriorityEventQueue lanes = (PriorityEventQueue) eventQueue;
+                this.queue = new PriorityEventQueue(new ArrayBlockingQueue<Event>(WORKER_QUEUE_SIZE), new ArrayBlockingQueue<Event>(WORKER_QUEUE_SIZE), lanes.getHighPriority(), lanes.getMaxBurst());
+            } else {
+                this.queue = new ArrayBlockingQueue<Event>(WORKER_QUEUE_SIZE);
+            }
+            
+        }
+        
+        
+        /**
+         * Take the next event from the worker queue and dispatch it.
+         * 
+         * @author agent
+         * @throws InterruptedException
+         * @return boolean. This will return false if the current thread has been replaced
+         **/
+        @Override
+        protected boolean process() throws InterruptedException {
+            
+            Event event = this.queue.take();
+            
+            if (event instanceof Barrier) {
+                ((Barrier) event).latch.countDown();
+                return true;
+            }
+            
+            return dispatch(handlersDS.getHandlers(event.getType()), event, 0, this);
+            
+        }
+        
+        
+        /**
+         * @author agent
+         * @param  e The exception
+         **/
+        @Override
+        protected void interrupted(InterruptedException e) {
+            log.debug("Event worker interrupted: " + Thread.currentThread().getName());
+        }
+        
+    }
+    
+    
+    /**
+     * Thread checking that no lane is stuck in a handler for longer than the time budget.
+     * A stuck lane is taken over by a new thread, which goes on dispatching the event to
+     * the following handlers: the stuck thread terminates as soon as the handler returns.
+     **/
+    private class Watchdog implements Runnable {
+        
+        
+        /**
+         * Runnable implementation of the watchdog.
+         * 
+         * @author Mathias Van Malderen
+         **/
+        @Override
+        public void run() {
+            
+            try {
+                
+                while (true) {
+                    
+                    // Checking a few times per budget, so that stuck
+                    // lanes are taken over shortly after it expires.
+                    long budget = handlerBudget;
+                    TimeUnit.NANOSECONDS.sleep(budget > 0 ? Math.max(MIN_WATCHDOG_PERIOD, Math.min(MAX_WATCHDOG_PERIOD, budget / 4)) : MAX_WATCHDOG_PERIOD);
+                    
+                    budget = handlerBudget;
+                    if (budget <= 0) continue;
+                    
+                    for (Lane lane : lanes)
+                        this.check(lane, budget);
+                    
+                }
+                
+            } catch (InterruptedException e) {
+                log.debug("Event watchdog interrupted: " + Thread.currentThread().getName());
+            }
+            
+        }
+        
+        
+        /**
+         * Take the given lane over if it has been running the same handler for too long.
+         * 
+         * @author agent
+         * @param  lane The lane to check
+         * @param  budget The handler time budget
+         **/
+        private void check(Lane lane, long budget) {
+            
+            long id = lane.running.get();
+            if (id == 0 || System.nanoTime() - lane.started <= budget)
+                return;
+            
+            if (!lane.takeOver(id))
+                return;
+            
+            strike(lane.handlers[lane.index], "exceeded its time budget of " + TimeUnit.NANOSECONDS.toMillis(budget) + "ms handling " + lane.event.getType());
+            lane.start(lane.handlers, lane.event, lane.index + 1);
+            
+        }
+        
     }
     
 }
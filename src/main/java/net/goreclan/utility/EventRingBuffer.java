@@ -0,0 +1,589 @@
+/**
+ * Bounded event bus between the log reader and the EventProcessor.
+ *
+ * A preallocated ring buffer whose capacity is a power of two: the producer (the
+ * thread parsing games.log) and the consumer (the EventProcessor thread) only
+ * advance their own sequence number, so no lock is taken while events flow.
+ * The buffer is meant to be used by a single producer and a single consumer.
+ *
+ * When the buffer fills up because the handlers fall behind, the configured
+ * backpressure policy is applied:
+ *
+ *   - BLOCK: the producer waits for the consumer to free some space.
+ *   - DROP_LOW_PRIORITY: low priority events (Hit, Radio...) are dropped once the
+ *     buffer is 3/4 full, so that the remaining space is left to the events which
+ *     really matter (say, connect, kill...). Other events block the producer.
+ *   - COALESCE: once the buffer is 3/4 full, only the latest low priority event of
+ *     each type and client is kept aside (older ones are discarded). Events kept
+ *     aside are published in arrival order as soon as there is room again, or
+ *     handed straight to the consumer once the buffer is empty, so that they are
+ *     not stranded when the log goes quiet. Other events block the producer.
+ *
+ * The queue depth and the number of dropped/coalesced events are exposed, so that
+ * an overloaded BOT can be noticed before it falls too far behind the server.
+ *
+ * @author        agent
+ * @version       1.1
+ * @copyright     agent, 18 October, 2026
+ * @package       net.goreclan.utility
+ **/
+
+package net.goreclan.utility;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import net.goreclan.domain.Client;
+import net.goreclan.event.Event;
+import net.goreclan.event.EventType;
+
+public class EventRingBuffer extends AbstractQueue<Event> implements BlockingQueue<Event> {
+
+
+    /**
+     * Backpressure policies applied when the buffer is full.
+     **/
+    public enum Policy {
+        BLOCK,
+        DROP_LOW_PRIORITY,
+        COALESCE
+    }
+
+
+    /**
+     * Event types which are dropped/coalesced first by default.
+     **/
+    public static final Set<EventType> DEFAULT_LOW_PRIORITY = EnumSet.of(EventType.EVT_CLIENT_HIT, EventType.EVT_CLIENT_RADIO);
+
+
+    private final Event[] buffer;
+    private final int mask;
+    private final int watermark;
+    private final Policy policy;
+    private final Set<EventType> lowPriority;
+
+    // Sequence of the next event to be read (written by the consumer only).
+    private final AtomicLong head = new AtomicLong();
+
+    // Sequence of the next event to be written (written by the producer only).
+    private final AtomicLong tail = new AtomicLong();
+
+    // Threads parked waiting for an event/for some space.
+    private volatile Thread consumer;
+    private volatile Thread producer;
+
+    // Latest low priority event of each type and client put aside, in arrival order
+    // (guarded by itself: the consumer takes them once the buffer is empty).
+    private final Map<Long, Event> coalesce = new LinkedHashMap<Long, Event>();
+    private volatile int pending;
+
+    // Counters (written by the producer only).
+    private volatile long published;
+    private volatile long dropped;
+    private volatile long coalesced;
+
+
+    /**
+     * Class constructor.
+     *
+     * @author agent
+     * @param  capacity The buffer capacity (rounded up to the next power of two)
+     * @param  policy The backpressure policy
+     **/
+    public EventRingBuffer(int capacity, Policy policy) {
+        this(capacity, policy, DEFAULT_LOW_PRIORITY);
+    }
+
+
+    /**
+     * Class constructor.
+     *
+     * @author agent
+     * @param  capacity The buffer capacity (rounded up to the next power of two)
+     * @param  policy The backpressure policy
+     * @param  lowPriority The event types which can be dropped/coalesced
+     **/
+    public EventRingBuffer(int capacity, Policy policy, Set<EventType> lowPriority) {
+
+        if (policy == null || lowPriority == null) throw new NullPointerException();
+        if (capacity < 2 || capacity > 1 << 30) throw new IllegalArgumentException("Invalid event buffer capacity: " + capacity);
+
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+
+        this.buffer = new Event[size];
+        this.mask = size - 1;
+        this.watermark = size - size / 4;
+        this.policy = policy;
+        this.lowPriority = lowPriority.isEmpty() ? EnumSet.noneOf(EventType.class) : EnumSet.copyOf(lowPriority);
+
+    }
+
+
+    /**
+     * Put an event in the buffer, applying the backpressure policy.
+     * Blocks while the buffer is full and the event can't be dropped.
+     *
+     * @author agent
+     * @param  event The event to be published
+     * @throws InterruptedException If interrupted while waiting for space
+     **/
+    @Override
+    public void put(Event event) throws InterruptedException {
+
+        if (!this.admit(event)) return;
+
+        while (!this.publish(event)) {
+
+            this.producer = Thread.currentThread();
+            if (this.isFull()) LockSupport.park(this);
+            this.producer = null;
+
+            if (Thread.interrupted()) throw new InterruptedException();
+
+        }
+
+    }
+
+
+    /**
+     * Put an event in the buffer, applying the backpressure policy, without blocking.
+     *
+     * @author agent
+     * @param  event The event to be published
+     * @return boolean. This will return false if the buffer is full and the event can't be dropped
+     **/
+    @Override
+    public boolean offer(Event event) {
+        return !this.admit(event) || this.publish(event);
+    }
+
+
+    /**
+     * Put an event in the buffer, applying the backpressure policy.
+     * Waits up to the given time while the buffer is full and the event can't be dropped.
+     *
+     * @author agent
+     * @param  event The event to be published
+     * @param  timeout How long to wait for space
+     * @param  unit The timeout unit
+     * @throws InterruptedException If interrupted while waiting for space
+     * @return boolean. This will return false if no space has been freed in time
+     **/
+    @Override
+    public boolean offer(Event event, long timeout, TimeUnit unit) throws InterruptedException {
+
+        if (!this.admit(event)) return true;
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+        while (!this.publish(event)) {
+
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return false;
+
+            this.producer = Thread.currentThread();
+            if (this.isFull()) LockSupport.parkNanos(this, remaining);
+            this.producer = null;
+
+            if (Thread.interrupted()) throw new InterruptedException();
+
+        }
+
+        return true;
+
+    }
+
+
+    /**
+     * Retrieve and remove the next event, waiting if the buffer is empty.
+     *
+     * @author agent
+     * @throws InterruptedException If interrupted while waiting for an event
+     * @return Event
+     **/
+    @Override
+    public Event take() throws InterruptedException {
+
+        Event event;
+
+        while ((event = this.poll()) == null) {
+
+            this.consumer = Thread.currentThread();
+            if (this.isEmpty()) LockSupport.park(this);
+            this.consumer = null;
+
+            if (Thread.interrupted()) throw new InterruptedException();
+
+        }
+
+        return event;
+
+    }
+
+
+    /**
+     * Retrieve and remove the next event, waiting up to the given time if the buffer is empty.
+     *
+     * @author agent
+     * @param  timeout How long to wait for an event
+     * @param  unit The timeout unit
+     * @throws InterruptedException If interrupted while waiting for an event
+     * @return Event. This will return null if no event has been published in time
+     **/
+    @Override
+    public Event poll(long timeout, TimeUnit unit) throws InterruptedException {
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        Event event;
+
+        while ((event = this.poll()) == null) {
+
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return null;
+
+            this.consumer = Thread.currentThread();
+            if (this.isEmpty()) LockSupport.parkNanos(this, remaining);
+            this.consumer = null;
+
+            if (Thread.interrupted()) throw new InterruptedException();
+
+        }
+
+        return event;
+
+    }
+
+
+    /**
+     * Retrieve and remove the next event.
+     * Once the buffer is empty, the events put aside by the COALESCE policy are returned.
+     *
+     * @author agent
+     * @return Event. This will return null if the buffer is empty
+     **/
+    @Override
+    public Event poll() {
+
+        long sequence = this.head.get();
+
+        if (sequence >= this.tail.get()) {
+            Event event = this.pending > 0 ? this.unstash(true) : null;
+            if (event != null || sequence >= this.tail.get()) return event;
+        }
+
+        int index = (int) sequence & this.mask;
+        Event event = this.buffer[index];
+        this.buffer[index] = null;
+        this.head.set(sequence + 1);
+
+        Thread waiting = this.producer;
+        if (waiting != null) LockSupport.unpark(waiting);
+
+        return event;
+
+    }
+
+
+    /**
+     * Retrieve, but do not remove, the next event.
+     *
+     * @author agent
+     * @return Event. This will return null if the buffer is empty
+     **/
+    @Override
+    public Event peek() {
+
+        long sequence = this.head.get();
+
+        if (sequence >= this.tail.get()) {
+            Event event = this.pending > 0 ? this.unstash(false) : null;
+            if (event != null || sequence >= this.tail.get()) return event;
+        }
+
+        return this.buffer[(int) sequence & this.mask];
+
+    }
+
+
+    /**
+     * Return the number of events in the buffer, together with the events put aside.
+     *
+     * @author agent
+     * @return int
+     **/
+    @Override
+    public int size() {
+        return this.depth() + this.pending;
+    }
+
+
+    /**
+     * @author agent
+     * @return int
+     **/
+    @Override
+    public int remainingCapacity() {
+        return this.buffer.length - this.depth();
+    }
+
+
+    /**
+     * @author agent
+     * @param  c The collection where to transfer the events
+     * @return int
+     **/
+    @Override
+    public int drainTo(Collection<? super Event> c) {
+        return this.drainTo(c, Integer.MAX_VALUE);
+    }
+
+
+    /**
+     * @author agent
+     * @param  c The collection where to transfer the events
+     * @param  maxElements The maximum number of events to transfer
+     * @return int
+     **/
+    @Override
+    public int drainTo(Collection<? super Event> c, int maxElements) {
+
+        if (c == this) throw new IllegalArgumentException();
+
+        int count = 0;
+        Event event;
+
+        while (count < maxElements && (event = this.poll()) != null) {
+            c.add(event);
+            count++;
+        }
+
+        return count;
+
+    }
+
+
+    /**
+     * Returns an iterator over a snapshot of the events currently in the buffer.
+     * Meant for debugging purposes only.
+     *
+     * @author agent
+     * @return Iterator<Event>
+     **/
+    @Override
+    public Iterator<Event> iterator() {
+
+        List<Event> snapshot = new ArrayList<Event>();
+
+        for (long sequence = this.head.get(), tail = this.tail.get(); sequence < tail; sequence++) {
+            Event event = this.buffer[(int) sequence & this.mask];
+            if (event != null) snapshot.add(event);
+        }
+
+        synchronized (this.coalesce) {
+            snapshot.addAll(this.coalesce.values());
+        }
+
+        return snapshot.iterator();
+
+    }
+
+
+    /**
+     * Return the current queue depth.
+     *
+     * @author agent
+     * @return int
+     **/
+    public int getDepth() {
+        return this.size();
+    }
+
+
+    /**
+     * Return the buffer capacity.
+     *
+     * @author agent
+     * @return int
+     **/
+    public int getCapacity() {
+        return this.buffer.length;
+    }
+
+
+    /**
+     * Return the number of events published so far.
+     *
+     * @author agent
+     * @return long
+     **/
+    public long getPublished() {
+        return this.published;
+    }
+
+
+    /**
+     * Return the number of events dropped so far because of the DROP_LOW_PRIORITY policy.
+     *
+     * @author agent
+     * @return long
+     **/
+    public long getDropped() {
+        return this.dropped;
+    }
+
+
+    /**
+     * Return the number of events discarded so far because of the COALESCE policy.
+     *
+     * @author agent
+     * @return long
+     **/
+    public long getCoalesced() {
+        return this.coalesced;
+    }
+
+
+    /**
+     * Apply the backpressure policy to the given event.
+     * Coalesced events put aside are published first, if there is room again.
+     *
+     * @author agent
+     * @param  event The event to be published
+     * @return boolean. This will return false if the event has been dropped or put aside
+     **/
+    private boolean admit(Event event) {
+
+        if (event == null) throw new NullPointerException();
+
+        if (this.pending > 0)
+            this.flush();
+
+        if (this.policy == Policy.BLOCK || this.depth() < this.watermark || !this.lowPriority.contains(event.getType()))
+            return true;
+
+        if (this.policy == Policy.DROP_LOW_PRIORITY) {
+            this.dropped++;
+            return false;
+        }
+
+        // Keeping only the latest event of this type and client, at the end of the line.
+        Client client = event.getClient();
+        Long key = (long) event.getType().ordinal() << 32 | (client != null ? client.slot : -1) & 0xffffffffL;
+
+        synchronized (this.coalesce) {
+            if (this.coalesce.remove(key) != null) this.coalesced++;
+            this.coalesce.put(key, event);
+            this.pending = this.coalesce.size();
+        }
+
+        return false;
+
+    }
+
+
+    /**
+     * Publish the coalesced events put aside, in arrival order, as long as the buffer is below the watermark.
+     *
+     * @author agent
+     **/
+    private void flush() {
+
+        synchronized (this.coalesce) {
+
+            Iterator<Event> i = this.coalesce.values().iterator();
+
+            while (i.hasNext() && this.depth() < this.watermark && this.publish(i.next()))
+                i.remove();
+
+            this.pending = this.coalesce.size();
+
+        }
+
+    }
+
+
+    /**
+     * Return the oldest coalesced event put aside (consumer side).
+     *
+     * @author agent
+     * @param  remove Whether to remove the event
+     * @return Event. This will return null if no event has been put aside
+     **/
+    private Event unstash(boolean remove) {
+
+        synchronized (this.coalesce) {
+
+            // The producer may have published them in the meantime.
+            if (this.coalesce.isEmpty() || this.depth() > 0)
+                return null;
+
+            Iterator<Event> i = this.coalesce.values().iterator();
+            Event event = i.next();
+
+            if (remove) {
+                i.remove();
+                this.pending = this.coalesce.size();
+            }
+
+            return event;
+
+        }
+
+    }
+
+
+    /**
+     * Return the number of events in the buffer, without the events put aside.
+     *
+     * @author agent
+     * @return int
+     **/
+    private int depth() {
+        return (int) (this.tail.get() - this.head.get());
+    }
+
+
+    /**
+     * Write the given event in the next slot, if there is room for it.
+     *
+     * @author agent
+     * @param  event The event to be published
+     * @return boolean. This will return false if the buffer is full
+     **/
+    private boolean publish(Event event) {
+
+        long sequence = this.tail.get();
+        if (sequence - this.head.get() >= this.buffer.length) return false;
+
+        this.buffer[(int) sequence & this.mask] = event;
+        this.tail.set(sequence + 1);
+        this.published++;
+
+        Thread waiting = this.consumer;
+        if (waiting != null) LockSupport.unpark(waiting);
+
+        return true;
+
+    }
+
+
+    /**
+     * @author agent
+     * @return boolean
+     **/
+    private boolean isFull() {
+        return this.tail.get() - this.head.get() >= this.buffer.length;
+    }
+
+}
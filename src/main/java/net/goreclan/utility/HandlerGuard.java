@@ -0,0 +1,126 @@
+/**
+ * Watchdog state of an EventHandler.
+ *
+ * A handler which exceeds its time budget gets a strike and is isolated: from then on
+ * it is invoked on its own thread, with a bounded backlog, so that it can neither stall
+ * the dispatching threads nor starve the other isolated handlers. The state belongs to
+ * the handler, not to a single event type: it is shared by the metrics of all the event
+ * types the handler is registered for, so that strikes add up and the handler is
+ * isolated for all of them at once.
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.utility
+ **/
+
+package net.goreclan.utility;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class HandlerGuard {
+
+    // Invocations of an isolated handler queued before
+    // the following ones are rejected.
+    static final int ISOLATION_BACKLOG = 64;
+
+    private final EventHandler handler;
+    private final AtomicInteger strikes = new AtomicInteger();
+    private volatile ThreadPoolExecutor isolation;
+
+
+    /**
+     * Object constructor.
+     *
+     * @author agent
+     * @param  handler The guarded event handler
+     * @return HandlerGuard
+     **/
+    HandlerGuard(EventHandler handler) {
+        this.handler = handler;
+    }
+
+
+    /**
+     * Record a time budget violation and isolate the handler.
+     *
+     * @author agent
+     * @return int. The number of strikes collected so far
+     **/
+    synchronized int strike() {
+
+        if (this.isolation == null)
+            this.isolation = newIsolation(this.handler);
+
+        return this.strikes.incrementAndGet();
+
+    }
+
+
+    /**
+     * Return the number of times the handler exceeded its time budget.
+     *
+     * @author agent
+     * @return int
+     **/
+    int getStrikes() {
+        return this.strikes.get();
+    }
+
+
+    /**
+     * Return the executor an isolated handler is invoked on.
+     *
+     * @author agent
+     * @return Executor. This will return null if the handler is not isolated
+     **/
+    Executor getIsolation() {
+        return this.isolation;
+    }
+
+
+    /**
+     * Stop the isolation thread once the invocations already queued are completed.
+     *
+     * @author agent
+     **/
+    synchronized void shutdown() {
+        if (this.isolation != null)
+            this.isolation.shutdown();
+    }
+
+
+    /**
+     * Create the executor of an isolated EventHandler: a single thread executor
+     * with a bounded queue. The thread terminates when the handler stays idle.
+     *
+     * @author agent
+     * @param  handler The isolated event handler
+     * @return ThreadPoolExecutor
+     **/
+    private static ThreadPoolExecutor newIsolation(EventHandler handler) {
+
+        final String name = "EventIsolation-" + handler.getClass().getName();
+
+        ThreadPoolExecutor isolation = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(ISOLATION_BACKLOG), new ThreadFactory() {
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            }
+
+        });
+
+        isolation.allowCoreThreadTimeOut(true);
+        return isolation;
+
+    }
+
+}
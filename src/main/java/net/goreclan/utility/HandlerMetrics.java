@@ -0,0 +1,282 @@
+/**
+ * Dispatch metrics of an EventHandler for a single EventType.
+ *
+ * Keeps track of how many events have been dispatched to the handler, how many of
+ * them made the handler throw an exception, and how long the handler took to handle
+ * them. Latencies are collected in a histogram with power of two buckets (bucket i
+ * holds latencies in the range [2^(i-1), 2^i) nanoseconds), so recording a sample is
+ * just a couple of atomic increments and percentiles are accurate within a factor 2.
+ * Counters are atomic since the same handler may be invoked by different workers.
+ *
+ * Metrics also refer to the watchdog state of the handler (see HandlerGuard), which
+ * is shared by the metrics of all the event types the handler is registered for.
+ * Asynchronous handlers also hold the executor (mailbox) they are invoked on.
+ *
+ * @author        agent
+ * @version       1.1
+ * @copyright     agent, 18 October, 2026
+ * @package       net.goreclan.utility
+ **/
+
+package net.goreclan.utility;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import net.goreclan.event.EventType;
+
+public class HandlerMetrics {
+
+    private final EventHandler handler;
+    private final EventType eventType;
+    private final Executor mailbox;
+    private final HandlerGuard guard;
+
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLongArray histogram = new AtomicLongArray(Long.SIZE);
+
+
+    /**
+     * Class constructor.
+     *
+     * @author agent
+     * @param  handler The event handler
+     * @param  eventType The event type the handler is registered for
+     **/
+    public HandlerMetrics(EventHandler handler, EventType eventType) {
+        this(handler, eventType, null);
+    }
+
+
+    /**
+     * Class constructor.
+     *
+     * @author agent
+     * @param  handler The event handler
+     * @param  eventType The event type the handler is registered for
+     * @param  mailbox The executor of an asynchronous handler (null for synchronous handlers)
+     **/
+    public HandlerMetrics(EventHandler handler, EventType eventType, Executor mailbox) {
+        this(handler, eventType, mailbox, new HandlerGuard(handler));
+    }
+
+
+    /**
+     * Class constructor.
+     *
+     * @author agent
+     * @param  handler The event handler
+     * @param  eventType The event type the handler is registered for
+     * @param  mailbox The executor of an asynchronous handler (null for synchronous handlers)
+     * @param  guard The watchdog state of the handler, shared by all its event types
+     **/
+    HandlerMetrics(EventHandler handler, EventType eventType, Executor mailbox, HandlerGuard guard) {
+
+        if (handler == null || eventType == null || guard == null) throw new NullPointerException();
+
+        this.handler = handler;
+        this.eventType = eventType;
+        this.mailbox = mailbox;
+        this.guard = guard;
+
+    }
+
+
+    /**
+     * Record a dispatch.
+     *
+     * @author agent
+     * @param  nanos The time the handler took to handle the event
+     * @param  failed Whether the handler threw an exception
+     **/
+    public void record(long nanos, boolean failed) {
+
+        if (nanos < 0) nanos = 0;
+
+        count.incrementAndGet();
+        if (failed) errors.incrementAndGet();
+        histogram.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(nanos));
+
+        long current;
+        while (nanos > (current = max.get()) && !max.compareAndSet(current, nanos));
+
+    }
+
+
+    /**
+     * Record an event which has been dropped because the handler mailbox (or its
+     * isolation backlog) was full.
+     *
+     * @author agent
+     **/
+    void drop() {
+        dropped.incrementAndGet();
+    }
+
+
+    /**
+     * Return the watchdog state of the handler.
+     *
+     * @author agent
+     * @return HandlerGuard
+     **/
+    HandlerGuard getGuard() {
+        return guard;
+    }
+
+
+    /**
+     * @author agent
+     * @return EventHandler
+     **/
+    public EventHandler getHandler() {
+        return handler;
+    }
+
+
+    /**
+     * @author agent
+     * @return EventType
+     **/
+    public EventType getEventType() {
+        return eventType;
+    }
+
+
+    /**
+     * Return the executor of an asynchronous handler.
+     *
+     * @author agent
+     * @return Executor. This will return null for synchronous handlers
+     **/
+    public Executor getMailbox() {
+        return mailbox;
+    }
+
+
+    /**
+     * Return the number of events dispatched to the handler.
+     *
+     * @author agent
+     * @return long
+     **/
+    public long getCount() {
+        return count.get();
+    }
+
+
+    /**
+     * Return the number of events which made the handler throw an exception.
+     *
+     * @author agent
+     * @return long
+     **/
+    public long getErrors() {
+        return errors.get();
+    }
+
+
+    /**
+     * Return the number of events dropped because the handler mailbox (or its
+     * isolation backlog) was full.
+     *
+     * @author agent
+     * @return long
+     **/
+    public long getDropped() {
+        return dropped.get();
+    }
+
+
+    /**
+     * Return the number of times the handler exceeded its time budget.
+     *
+     * @author agent
+     * @return int
+     **/
+    public int getStrikes() {
+        return guard.getStrikes();
+    }
+
+
+    /**
+     * Tells whether the handler is invoked off the dispatching threads
+     * because it exceeded its time budget.
+     *
+     * @author agent
+     * @return boolean
+     **/
+    public boolean isIsolated() {
+        return guard.getIsolation() != null;
+    }
+
+
+    /**
+     * Return the highest latency recorded, in nanoseconds.
+     *
+     * @author agent
+     * @return long
+     **/
+    public long getMax() {
+        return max.get();
+    }
+
+
+    /**
+     * Return the given latency percentile, in nanoseconds.
+     * The value is the upper bound of the histogram bucket holding the percentile.
+     *
+     * @author agent
+     * @param  percentile The percentile to compute (0-100)
+     * @return long. This will return 0 if nothing has been recorded yet
+     **/
+    public long getPercentile(double percentile) {
+
+        long total = 0;
+        for (int i = 0; i < histogram.length(); i++)
+            total += histogram.get(i);
+
+        if (total == 0) return 0;
+
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+
+        for (int i = 0; i < histogram.length(); i++) {
+            seen += histogram.get(i);
+            if (seen >= Math.max(1, rank))
+                return Math.min((1L << i) - 1, getMax());
+        }
+
+        return getMax();
+
+    }
+
+
+    /**
+     * String object representation.
+     *
+     * @author agent
+     * @return String
+     **/
+    @Override
+    public String toString() {
+        return "[ handler : " + handler.getClass().getName() + " | event : " + eventType + " | count : " + getCount() + " | errors : " + getErrors() + " | dropped : " + getDropped() +
+               " | p50 : " + micros(getPercentile(50)) + "us | p99 : " + micros(getPercentile(99)) + "us | max : " + micros(getMax()) + "us | strikes : " + getStrikes() + " ]";
+    }
+
+
+    /**
+     * @author agent
+     * @param  nanos The time in nanoseconds
+     * @return long
+     **/
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+}
@@ -1,333 +1,269 @@
 /**
  * This class represents a data structure that links EventHandlers and their registered
- * EventTypes together. Iteration of the internals is encapsulated and taken care of by
- * a custom implemented Iterator. The EventTypes are internally stored as bit vectors
- * which provide very compact and efficient storage.
- * 
+ * EventTypes together. For every EventType the data structure keeps a precomputed array
+ * of the EventHandlers registered for it, indexed by the EventType ordinal. Arrays are
+ * never modified once published: they are rebuilt (copy-on-write) every time a handler
+ * registers or unregisters, which happens rarely compared to event dispatching.
+ * Dispatching an event is therefore a plain loop over an array, with no allocation.
+ * Every EventHandler is stored together with its dispatch metrics for the EventType,
+ * which share the watchdog state of the handler (see HandlerGuard).
+ *
+ * The whole table is an immutable snapshot published through a volatile field, so
+ * that plugins can be enabled/disabled at runtime while the EventProcessor thread is
+ * dispatching events: registration methods are synchronized with each other only,
+ * while dispatching never locks and always sees a consistent snapshot (an event is
+ * either dispatched to a handler being registered or not, but never lost).
+ *
  * @author        Mathias Van Malderen
- * @version       1.0
+ * @version       1.1
  * @copyright     Mathias Van Malderen, 23 September, 2012
  * @package       net.goreclan.utility
  **/
 
 package net.goreclan.utility;
 
-import java.util.EnumSet;
-import java.util.IdentityHashMap;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.NoSuchElementException;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
 import net.goreclan.event.EventType;
 
 public class HandlersDS {
-    
-    
-    /**
-     * The default setting for the autoOptimize field if there was no value
-     * specified for it explicitly during HandlersDS construction.
-     **/
-    public static final boolean AUTO_OPTIMIZATION_STRATEGY = true;
-    
-    
-    /**
-     * The default percentage of EventHandlers with no registered EventTypes, which
-     * - if exceeded - will trigger "garbage collection".
-     **/
-    public static final double DEFAULT_GC_TRIGGER_PERCENTAGE = 0.15;
-    
-    
-    /**
-     * Internal Map that links EventHandlers to their registered EventTypes.
-     **/
-    private Map<EventHandler, Set<EventType>> eventHandlers;
-    
-    
-    /**
-     * This instance variable indicates if the eventHandlers Map should
-     * automatically be made more compact when the percentage of EventHandlers
-     * with no registered EventTypes exceeds a specified upper bound
-     * (defined by gcTriggerPercentage).
-     **/
-    private boolean autoOptimize;
-    
-    
+
+
     /**
-     * This instance variable keeps track of the amount of EventHandlers
-     * in the eventHandlers Map for which there are no EventTypes registered.
+     * Shared empty array returned for EventTypes with no registered EventHandlers.
      **/
-    private int removedCount;
-    
-    
+    private static final HandlerMetrics[] EMPTY = new HandlerMetrics[0];
+
+
     /**
-     * This instance variable holds a double value indicating the maximum
-     * percentage of EventHandlers with no registered EventTypes in the
-     * internal Map. If this percentage is exceeded, then the eventHandlers Map
-     * will be made more compact by removing the EventHandler entries with no
-     * registered EventTypes.
+     * EventHandlers (and their metrics) registered for each EventType, indexed by the EventType ordinal.
+     * Handlers are stored in registration order. Neither the table nor the arrays
+     * it holds are ever modified once published: writers replace the whole table.
      **/
-    private double gcTriggerPercentage;
-    
-    
+    private volatile HandlerMetrics[][] eventHandlers;
+
+
     /**
      * Class constructor.
-     * 
+     *
      * @author Mathias Van Malderen
      **/
     public HandlersDS() {
-        this(AUTO_OPTIMIZATION_STRATEGY, DEFAULT_GC_TRIGGER_PERCENTAGE);
-    }
-    
-    
-    /**
-     * Class constructor.
-     * 
-     * @author Mathias Van Malderen
-     **/
-    public HandlersDS(boolean autoOptimizeMemoryUsage) {
-        this(autoOptimizeMemoryUsage, DEFAULT_GC_TRIGGER_PERCENTAGE);
+
+        HandlerMetrics[][] table = new HandlerMetrics[EventType.values().length][];
+        Arrays.fill(table, EMPTY);
+        this.eventHandlers = table;
+
     }
-    
-    
+
+
     /**
-     * Class constructor.
-     * 
+     * Subscribe an EventHandler to events of the specified type.
+     * If the specified handler is already subscribed to the specified event type,
+     * then nothing happens.
+     *
      * @author Mathias Van Malderen
      **/
-    public HandlersDS(boolean autoOptimizeMemoryUsage, double maxUnusedMemoryRatio) {
-        
-        this.eventHandlers = new IdentityHashMap<EventHandler, Set<EventType>>();
-        this.autoOptimize = autoOptimizeMemoryUsage;
-        this.removedCount = 0;
-        this.gcTriggerPercentage = maxUnusedMemoryRatio;
-        
+    public void registerEvent(EventType eventType, EventHandler handler) {
+
+        registerEvent(eventType, handler, null);
+
     }
-    
-    
+
+
     /**
-     * Subscribe an EventHandler to events of the specified type.
+     * Subscribe an asynchronous EventHandler to events of the specified type.
      * If the specified handler is already subscribed to the specified event type,
      * then nothing happens.
-     * 
-     * @author Mathias Van Malderen
+     *
+     * @author agent
+     * @param  mailbox The executor the handler is invoked on (null for synchronous handlers)
      **/
-    public void registerEvent(EventType eventType, EventHandler handler) {
-        
+    public synchronized void registerEvent(EventType eventType, EventHandler handler, Executor mailbox) {
+
         // Generate an NPE to prevent null references from being added into
         // the handlers datastructure (and to prevent future NPEs when onEvent()
-        // would be called for this null handler). An eventType of null would cause
-        // the removedCount to be decremented unnecessarily since the EnumSet remains
-        // empty. Therefore an NPE is thrown for eventType == null as well.
+        // would be called for this null handler).
         if (handler == null || eventType == null) throw new NullPointerException();
-        
-        // Get subscribed events for the specified event handler.
-        Set<EventType> subscribedEvents = eventHandlers.get(handler);
-        
-        if (subscribedEvents == null) {
-            // The specified handler is a new handler that has not been
-            // registered for other event types. Register new handler.
-            eventHandlers.put(handler, EnumSet.of(eventType));
-        }
-        else {
-            // The specified handler is registered already, but it might be
-            // that it isn't registered for the specified event type yet.
-            // Register the specified event type if necessary.
-            if (subscribedEvents.isEmpty()) removedCount--;
-            subscribedEvents.add(eventType);
-        }
-        
+
+        HandlerMetrics[][] table = eventHandlers;
+        HandlerMetrics[] handlers = table[eventType.ordinal()];
+        if (indexOf(handlers, handler) >= 0) return;
+
+        HandlerGuard guard = guardOf(table, handler);
+        if (guard == null) guard = new HandlerGuard(handler);
+
+        HandlerMetrics[] update = Arrays.copyOf(handlers, handlers.length + 1);
+        update[handlers.length] = new HandlerMetrics(handler, eventType, mailbox, guard);
+        eventHandlers = replace(table, eventType.ordinal(), update);
+
     }
-    
-    
+
+
     /**
      * Unsubscribe an EventHandler from receiving events of the specified event type.
      * If the specified handler is not registered for the specified event type,
      * then nothing happens.
-     * 
+     *
      * @author Mathias Van Malderen
      **/
-    public void unregisterEvent(EventType eventType, EventHandler handler) {
-        
-        Set<EventType> subscribedEvents = eventHandlers.get(handler);
-        
-        if (subscribedEvents != null && !subscribedEvents.isEmpty()) {
-            
-            subscribedEvents.remove(eventType);
-            if (subscribedEvents.isEmpty()) removedCount++;
-            
-        }
-        
+    public synchronized void unregisterEvent(EventType eventType, EventHandler handler) {
+
+        if (eventType == null) return;
+
+        HandlerMetrics[][] table = eventHandlers;
+        HandlerMetrics[] handlers = table[eventType.ordinal()];
+        int index = indexOf(handlers, handler);
+        if (index < 0) return;
+
+        eventHandlers = replace(table, eventType.ordinal(), remove(handlers, index));
+
     }
-    
-    
+
+
     /**
      * Unsubscribe an EventHandler from all the event types it is registered for.
      * If the specified handler is not registered for any event type,
      * then nothing happens.
-     * 
+     *
      * @author Mathias Van Malderen
      **/
-    public void unregisterEvents(EventHandler handler) {
-        
-        Set<EventType> subscribedEvents = eventHandlers.get(handler);
-        
-        if (subscribedEvents != null && !subscribedEvents.isEmpty()) {
-            
-            subscribedEvents.clear();
-            removedCount++;
-        
+    public synchronized void unregisterEvents(EventHandler handler) {
+
+        HandlerMetrics[][] table = eventHandlers;
+        HandlerMetrics[][] update = null;
+
+        for (int i = 0; i < table.length; i++) {
+
+            int index = indexOf(table[i], handler);
+            if (index < 0) continue;
+
+            // Copying the table only once, on the 1st match.
+            if (update == null) update = table.clone();
+            update[i] = remove(table[i], index);
+
         }
-        
+
+        if (update != null) eventHandlers = update;
+
     }
-    
-    
+
+
     /**
-     * Clean up any internal Map entries (EventHandlers) that have no registered EventTypes.
-     * 
-     * @author Mathias Van Malderen
+     * Tells whether the given handler is registered for any EventType.
+     *
+     * @return boolean
+     * @author agent
      **/
-    public void collectGarbage() {
-        
-        if (removedCount > 0) {
-            
-            Iterator<Map.Entry<EventHandler, Set<EventType>>> it = eventHandlers.entrySet().iterator();
-            
-            while (it.hasNext()) {
-                // If handler has no registered events, then remove it
-                // from the Map of handlers.
-                if (it.next().getValue().isEmpty()) it.remove();
-            }
-            
-            removedCount = 0;
-            
-        }
-        
+    public boolean isRegistered(EventHandler handler) {
+
+        return guardOf(eventHandlers, handler) != null;
+
     }
-    
-    
+
+
     /**
-     * Calculate the percentage of EventHandlers in the Map with no
-     * registered EventTypes.
-     * 
-     * @author Mathias Van Malderen
+     * Returns the event handlers (together with their metrics) that are registered
+     * to receive events for the specified EventType, in registration order.
+     * The returned array is shared and MUST NOT be modified.
+     *
+     * @return HandlerMetrics[]
+     * @author agent
      **/
-    private double calculateUnusedPercentage() {
-        
-        return ((double) removedCount / eventHandlers.size());
-        
+    public HandlerMetrics[] getHandlers(EventType eventType) {
+
+        return eventHandlers[eventType.ordinal()];
+
     }
-    
-    
+
+
     /**
-     * Check if the condition for compacting the internal Map is satisfied.
-     * 
-     * @author Mathias Van Malderen
+     * Returns the metrics of all the registered event handlers, grouped by EventType.
+     *
+     * @return List<HandlerMetrics>
+     * @author agent
      **/
-    private boolean isCollectGarbageConditionSatisfied() {
-        
-        return (calculateUnusedPercentage() >= gcTriggerPercentage);
-        
+    public List<HandlerMetrics> getMetrics() {
+
+        List<HandlerMetrics> metrics = new ArrayList<HandlerMetrics>();
+        for (HandlerMetrics[] handlers : eventHandlers)
+            metrics.addAll(Arrays.asList(handlers));
+
+        return metrics;
+
     }
-    
-    
+
+
     /**
-     * Returns an iterator that will iterate over all the event handlers that
-     * are registered to receive events for the specified EventType.
-     * 
-     * @return Iterator<EventHandler>
-     * @author Mathias Van Malderen
+     * Return a copy of the given table with the handlers of an EventType replaced.
+     *
+     * @return HandlerMetrics[][]
+     * @author agent
      **/
-    public Iterator<EventHandler> iterator(EventType eventType) {
-        
-        if (autoOptimize && isCollectGarbageConditionSatisfied())
-            collectGarbage();
-        
-        return new EventTypeIterator(eventType);
-    
+    private static HandlerMetrics[][] replace(HandlerMetrics[][] table, int ordinal, HandlerMetrics[] handlers) {
+
+        HandlerMetrics[][] update = table.clone();
+        update[ordinal] = handlers;
+
+        return update;
+
     }
-    
-    
+
+
     /**
-     * Iterator implementation that iterates over all the stored EventHandlers
-     * that have registered for a specified EventType.
-     * 
-     * @author Mathias Van Malderen
+     * Return the watchdog state of the given handler, if it is registered for any EventType.
+     *
+     * @return HandlerGuard. This will return null if the handler is not registered
+     * @author agent
      **/
-    private class EventTypeIterator implements Iterator<EventHandler> {
-        
-        private Iterator<Map.Entry<EventHandler, Set<EventType>>> iterator;
-        private Map.Entry<EventHandler, Set<EventType>> current;
-        private EventType filterType;
-        
-        
-        /**
-         * Class constructor.
-         * 
-         * @author Mathias Van Malderen
-         **/
-        public EventTypeIterator(EventType filterType) {
-            
-            this.iterator = eventHandlers.entrySet().iterator();
-            this.filterType = filterType;
-            this.current = null;
-            
-        }
-        
-        
-        /**
-         * Returns true if the iteration has more elements.
-         * (In other words, returns true if next() would return an element
-         * rather than throwing an exception.)
-         * 
-         * @return boolean
-         * @author Mathias Van Malderen
-         **/
-        @Override
-        public boolean hasNext() {
-            
-            if (current != null) return true;
-            
-            while (iterator.hasNext()) {
-                
-                current = iterator.next();
-                
-                if (current.getValue().contains(filterType)) return true;
-            }
-            
-            current = null;
-            
-            return false;
-            
-        }
-        
-        
-        /**
-         * Returns the next element in the iteration.
-         * 
-         * @return EventHandler
-         * @author Mathias Van Malderen
-         **/
-        @Override
-        public EventHandler next() {
-            
-            if (!hasNext()) throw new NoSuchElementException();
-            
-            EventHandler handler = current.getKey();
-            current = null;
-            
-            return handler;
-            
+    private static HandlerGuard guardOf(HandlerMetrics[][] table, EventHandler handler) {
+
+        for (HandlerMetrics[] handlers : table) {
+            int index = indexOf(handlers, handler);
+            if (index >= 0) return handlers[index].getGuard();
         }
-        
-        
-        /**
-         * Unsupported operation.
-         * 
-         * @author Mathias Van Malderen
-         **/
-        @Override
-        public void remove() { throw new UnsupportedOperationException(); }
-        
+
+        return null;
+
     }
-    
+
+
+    /**
+     * Return the position of the given handler in the given array.
+     * Handlers are compared by identity.
+     *
+     * @return int. This will return -1 if the handler is not in the array
+     * @author agent
+     **/
+    private static int indexOf(HandlerMetrics[] handlers, EventHandler handler) {
+
+        for (int i = 0; i < handlers.length; i++)
+            if (handlers[i].getHandler() == handler) return i;
+
+        return -1;
+
+    }
+
+
+    /**
+     * Return a copy of the given array without the handler at the given position.
+     *
+     * @return HandlerMetrics[]
+     * @author agent
+     **/
+    private static HandlerMetrics[] remove(HandlerMetrics[] handlers, int index) {
+
+        if (handlers.length == 1) return EMPTY;
+
+        HandlerMetrics[] update = new HandlerMetrics[handlers.length - 1];
+        System.arraycopy(handlers, 0, update, 0, index);
+        System.arraycopy(handlers, index + 1, update, index, handlers.length - index - 1);
+
+        return update;
+
+    }
+
 }
@@ -0,0 +1,561 @@
+/**
+ * Event queue with a high priority lane and a bulk lane.
+ *
+ * Events of the high priority types (chat, and so admin commands, votes, connects,
+ * disconnects...) are put in the high priority lane, every other event (hits,
+ * kills, radio...) in the bulk lane. The consumer always drains the high priority
+ * lane first, so that a !kick is not queued behind hundreds of Hit events during a
+ * busy round. Starvation protection: after a burst of high priority events taken in
+ * a row, a waiting bulk event is given its turn.
+ *
+ * Events are ordered within their lane only: an event of the high priority lane can
+ * be taken before bulk events produced earlier (i.e: a ClientDisconnect before the
+ * last hits of the disconnecting client). Each lane is a BlockingQueue of its own and
+ * keeps its own capacity and backpressure policy (i.e: an EventRingBuffer dropping
+ * low priority events): the queue is as concurrent as the lanes are, but it supports
+ * a single consumer only.
+ *
+ * The queue can be given a spill for the bulk lane, so that the producer (the log
+ * reader) does not wait on a full bulk lane: a reader blocked on a full bulk lane would not
+ * read the next lines either, and chat commands would be stuck behind the hits just
+ * like without lanes. Bulk events which don't fit in the bulk lane are put in the
+ * spill (bulk events keep their order: once an event has been spilled, the following
+ * ones are spilled as well, until the consumer has drained the spill). When the spill
+ * is full too, telemetry events (hits and radio messages by default) are dropped (see
+ * getDropped()): losing some of them skews statistics only. Every other bulk event
+ * (kills, team and name changes, round start...) is never dropped, since plugins keep
+ * state out of them: the producer waits for room in the spill instead.
+ * Without a spill, both lanes apply their own backpressure to the producer.
+ *
+ * @author        agent
+ * @version       1.1
+ * @copyright     agent, 18 October, 2026
+ * @package       net.goreclan.utility
+ **/
+
+package net.goreclan.utility;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import net.goreclan.event.Event;
+import net.goreclan.event.EventType;
+
+public class PriorityEventQueue extends AbstractQueue<Event> implements BlockingQueue<Event> {
+
+
+    /**
+     * Event types put in the high priority lane by default.
+     **/
+    public static final Set<EventType> DEFAULT_HIGH_PRIORITY = EnumSet.of(
+            EventType.EVT_CLIENT_SAY, EventType.EVT_CLIENT_SAY_TEAM, EventType.EVT_CLIENT_SAY_PRIVATE,
+            EventType.EVT_CLIENT_CONNECT, EventType.EVT_CLIENT_DISCONNECT,
+            EventType.EVT_CLIENT_CALLVOTE, EventType.EVT_CLIENT_VOTE,
+            EventType.EVT_CLIENT_ACCOUNT_VALIDATED, EventType.EVT_CLIENT_ACCOUNT_BAN,
+            EventType.EVT_CLIENT_ACCOUNT_KICK, EventType.EVT_CLIENT_ACCOUNT_REJECTED);
+
+
+    /**
+     * Bulk event types dropped by default when the bulk lane and its spill are full.
+     **/
+    public static final Set<EventType> DEFAULT_TELEMETRY = EnumSet.of(EventType.EVT_CLIENT_HIT, EventType.EVT_CLIENT_RADIO);
+
+
+    /**
+     * High priority events taken in a row before a waiting bulk event is taken.
+     **/
+    public static final int DEFAULT_MAX_BURST = 64;
+
+
+    private final BlockingQueue<Event> high;
+    private final BlockingQueue<Event> bulk;
+    private final BlockingQueue<Event> spill;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Set<EventType> highPriority;
+    private final boolean[] priority;
+    private final boolean[] telemetry;
+    private final int maxBurst;
+
+    // High priority events taken in a row (consumer only).
+    private int burst;
+
+    // Thread parked waiting for an event.
+    private volatile Thread consumer;
+
+
+    /**
+     * Class constructor.
+     *
+     * @author agent
+     * @param  high The high priority lane
+     * @param  bulk The bulk lane
+     **/
+    public PriorityEventQueue(BlockingQueue<Event> high, BlockingQueue<Event> bulk) {
+        this(high, bulk, 0);
+    }
+
+
+    /**
+     * Class constructor.
+     *
+     * @author agent
+     * @param  high The high priority lane
+     * @param  bulk The bulk lane
+     * @param  spill The capacity of the bulk lane spill (0 to make the producer wait on a full bulk lane)
+     **/
+    public PriorityEventQueue(BlockingQueue<Event> high, BlockingQueue<Event> bulk, int spill) {
+        this(high, bulk, DEFAULT_HIGH_PRIORITY, DEFAULT_MAX_BURST, spill);
+    }
+
+
+    /**
+     * Class constructor.
+     *
+     * @author agent
+     * @param  high The high priority lane
+     * @param  bulk The bulk lane
+     * @param  highPriority The event types put in the high priority lane
+     * @param  maxBurst The high priority events taken in a row before a waiting bulk event is taken
+     **/
+    public PriorityEventQueue(BlockingQueue<Event> high, BlockingQueue<Event> bulk, Set<EventType> highPriority, int maxBurst) {
+        this(high, bulk, highPriority, maxBurst, 0);
+    }
+
+
+    /**
+     * Class constructor.
+     *
+     * @author agent
+     * @param  high The high priority lane
+     * @param  bulk The bulk lane
+     * @param  highPriority The event types put in the high priority lane
+     * @param  maxBurst The high priority events taken in a row before a waiting bulk event is taken
+     * @param  spill The capacity of the bulk lane spill (0 to make the producer wait on a full bulk lane)
+     **/
+    public PriorityEventQueue(BlockingQueue<Event> high, BlockingQueue<Event> bulk, Set<EventType> highPriority, int maxBurst, int spill) {
+        this(high, bulk, highPriority, maxBurst, spill, DEFAULT_TELEMETRY);
+    }
+
+
+    /**
+     * Class constructor.
+     *
+     * @author agent
+     * @param  high The high priority lane
+     * @param  bulk The bulk lane
+     * @param  highPriority The event types put in the high priority lane
+     * @param  maxBurst The high priority events taken in a row before a waiting bulk event is taken
+     * @param  spill The capacity of the bulk lane spill (0 to make the producer wait on a full bulk lane)
+     * @param  telemetry The bulk event types dropped when the bulk lane and the spill are full
+     **/
+    public PriorityEventQueue(BlockingQueue<Event> high, BlockingQueue<Event> bulk, Set<EventType> highPriority, int maxBurst, int spill, Set<EventType> telemetry) {
+
+        if (high == null || bulk == null || highPriority == null || telemetry == null) throw new NullPointerException();
+        if (maxBurst < 1) throw new IllegalArgumentException("Invalid high priority burst: " + maxBurst);
+        if (spill < 0) throw new IllegalArgumentException("Invalid bulk spill capacity: " + spill);
+
+        this.high = high;
+        this.bulk = bulk;
+        this.spill = spill > 0 ? new ArrayBlockingQueue<Event>(spill) : null;
+        this.highPriority = highPriority.isEmpty() ? EnumSet.noneOf(EventType.class) : EnumSet.copyOf(highPriority);
+        this.priority = new boolean[EventType.values().length];
+        this.telemetry = new boolean[EventType.values().length];
+        this.maxBurst = maxBurst;
+
+        for (EventType eventType : this.highPriority)
+            this.priority[eventType.ordinal()] = true;
+
+        for (EventType eventType : telemetry)
+            this.telemetry[eventType.ordinal()] = true;
+
+    }
+
+
+    /**
+     * Put an event in its lane, waiting if the lane is full. When the queue has a spill,
+     * telemetry events are dropped instead, if both the lane and the spill are full.
+     *
+     * @author agent
+     * @param  event The event to be published
+     * @throws InterruptedException If interrupted while waiting for space
+     **/
+    @Override
+    public void put(Event event) throws InterruptedException {
+
+        if (spill == null || priority[event.getType().ordinal()]) {
+            lane(event).put(event);
+        } else if (!offerBulk(event)) {
+            if (telemetry[event.getType().ordinal()]) {
+                dropped.incrementAndGet();
+                return;
+            }
+            spill.put(event);
+        }
+
+        signal();
+
+    }
+
+
+    /**
+     * Put an event in its lane, without blocking.
+     *
+     * @author agent
+     * @param  event The event to be published
+     * @return boolean. This will return false if the lane is full
+     **/
+    @Override
+    public boolean offer(Event event) {
+
+        if (spill == null || priority[event.getType().ordinal()]) {
+            if (!lane(event).offer(event)) return false;
+        } else if (!offerBulk(event)) {
+            return false;
+        }
+
+        signal();
+        return true;
+
+    }
+
+
+    /**
+     * Put an event in its lane, waiting up to the given time if the lane is full.
+     *
+     * @author agent
+     * @param  event The event to be published
+     * @param  timeout How long to wait for space
+     * @param  unit The timeout unit
+     * @throws InterruptedException If interrupted while waiting for space
+     * @return boolean. This will return false if no space has been freed in time
+     **/
+    @Override
+    public boolean offer(Event event, long timeout, TimeUnit unit) throws InterruptedException {
+
+        if (spill == null || priority[event.getType().ordinal()]) {
+            if (!lane(event).offer(event, timeout, unit)) return false;
+        } else if (!offerBulk(event) && !spill.offer(event, timeout, unit)) {
+            return false;
+        }
+
+        signal();
+        return true;
+
+    }
+
+
+    /**
+     * Retrieve and remove the next event, waiting if both lanes are empty.
+     *
+     * @author agent
+     * @throws InterruptedException If interrupted while waiting for an event
+     * @return Event
+     **/
+    @Override
+    public Event take() throws InterruptedException {
+
+        Event event;
+
+        while ((event = poll()) == null) {
+
+            consumer = Thread.currentThread();
+            if (isEmpty()) LockSupport.park(this);
+            consumer = null;
+
+            if (Thread.interrupted()) throw new InterruptedException();
+
+        }
+
+        return event;
+
+    }
+
+
+    /**
+     * Retrieve and remove the next event, waiting up to the given time if both lanes are empty.
+     *
+     * @author agent
+     * @param  timeout How long to wait for an event
+     * @param  unit The timeout unit
+     * @throws InterruptedException If interrupted while waiting for an event
+     * @return Event. This will return null if no event has been published in time
+     **/
+    @Override
+    public Event poll(long timeout, TimeUnit unit) throws InterruptedException {
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        Event event;
+
+        while ((event = poll()) == null) {
+
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return null;
+
+            consumer = Thread.currentThread();
+            if (isEmpty()) LockSupport.parkNanos(this, remaining);
+            consumer = null;
+
+            if (Thread.interrupted()) throw new InterruptedException();
+
+        }
+
+        return event;
+
+    }
+
+
+    /**
+     * Retrieve and remove the next event: high priority events first,
+     * unless a waiting bulk event has been starving for a whole burst.
+     *
+     * @author agent
+     * @return Event. This will return null if both lanes are empty
+     **/
+    @Override
+    public Event poll() {
+
+        Event event;
+
+        if (burst >= maxBurst) {
+            burst = 0;
+            if ((event = pollBulk()) != null) return event;
+        }
+
+        if ((event = high.poll()) != null) {
+            burst++;
+            return event;
+        }
+
+        burst = 0;
+        return pollBulk();
+
+    }
+
+
+    /**
+     * Retrieve, but do not remove, the next high priority event, or the next bulk event.
+     *
+     * @author agent
+     * @return Event. This will return null if both lanes are empty
+     **/
+    @Override
+    public Event peek() {
+
+        Event event = high.peek();
+        if (event == null) event = bulk.peek();
+        if (event == null && spill != null) event = spill.peek();
+
+        return event;
+
+    }
+
+
+    /**
+     * @author agent
+     * @return int
+     **/
+    @Override
+    public int size() {
+        return high.size() + bulk.size() + (spill != null ? spill.size() : 0);
+    }
+
+
+    /**
+     * @author agent
+     * @return boolean
+     **/
+    @Override
+    public boolean isEmpty() {
+        return high.isEmpty() && bulk.isEmpty() && (spill == null || spill.isEmpty());
+    }
+
+
+    /**
+     * Return the remaining capacity of both lanes, and of the spill.
+     *
+     * @author agent
+     * @return int
+     **/
+    @Override
+    public int remainingCapacity() {
+
+        long remaining = (long) high.remainingCapacity() + bulk.remainingCapacity() + (spill != null ? spill.remainingCapacity() : 0);
+        return (int) Math.min(Integer.MAX_VALUE, remaining);
+
+    }
+
+
+    /**
+     * @author agent
+     * @param  c The collection where to transfer the events
+     * @return int
+     **/
+    @Override
+    public int drainTo(Collection<? super Event> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+
+    /**
+     * @author agent
+     * @param  c The collection where to transfer the events
+     * @param  maxElements The maximum number of events to transfer
+     * @return int
+     **/
+    @Override
+    public int drainTo(Collection<? super Event> c, int maxElements) {
+
+        if (c == this) throw new IllegalArgumentException();
+
+        int count = 0;
+        Event event;
+
+        while (count < maxElements && (event = poll()) != null) {
+            c.add(event);
+            count++;
+        }
+
+        return count;
+
+    }
+
+
+    /**
+     * Returns an iterator over a snapshot of the events currently in the
+     * high priority lane followed by the ones in the bulk lane (and spill).
+     * Meant for debugging purposes only.
+     *
+     * @author agent
+     * @return Iterator<Event>
+     **/
+    @Override
+    public Iterator<Event> iterator() {
+
+        List<Event> snapshot = new ArrayList<Event>(high);
+        snapshot.addAll(bulk);
+        if (spill != null) snapshot.addAll(spill);
+
+        return snapshot.iterator();
+
+    }
+
+
+    /**
+     * @author agent
+     * @return BlockingQueue<Event>
+     **/
+    public BlockingQueue<Event> getHigh() {
+        return high;
+    }
+
+
+    /**
+     * @author agent
+     * @return BlockingQueue<Event>
+     **/
+    public BlockingQueue<Event> getBulk() {
+        return bulk;
+    }
+
+
+    /**
+     * Return the event types put in the high priority lane.
+     *
+     * @author agent
+     * @return Set<EventType>
+     **/
+    public Set<EventType> getHighPriority() {
+        return EnumSet.copyOf(highPriority);
+    }
+
+
+    /**
+     * @author agent
+     * @return int
+     **/
+    public int getMaxBurst() {
+        return maxBurst;
+    }
+
+
+    /**
+     * Return the number of bulk events dropped because both the bulk lane and the spill were full.
+     *
+     * @author agent
+     * @return long
+     **/
+    public long getDropped() {
+        return dropped.get();
+    }
+
+
+    /**
+     * Return the lane of the given event.
+     *
+     * @author agent
+     * @param  event The event
+     * @return BlockingQueue<Event>
+     **/
+    private BlockingQueue<Event> lane(Event event) {
+        return priority[event.getType().ordinal()] ? high : bulk;
+    }
+
+
+    /**
+     * Put a bulk event in the bulk lane, or in the spill if the bulk lane is full
+     * or events have been spilled already (so that bulk events keep their order).
+     *
+     * @author agent
+     * @param  event The bulk event
+     * @return boolean. This will return false if both the bulk lane and the spill are full
+     **/
+    private boolean offerBulk(Event event) {
+
+        if (spill.isEmpty() && bulk.offer(event))
+            return true;
+
+        return spill.offer(event);
+
+    }
+
+
+    /**
+     * Retrieve and remove the next bulk event: the ones in the
+     * bulk lane have been published before the spilled ones.
+     *
+     * @author agent
+     * @return Event. This will return null if the bulk lane and the spill are empty
+     **/
+    private Event pollBulk() {
+
+        Event event = bulk.poll();
+        if (event == null && spill != null) event = spill.poll();
+
+        return event;
+
+    }
+
+
+    /**
+     * Wake up the consumer, if it is waiting for an event.
+     *
+     * @author agent
+     **/
+    private void signal() {
+
+        Thread waiting = consumer;
+        if (waiting != null) LockSupport.unpark(waiting);
+
+    }
+
+}
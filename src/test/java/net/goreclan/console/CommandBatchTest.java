@@ -0,0 +1,100 @@
+/**
+ * CommandBatch unit tests: only idempotent commands are deduplicated.
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.console
+ **/
+
+package net.goreclan.console;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.logging.impl.NoOpLog;
+
+public class CommandBatchTest extends TestCase {
+
+    private final CommandBatch batch = new CommandBatch();
+
+
+    public void testForceteamLastTeamWins() {
+
+        assertTrue(this.batch.add("forceteam 1 red"));
+        assertTrue(this.batch.add("forceteam 2 red"));
+        assertTrue(this.batch.add("forceteam 1 blue"));
+        assertFalse(this.batch.add("forceteam 1 blue"));
+
+        assertEquals(Arrays.asList("forceteam 2 red", "forceteam 1 blue"), this.batch.drain());
+
+    }
+
+
+    public void testSetLastValueWins() {
+
+        assertTrue(this.batch.add("set g_gear \"0\""));
+        assertTrue(this.batch.add("set g_gravity \"800\""));
+        assertTrue(this.batch.add("set g_gear \"63\""));
+
+        assertEquals(Arrays.asList("set g_gravity \"800\"", "set g_gear \"63\""), this.batch.drain());
+
+    }
+
+
+    public void testIdenticalIdempotentCommandsDropped() {
+
+        assertTrue(this.batch.add("addip 10.0.0.1"));
+        assertTrue(this.batch.add("kick 3 spamming"));
+        assertFalse(this.batch.add("addip 10.0.0.1"));
+        assertFalse(this.batch.add("kick 3 spamming"));
+        assertTrue(this.batch.add("kick 3"));
+        assertTrue(this.batch.add("removeip 10.0.0.1"));
+        assertFalse(this.batch.add("removeip 10.0.0.1"));
+
+        assertEquals(Arrays.asList("addip 10.0.0.1", "kick 3 spamming", "kick 3", "removeip 10.0.0.1"), this.batch.drain());
+
+    }
+
+
+    public void testRepeatableCommandsKept() {
+
+        String[] commands = { "slap 2", "slap 2", "say \"hi\"", "say \"hi\"", "tell 1 hello", "tell 1 hello",
+                              "bigtext \"go\"", "bigtext \"go\"", "mute 4", "mute 4", "nuke 5", "nuke 5", "smite 5", "smite 5" };
+
+        for (String command : commands)
+            assertTrue(this.batch.add(command));
+
+        assertEquals(commands.length, this.batch.size());
+        assertEquals(Arrays.asList(commands), this.batch.drain());
+        assertEquals(0, this.batch.size());
+
+    }
+
+
+    public void testRecordingConsoleBatch() throws IOException {
+
+        RecordingConsole console = new RecordingConsole(true, new NoOpLog());
+        console.setCvar("g_gear", "0");
+
+        ConsoleBatch batch = console.batch();
+        batch.slap(1);
+        batch.slap(1);
+        batch.setCvar("g_gear", "63");
+
+        // Queries go to the console straight away, and see what it has been sent so far.
+        assertEquals("0", batch.getCvar("g_gear"));
+        batch.write("status");
+        assertEquals(Arrays.asList("set g_gear \"0\"", "status"), console.getCommands());
+        assertEquals(3, batch.size());
+
+        batch.send();
+        assertEquals(Arrays.asList("set g_gear \"0\"", "status", "slap 1", "slap 1", "set g_gear \"63\""), console.getCommands());
+        assertEquals("63", console.getCvar("g_gear"));
+        assertEquals(0, batch.size());
+
+    }
+
+}
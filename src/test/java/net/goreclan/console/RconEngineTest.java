@@ -0,0 +1,194 @@
+/**
+ * RconEngine unit tests: multi-packet response reassembly, against a fake UDP server.
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.console
+ **/
+
+package net.goreclan.console;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.logging.impl.NoOpLog;
+
+public class RconEngineTest extends TestCase {
+
+    static final String PASSWORD = "secret";
+    private static final String REQUEST_HEADER = "\u00ff\u00ff\u00ff\u00ffrcon " + PASSWORD + " ";
+    private static final String RESPONSE_HEADER = "\u00ff\u00ff\u00ff\u00ffprint\n";
+
+    private FakeServer server;
+    private RconEngine engine;
+
+
+    protected void setUp() throws IOException {
+        this.server = new FakeServer();
+        this.server.start();
+        this.engine = new RconEngine(this.server.getAddress(), PASSWORD, new NoOpLog()).start();
+    }
+
+
+    protected void tearDown() {
+        this.engine.close();
+        this.server.socket.close();
+    }
+
+
+    public void testSinglePacket() throws Exception {
+        this.server.reply("echo", "hello\n");
+        assertEquals("hello\n", this.engine.submit("echo", 2, TimeUnit.SECONDS).get());
+        assertEquals("echo", this.server.received);
+    }
+
+
+    public void testFragmentsAreReassembled() throws Exception {
+        this.server.reply("status", "map: ut4_turnpike\n", "num score ping name\n", "  0     5   48 Fenix\n");
+        assertEquals("map: ut4_turnpike\nnum score ping name\n  0     5   48 Fenix\n", this.engine.submit("status", 2, TimeUnit.SECONDS).get());
+    }
+
+
+    public void testResponseBufferGrows() throws Exception {
+
+        // Three fragments of 8K: more than the initial response buffer.
+        String[] fragments = new String[3];
+        StringBuilder expected = new StringBuilder();
+
+        for (int i = 0; i < fragments.length; i++) {
+            char[] chars = new char[8000];
+            Arrays.fill(chars, (char) ('a' + i));
+            fragments[i] = new String(chars);
+            expected.append(fragments[i]);
+        }
+
+        this.server.reply("fdir *.bsp", fragments);
+        assertEquals(expected.toString(), this.engine.submit("fdir *.bsp", 2, TimeUnit.SECONDS).get());
+
+    }
+
+
+    public void testConcurrentRequests() throws Exception {
+
+        this.server.reply("players", "Fenix\n", "Bob\n");
+        this.server.reply("mapname", "\"mapname\" is:\"ut4_casa^7\"\n");
+
+        Future<String> players = this.engine.submit("players", 2, TimeUnit.SECONDS);
+        Future<String> mapname = this.engine.submit("mapname", 2, TimeUnit.SECONDS);
+
+        // Every request has its own channel: responses can't get mixed up.
+        assertEquals("\"mapname\" is:\"ut4_casa^7\"\n", mapname.get());
+        assertEquals("Fenix\nBob\n", players.get());
+
+    }
+
+
+    public void testTimeout() throws Exception {
+
+        Future<String> future = this.engine.submit("ignored", 100, TimeUnit.MILLISECONDS);
+
+        try {
+            future.get(2, TimeUnit.SECONDS);
+            fail("expecting ExecutionException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof SocketTimeoutException);
+        }
+
+    }
+
+
+    /**
+     * UDP server answering RCON commands with the configured fragments,
+     * recording every command received (also used by RconSchedulerTest).
+     **/
+    static class FakeServer extends Thread {
+
+        final DatagramSocket socket;
+        final BlockingQueue<String> commands = new LinkedBlockingQueue<String>();
+        private final Map<String, String[]> replies = new ConcurrentHashMap<String, String[]>();
+        private final Map<String, AtomicInteger> ignored = new ConcurrentHashMap<String, AtomicInteger>();
+        private volatile String received;
+
+
+        FakeServer() throws SocketException {
+            super("FakeRconServer");
+            this.socket = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+            this.setDaemon(true);
+        }
+
+
+        InetSocketAddress getAddress() {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), this.socket.getLocalPort());
+        }
+
+
+        void reply(String command, String... fragments) {
+            this.replies.put(command, fragments);
+        }
+
+
+        // Leave the next requests of the given command unanswered, as if the packets were lost.
+        void ignore(String command, int times) {
+            this.ignored.put(command, new AtomicInteger(times));
+        }
+
+
+        @Override
+        public void run() {
+
+            byte[] data = new byte[65536];
+
+            try {
+
+                while (true) {
+
+                    DatagramPacket packet = new DatagramPacket(data, data.length);
+                    this.socket.receive(packet);
+
+                    String request = new String(packet.getData(), 0, packet.getLength(), StandardCharsets.ISO_8859_1);
+                    if (!request.startsWith(REQUEST_HEADER)) continue;
+
+                    String command = request.substring(REQUEST_HEADER.length());
+                    this.received = command;
+                    this.commands.add(command);
+
+                    AtomicInteger ignored = this.ignored.get(command);
+                    if (ignored != null && ignored.getAndDecrement() > 0) continue;
+
+                    String[] fragments = this.replies.get(command);
+                    if (fragments == null) continue;
+
+                    for (String fragment : fragments) {
+                        byte[] bytes = (RESPONSE_HEADER + fragment).getBytes(StandardCharsets.ISO_8859_1);
+                        this.socket.send(new DatagramPacket(bytes, bytes.length, packet.getSocketAddress()));
+                    }
+
+                }
+
+            } catch (IOException e) {
+                // Socket closed: the test is over.
+            }
+
+        }
+
+    }
+
+}
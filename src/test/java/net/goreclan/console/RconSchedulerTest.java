@@ -0,0 +1,230 @@
+/**
+ * RconScheduler unit tests: token bucket pacing, priority order, eviction when the
+ * queue is full, and retries of unanswered commands (AIMD), against the fake UDP
+ * server of RconEngineTest.
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.console
+ **/
+
+package net.goreclan.console;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.logging.impl.NoOpLog;
+
+public class RconSchedulerTest extends TestCase {
+
+    private RconEngineTest.FakeServer server;
+    private RconEngine engine;
+    private RconScheduler scheduler;
+
+
+    protected void setUp() throws IOException {
+        this.server = new RconEngineTest.FakeServer();
+        this.server.start();
+        this.engine = new RconEngine(this.server.getAddress(), RconEngineTest.PASSWORD, new NoOpLog()).start();
+    }
+
+
+    protected void tearDown() {
+        if (this.scheduler != null) this.scheduler.close();
+        this.engine.close();
+        this.server.socket.close();
+    }
+
+
+    private RconScheduler scheduler(double rate, int burst, int retries, int capacity) {
+        return new RconScheduler(this.engine, rate, burst, retries, capacity, new NoOpLog());
+    }
+
+
+    private String received() throws InterruptedException {
+        String command = this.server.commands.poll(5, TimeUnit.SECONDS);
+        assertNotNull("expecting a command", command);
+        return command;
+    }
+
+
+    private static Throwable failure(Future<String> future) throws InterruptedException {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("expecting ExecutionException");
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        } catch (TimeoutException e) {
+            fail("expecting the command to fail");
+            return null;
+        }
+    }
+
+
+    public void testBurstThenRate() throws Exception {
+
+        this.scheduler = scheduler(10, 2, 0, 16).start();
+        long start = System.nanoTime();
+
+        for (int i = 0; i < 6; i++)
+            this.scheduler.send("say " + i);
+
+        // The burst is sent straight away...
+        this.received();
+        this.received();
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(200));
+
+        // ...then one command every 100ms.
+        for (int i = 2; i < 6; i++)
+            assertEquals("say " + i, this.received());
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(350));
+        assertEquals(6, this.scheduler.getSent());
+
+    }
+
+
+    public void testHigherPriorityFirst() throws Exception {
+
+        // A single token: everything but the first command waits for the next one.
+        this.scheduler = scheduler(2, 1, 0, 16).start();
+
+        this.scheduler.send("say first");
+        assertEquals("say first", this.received());
+
+        this.scheduler.send("say hello");
+        this.scheduler.send("map ut4_casa");
+        this.scheduler.send("kick 1 spam");
+        this.scheduler.send("say bye");
+
+        assertEquals("kick 1 spam", this.received());
+        assertEquals("map ut4_casa", this.received());
+        assertEquals("say hello", this.received());
+        assertEquals("say bye", this.received());
+
+    }
+
+
+    public void testLowerPriorityEvictedWhenFull() throws Exception {
+
+        // Not started: commands stay queued.
+        this.scheduler = scheduler(10, 1, 0, 2);
+
+        Future<String> hello = this.scheduler.send("say hello");
+        Future<String> bye = this.scheduler.send("say bye");
+        assertEquals(0, this.scheduler.getDropped());
+
+        // The newest command of a lower priority makes room for the kick.
+        Future<String> kick = this.scheduler.send("kick 1 spam");
+        assertTrue(failure(bye) instanceof IOException);
+        assertFalse(hello.isDone());
+        assertFalse(kick.isDone());
+        assertEquals(1, this.scheduler.getQueueDepth(RconScheduler.Priority.HIGH));
+        assertEquals(1, this.scheduler.getQueueDepth(RconScheduler.Priority.LOW));
+
+        // Nothing of a lower priority left to drop: the new command is dropped.
+        assertTrue(failure(this.scheduler.send("say again")) instanceof IOException);
+        assertEquals(2, this.scheduler.getQueueDepth());
+
+        assertEquals(4, this.scheduler.getSubmitted());
+        assertEquals(2, this.scheduler.getDropped());
+        assertEquals(0.5, this.scheduler.getDropRate());
+
+    }
+
+
+    public void testUnansweredCommandIsRetried() throws Exception {
+
+        this.server.reply("status", "map: ut4_turnpike\n");
+        this.server.reply("mapname", "\"mapname\" is:\"ut4_turnpike^7\"\n");
+        this.server.ignore("status", 1);
+
+        this.scheduler = scheduler(4, 10, 1, 16).start();
+        this.scheduler.setTimeout(200, TimeUnit.MILLISECONDS);
+
+        assertEquals("map: ut4_turnpike\n", this.scheduler.submit("status").get(5, TimeUnit.SECONDS));
+        assertEquals(1, this.scheduler.getRetried());
+        assertEquals(2, this.scheduler.getSent());
+        assertEquals(0.0, this.scheduler.getDropRate());
+
+        // Halved on the timeout, then raised by 1/rate by the response.
+        assertEquals(2.5, this.scheduler.getRate());
+
+        // Every response raises the rate again, up to the configured one.
+        for (int i = 0; i < 10; i++)
+            this.scheduler.submit("mapname").get(5, TimeUnit.SECONDS);
+
+        assertEquals(4.0, this.scheduler.getRate());
+
+    }
+
+
+    public void testUnansweredAfterAllRetries() throws Exception {
+
+        this.scheduler = scheduler(4, 10, 1, 16).start();
+        this.scheduler.setTimeout(100, TimeUnit.MILLISECONDS);
+
+        assertTrue(failure(this.scheduler.submit("status")) instanceof SocketTimeoutException);
+        assertEquals("status", this.received());
+        assertEquals("status", this.received());
+
+        // Only the retry halves the rate: there is no other attempt after the last one.
+        assertEquals(2, this.scheduler.getSent());
+        assertEquals(1, this.scheduler.getRetried());
+        assertEquals(2.0, this.scheduler.getRate());
+        assertEquals(1.0, this.scheduler.getDropRate());
+
+    }
+
+
+    public void testRetryCountsAgainstCapacity() throws Exception {
+
+        this.server.reply("status", "map: ut4_turnpike\n");
+        this.server.ignore("status", 1);
+
+        // A single token and a single slot: the say fills the queue while the status is unanswered.
+        this.scheduler = scheduler(1, 1, 1, 1).start();
+        this.scheduler.setTimeout(200, TimeUnit.MILLISECONDS);
+
+        Future<String> status = this.scheduler.submit("status");
+        assertEquals("status", this.received());
+        Future<String> say = this.scheduler.send("say hello");
+
+        // The retry takes the place of the say, which has a lower priority.
+        assertTrue(failure(say) instanceof IOException);
+        assertEquals("map: ut4_turnpike\n", status.get(5, TimeUnit.SECONDS));
+        assertEquals(1, this.scheduler.getRetried());
+        assertEquals(1, this.scheduler.getDropped());
+
+    }
+
+
+    public void testRetryGivenUpWhenFull() throws Exception {
+
+        this.server.ignore("status", 1);
+
+        this.scheduler = scheduler(1, 1, 1, 1).start();
+        this.scheduler.setTimeout(200, TimeUnit.MILLISECONDS);
+
+        Future<String> status = this.scheduler.submit("status");
+        assertEquals("status", this.received());
+        Future<String> kick = this.scheduler.send("kick 1 spam");
+
+        // No room for the retry: the kick is not dropped for it.
+        assertTrue(failure(status) instanceof SocketTimeoutException);
+        assertNull(kick.get(5, TimeUnit.SECONDS));
+        assertEquals("kick 1 spam", this.received());
+        assertEquals(0, this.scheduler.getRetried());
+        assertEquals(1, this.scheduler.getDropped());
+
+    }
+
+}
@@ -0,0 +1,88 @@
+/**
+ * Unit tests for the code lookup tables of Mod, Hitlocation, Team and Gametype.
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.iourt42
+ **/
+
+package net.goreclan.iourt42;
+
+import junit.framework.TestCase;
+
+public class CodeLookupTest extends TestCase {
+
+    public void testModByKillMode() {
+        for (Mod mod : Mod.values()) {
+            assertSame(mod, Mod.findByKillMode(mod.getKillMode()));
+            assertSame(mod, Mod.getByKillMode(mod.getKillMode()));
+        }
+        assertNull(Mod.findByKillMode(0));
+        assertNull(Mod.findByKillMode(-1));
+        assertNull(Mod.findByKillMode(Integer.MAX_VALUE));
+    }
+
+
+    public void testModByHitMode() {
+        for (Mod mod : Mod.values()) {
+            if (mod.getHitMode() == null) continue;
+            assertSame(mod, Mod.findByHitMode(mod.getHitMode()));
+            assertSame(mod, Mod.getByHitMode(mod.getHitMode()));
+        }
+        assertNull(Mod.findByHitMode(0));
+        assertNull(Mod.findByHitMode(-1));
+        assertNull(Mod.findByHitMode(1000));
+    }
+
+
+    public void testHitlocationByCode() {
+        for (Hitlocation location : Hitlocation.values())
+            assertSame(location, Hitlocation.findByCode(location.getCode()));
+        assertNull(Hitlocation.findByCode(2));
+        assertNull(Hitlocation.findByCode(-1));
+        assertNull(Hitlocation.findByCode(10));
+    }
+
+
+    public void testTeamByCode() {
+        for (Team team : Team.values())
+            assertSame(team, Team.findByCode(team.getCode()));
+        assertSame(Team.TEAM_FREE, Team.findByCode(-1));
+        assertNull(Team.findByCode(0));
+        assertNull(Team.findByCode(-2));
+        assertNull(Team.findByCode(4));
+    }
+
+
+    public void testGametypeByCode() {
+        for (Gametype gametype : Gametype.values())
+            assertSame(gametype, Gametype.findByCode(gametype.getCode()));
+        assertNull(Gametype.findByCode(2));
+        assertNull(Gametype.findByCode(-1));
+        assertNull(Gametype.findByCode(9));
+    }
+
+
+    public void testGetByCodeMiss() {
+        try {
+            Hitlocation.getByCode(2);
+            fail("expecting IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+        try {
+            Mod.getByKillMode(null);
+            fail("expecting IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+        try {
+            Team.getByCode(0);
+            fail("expecting IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+}
@@ -0,0 +1,165 @@
+/**
+ * HitAggregator unit tests: per attacker, victim and location counters, and the
+ * EventGameHitSummary emitted by the Parser on round end, map end and interval.
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.parser
+ **/
+
+package net.goreclan.parser;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.logging.impl.NoOpLog;
+import org.apache.log4j.Logger;
+
+import net.goreclan.domain.Client;
+import net.goreclan.event.Event;
+import net.goreclan.event.EventClientHit;
+import net.goreclan.event.EventGameHitSummary;
+import net.goreclan.event.EventType;
+import net.goreclan.iourt42.Hitlocation;
+import net.goreclan.utility.EventHandler;
+import net.goreclan.utility.EventProcessor;
+
+public class HitAggregatorTest extends TestCase {
+
+    private Parser parser;
+    private EventProcessor processor;
+    private BlockingQueue<Event> queue;
+
+
+    protected void setUp() throws InterruptedException {
+
+        this.queue = new LinkedBlockingQueue<Event>();
+        this.processor = new EventProcessor(new LinkedBlockingQueue<Event>(), new NoOpLog());
+        this.parser = new Parser(Logger.getLogger(HitAggregatorTest.class));
+        this.parser.setHitAggregator(new HitAggregator(30, TimeUnit.SECONDS, this.processor));
+
+        parse("  0:00 ClientConnect: 0");
+        parse("  0:00 ClientUserinfo: 0 \\ip\\10.0.0.1:27960\\name\\Fenix");
+        parse("  0:00 ClientConnect: 1");
+        parse("  0:00 ClientUserinfo: 1 \\ip\\10.0.0.2:27960\\name\\Bob");
+        this.queue.clear();
+
+    }
+
+
+    private void parse(String line) throws InterruptedException {
+        this.parser.parseLine(line, this.queue);
+    }
+
+
+    private EventGameHitSummary summary() {
+        Event event = this.queue.poll();
+        assertNotNull(event);
+        assertEquals(EventType.EVT_GAME_HIT_SUMMARY, event.getType());
+        return (EventGameHitSummary) event;
+    }
+
+
+    public void testCountersPerAttackerVictimAndLocation() throws InterruptedException {
+
+        parse("  0:01 Hit: 1 0 5 19: Fenix hit Bob in the Torso");
+        parse("  0:02 Hit: 1 0 1 19: Fenix hit Bob in the Head");
+        parse("  0:03 Hit: 1 0 5 19: Fenix hit Bob in the Torso");
+        parse("  0:04 Hit: 0 1 9 19: Bob hit Fenix in the Legs");
+        parse("  0:05 Hit: 1 0 5 19: Fenix hit Bob in the Torso");
+
+        // Nobody subscribed to raw hits: only counters so far.
+        assertTrue(this.queue.isEmpty());
+
+        parse("  0:06 InitRound: \\sv_maxclients\\16");
+
+        EventGameHitSummary summary = this.summary();
+        Client fenix = this.parser.getClient(0);
+        Client bob = this.parser.getClient(1);
+
+        // One entry per attacker, victim and location, in the order they were first hit.
+        assertEquals(3, summary.size());
+        assertEquals(1, summary.getStart());
+
+        assertSame(fenix, summary.getClient(0));
+        assertSame(bob, summary.getTarget(0));
+        assertEquals(Hitlocation.TORSO, summary.getLocation(0));
+        assertEquals(3, summary.getHits(0));
+
+        assertEquals(Hitlocation.HEAD, summary.getLocation(1));
+        assertEquals(1, summary.getHits(1));
+
+        assertSame(bob, summary.getClient(2));
+        assertSame(fenix, summary.getTarget(2));
+        assertEquals(Hitlocation.LEGS, summary.getLocation(2));
+        assertEquals(1, summary.getHits(2));
+
+        assertEquals(4, summary.getHits(fenix, bob));
+        assertEquals(1, summary.getHits(bob, fenix));
+
+        // The summary comes before the round start, and the counters have been reset.
+        assertEquals(EventType.EVT_GAME_ROUND_START, this.queue.poll().getType());
+        parse("  0:07 InitRound: \\sv_maxclients\\16");
+        assertEquals(EventType.EVT_GAME_ROUND_START, this.queue.poll().getType());
+        assertTrue(this.queue.isEmpty());
+
+    }
+
+
+    public void testFlushOnMapEnd() throws InterruptedException {
+
+        parse("  0:01 Hit: 1 0 5 19: Fenix hit Bob in the Torso");
+        parse("  0:02 Exit: Timelimit hit.");
+
+        assertEquals(1, this.summary().getHits(this.parser.getClient(0), this.parser.getClient(1)));
+        assertEquals(EventType.EVT_GAME_EXIT, this.queue.poll().getType());
+        assertTrue(this.queue.isEmpty());
+
+    }
+
+
+    public void testFlushOnInterval() throws InterruptedException {
+
+        parse("  1:00 Hit: 1 0 5 19: Fenix hit Bob in the Torso");
+        parse("  1:29 Hit: 1 0 5 19: Fenix hit Bob in the Torso");
+        assertTrue(this.queue.isEmpty());
+
+        // 30 seconds of game time after the first pending hit.
+        parse("  1:30 Hit: 0 1 5 19: Bob hit Fenix in the Torso");
+
+        EventGameHitSummary summary = this.summary();
+        assertEquals(60, summary.getStart());
+        assertEquals(1, summary.size());
+        assertEquals(2, summary.getHits(0));
+        assertTrue(this.queue.isEmpty());
+
+        // The hit of the line which triggered the summary is counted in the next one.
+        parse("  1:31 InitRound: \\sv_maxclients\\16");
+        summary = this.summary();
+        assertEquals(90, summary.getStart());
+        assertEquals(1, summary.getHits(this.parser.getClient(1), this.parser.getClient(0)));
+
+    }
+
+
+    public void testRawHitsWhileSubscribed() throws InterruptedException {
+
+        this.processor.registerEvent(EventType.EVT_CLIENT_HIT, new EventHandler() {
+            public void onEvent(Event event) {
+                // nothing to do
+            }
+        });
+
+        parse("  0:01 Hit: 1 0 5 19: Fenix hit Bob in the Torso");
+        assertTrue(this.queue.poll() instanceof EventClientHit);
+
+        parse("  0:02 Exit: Timelimit hit.");
+        assertEquals(1, this.summary().getHits(0));
+
+    }
+
+}
@@ -0,0 +1,111 @@
+/**
+ * InfoStringParser unit tests.
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.parser
+ **/
+
+package net.goreclan.parser;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+public class InfoStringParserTest extends TestCase {
+
+	private static final String USERINFO = "\\ip\\110.143.73.144:27960\\challenge\\1052098110\\qport\\51418\\protocol\\68\\name\\[FS]Fenix\\racered\\2\\cl_guid\\4B3C0E9BE2F5A7D1\\gear\\GZAACWA\\foo\\bar";
+
+	private final Map<String, String> userinfo = new HashMap<String, String>();
+
+
+	public void testParseAll() {
+
+		InfoStringParser.parse(USERINFO, 0, USERINFO.length(), null, this.userinfo);
+
+		assertEquals(9, this.userinfo.size());
+		assertEquals("110.143.73.144:27960", this.userinfo.get("ip"));
+		assertEquals("[FS]Fenix", this.userinfo.get("name"));
+		assertEquals("4B3C0E9BE2F5A7D1", this.userinfo.get("cl_guid"));
+		assertEquals("GZAACWA", this.userinfo.get("gear"));
+		assertEquals("bar", this.userinfo.get("foo"));
+
+	}
+
+
+	public void testParseKeys() {
+
+		Set<String> keys = new HashSet<String>(Arrays.asList("name", "ip", "authl"));
+		InfoStringParser.parse(USERINFO, 0, USERINFO.length(), keys, this.userinfo);
+
+		assertEquals(2, this.userinfo.size());
+		assertEquals("110.143.73.144:27960", this.userinfo.get("ip"));
+		assertEquals("[FS]Fenix", this.userinfo.get("name"));
+
+	}
+
+
+	public void testParseSection() {
+
+		String line = "  0:00 ClientUserinfoChanged: 3 n\\Bob\\t\\2\\r\\1\\tl\\0";
+		int start = line.indexOf("n\\");
+		InfoStringParser.parse(line, start, line.length(), null, this.userinfo);
+
+		assertEquals(4, this.userinfo.size());
+		assertEquals("Bob", this.userinfo.get("n"));
+		assertEquals("2", this.userinfo.get("t"));
+		assertEquals("0", this.userinfo.get("tl"));
+
+		this.userinfo.clear();
+		InfoStringParser.parse(line, start, line.indexOf("\\r"), null, this.userinfo);
+		assertEquals(2, this.userinfo.size());
+		assertEquals("2", this.userinfo.get("t"));
+
+	}
+
+
+	public void testParseMalformed() {
+
+		InfoStringParser.parse("\\name\\Fenix\\ip", 0, 14, null, this.userinfo);
+		assertEquals(1, this.userinfo.size());
+		assertEquals("Fenix", this.userinfo.get("name"));
+
+		this.userinfo.clear();
+		InfoStringParser.parse("\\name\\\\ip\\1.2.3.4", 0, 17, null, this.userinfo);
+		assertEquals("", this.userinfo.get("name"));
+		assertEquals("1.2.3.4", this.userinfo.get("ip"));
+
+		this.userinfo.clear();
+		InfoStringParser.parse("", 0, 0, null, this.userinfo);
+		assertTrue(this.userinfo.isEmpty());
+
+	}
+
+
+	public void testIntern() {
+
+		String line = "xx\\cl_guid\\yy";
+		String key = InfoStringParser.intern(line, 3, 10);
+
+		assertEquals("cl_guid", key);
+		assertSame(InfoStringParser.intern("cl_guid", 0, 7), key);
+		assertNull(InfoStringParser.intern(line, 0, 2));
+		assertNull(InfoStringParser.intern(line, 3, 9));
+
+	}
+
+
+	public void testInternedKeysInMap() {
+		InfoStringParser.parse(new StringBuilder(USERINFO), 0, USERINFO.length(), null, this.userinfo);
+		for (String key : this.userinfo.keySet()) {
+			if (!key.equals("foo"))
+				assertSame(key, InfoStringParser.intern(key, 0, key.length()));
+		}
+	}
+
+}
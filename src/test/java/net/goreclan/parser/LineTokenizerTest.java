@@ -0,0 +1,98 @@
+/**
+ * LineTokenizer unit tests.
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.parser
+ **/
+
+package net.goreclan.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import junit.framework.TestCase;
+
+public class LineTokenizerTest extends TestCase {
+
+	private final LineTokenizer tokenizer = new LineTokenizer();
+
+
+	public void testNextInt() {
+		this.tokenizer.reset("Hit: 12 0   5 19: Fenix hit Bob", 4);
+		assertEquals(12, this.tokenizer.nextInt());
+		assertEquals(0, this.tokenizer.nextInt());
+		assertEquals(5, this.tokenizer.nextInt());
+		assertEquals(19, this.tokenizer.nextInt());
+		assertTrue(this.tokenizer.skip(':'));
+		assertEquals(17, this.tokenizer.position());
+	}
+
+
+	public void testNextIntWithoutNumber() {
+		this.tokenizer.reset("Kill: 1 x", 5);
+		assertEquals(1, this.tokenizer.nextInt());
+		try {
+			this.tokenizer.nextInt();
+			fail("expecting NumberFormatException");
+		} catch (NumberFormatException e) {
+			assertEquals(8, this.tokenizer.position());
+		}
+	}
+
+
+	public void testNextIntAtEnd() {
+		this.tokenizer.reset("Kill: 1 ", 5);
+		assertEquals(1, this.tokenizer.nextInt());
+		try {
+			this.tokenizer.nextInt();
+			fail("expecting NumberFormatException");
+		} catch (NumberFormatException e) {
+			// expected
+		}
+	}
+
+
+	public void testSkip() {
+		this.tokenizer.reset("a:", 0);
+		assertFalse(this.tokenizer.skip(':'));
+		assertEquals(0, this.tokenizer.position());
+		assertTrue(this.tokenizer.skip('a'));
+		assertTrue(this.tokenizer.skip(':'));
+		assertFalse(this.tokenizer.skip(':'));
+	}
+
+
+	public void testByteBuffer() {
+
+		ByteBuffer buffer = ByteBuffer.wrap("xx 7 42 99\nKill: 3".getBytes(StandardCharsets.US_ASCII));
+		buffer.position(5);
+
+		this.tokenizer.reset(buffer, 2, 10);
+		assertEquals(7, this.tokenizer.nextInt());
+		assertEquals(42, this.tokenizer.nextInt());
+		assertEquals(99, this.tokenizer.nextInt());
+
+		// The limit is honoured and the buffer state is left untouched.
+		try {
+			this.tokenizer.nextInt();
+			fail("expecting NumberFormatException");
+		} catch (NumberFormatException e) {
+			assertEquals(10, this.tokenizer.position());
+		}
+
+		assertEquals(5, buffer.position());
+
+	}
+
+
+	public void testByteBufferHighBytes() {
+		ByteBuffer buffer = ByteBuffer.wrap(new byte[] { (byte) 0xb9, '1' });
+		this.tokenizer.reset(buffer, 0, 2);
+		assertFalse(this.tokenizer.skip('9'));
+		assertTrue(this.tokenizer.skip('\u00b9'));
+		assertEquals(1, this.tokenizer.nextInt());
+	}
+
+}
@@ -0,0 +1,178 @@
+/**
+ * Parser unit tests: action keyword classification and line decoding.
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.parser
+ **/
+
+package net.goreclan.parser;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import junit.framework.TestCase;
+
+import org.apache.log4j.Logger;
+
+import net.goreclan.event.Event;
+import net.goreclan.event.EventClientHit;
+import net.goreclan.event.EventClientKill;
+import net.goreclan.event.EventClientSay;
+import net.goreclan.event.EventClientSuicide;
+import net.goreclan.event.EventType;
+import net.goreclan.iourt42.Hitlocation;
+import net.goreclan.iourt42.Mod;
+
+public class ParserTest extends TestCase {
+
+    private final LineTokenizer tokenizer = new LineTokenizer();
+    private final int[] fields = new int[Parser.FIELDS];
+
+    private Parser parser;
+    private BlockingQueue<Event> queue;
+
+
+    protected void setUp() {
+        this.parser = new Parser(Logger.getLogger(ParserTest.class));
+        this.queue = new LinkedBlockingQueue<Event>();
+    }
+
+
+    private String decode(String line) {
+        return Parser.decode(line, this.tokenizer, this.fields, 0);
+    }
+
+
+    private void parse(String line) throws InterruptedException {
+        this.parser.parseLine(line, this.queue);
+    }
+
+
+    public void testDecodeKeywords() {
+        assertEquals("ClientConnect", decode("  0:00 ClientConnect: 0"));
+        assertEquals("ClientUserinfo", decode("  0:00 ClientUserinfo: 0 \\name\\Fenix"));
+        assertEquals("ClientUserinfoChanged", decode("  0:00 ClientUserinfoChanged: 0 n\\Fenix\\t\\1"));
+        assertEquals("ClientBegin", decode("  0:00 ClientBegin: 0"));
+        assertEquals("ClientDisconnect", decode("  0:00 ClientDisconnect: 0"));
+        assertEquals("ClientCallvote", decode("  0:00 Callvote: 0 - \"map ut4_turnpike\""));
+        assertEquals("ClientSay", decode("  0:00 say: 0 Fenix: hello"));
+        assertEquals("ClientSayTeam", decode("  0:00 sayteam: 0 Fenix: hello"));
+        assertEquals("ClientSayPrivate", decode("  0:00 saytell: 0 1 Fenix: hello"));
+        assertEquals("SurvivorWinner", decode("  0:00 SurvivorWinner: Red"));
+        assertEquals("BombHolder", decode("  0:00 Bombholder is 3"));
+        assertEquals("GameWarmup", decode("  0:00 Warmup:"));
+        assertEquals("GameRoundStart", decode("  0:00 InitRound: \\sv_maxclients\\16"));
+        assertEquals("GameExit", decode("  0:00 Exit: Timelimit hit."));
+    }
+
+
+    public void testDecodeIgnoresCase() {
+        assertEquals("ClientConnect", decode("  0:00 clientconnect: 0"));
+        assertEquals("ClientSay", decode("  0:00 SAY: 0 Fenix: hello"));
+        assertEquals("SurvivorWinner", decode("  0:00 survivorWinner: Blue"));
+        assertEquals("ClientHit", decode("  0:00 HIT: 1 0 1 5: Fenix hit Bob in the Head"));
+    }
+
+
+    public void testDecodeUnknownLines() {
+        assertNull(decode("  0:00 ------------------------------------------------------------"));
+        assertNull(decode("  0:00 ShutdownGame:"));
+        assertNull(decode("  0:00 Sayteam2: 0 Fenix: hello"));
+        assertNull(decode("  0:00 Hi: 1 0 1 5: nothing"));
+        assertNull(decode("no game time here"));
+        assertNull(decode("  0: say: 0 Fenix: hello"));
+        assertNull(decode(""));
+    }
+
+
+    public void testDecodeGameTime() {
+        assertEquals("ClientBegin", decode("  12:34 ClientBegin: 0"));
+        assertEquals(12 * 60 + 34, this.fields[Parser.FIELD_GAMETIME]);
+        assertEquals("ClientBegin", decode("123:05ClientBegin: 0"));
+        assertEquals(123 * 60 + 5, this.fields[Parser.FIELD_GAMETIME]);
+    }
+
+
+    public void testDecodeHit() {
+        String line = "  1:02 Hit: 1 0 5 8: Fenix hit Bob in the Torso";
+        assertEquals("ClientHit", decode(line));
+        assertEquals(62, this.fields[Parser.FIELD_GAMETIME]);
+        assertEquals(line.indexOf(':', 5) + 1, this.fields[Parser.FIELD_INDEX]);
+        assertEquals(1, this.fields[Parser.FIELD_ARGS]);
+        assertEquals(0, this.fields[Parser.FIELD_ARGS + 1]);
+        assertEquals(5, this.fields[Parser.FIELD_ARGS + 2]);
+        assertEquals(8, this.fields[Parser.FIELD_ARGS + 3]);
+    }
+
+
+    public void testDecodeKill() {
+        assertEquals("ClientKill", decode("  1:02 Kill: 0 1 19: Fenix killed Bob by UT_MOD_LR300"));
+        assertEquals(0, this.fields[Parser.FIELD_ARGS]);
+        assertEquals(1, this.fields[Parser.FIELD_ARGS + 1]);
+        assertEquals(19, this.fields[Parser.FIELD_ARGS + 2]);
+    }
+
+
+    public void testDecodeMalformedHit() {
+        try {
+            decode("  1:02 Hit: 1 0 x 8: Fenix hit Bob");
+            fail("expecting NumberFormatException");
+        } catch (NumberFormatException e) {
+            // expected
+        }
+        try {
+            decode("  1:02 Kill: 0 1 19 Fenix killed Bob");
+            fail("expecting NumberFormatException");
+        } catch (NumberFormatException e) {
+            // expected
+        }
+    }
+
+
+    public void testParseLines() throws InterruptedException {
+
+        parse("  0:00 ClientConnect: 0");
+        parse("  0:00 ClientUserinfo: 0 \\ip\\10.0.0.1:27960\\name\\Fenix\\cl_guid\\ABCDEF");
+        parse("  0:00 ClientConnect: 1");
+        parse("  0:00 ClientUserinfo: 1 \\ip\\10.0.0.2:27960\\name\\Bob");
+        parse("  0:01 Hit: 1 0 5 19: Fenix hit Bob in the Torso");
+        parse("  0:02 kill: 0 1 19: Fenix killed Bob by UT_MOD_LR300");
+        parse("  0:03 Kill: 1022 1 6: <world> killed Bob by MOD_FALLING");
+        parse("  0:04 say: 1 Bob: gg");
+
+        assertEquals(EventType.EVT_CLIENT_CONNECT, this.queue.poll().getType());
+        assertEquals(EventType.EVT_CLIENT_CONNECT, this.queue.poll().getType());
+
+        EventClientHit hit = (EventClientHit) this.queue.poll();
+        assertEquals("Fenix", hit.getClient().name);
+        assertEquals("Bob", hit.getTarget().name);
+        assertEquals(Hitlocation.TORSO, hit.getLocation());
+        assertEquals(Mod.UT_MOD_M4, hit.getMod());
+        assertEquals(1, hit.getGameTime());
+
+        EventClientKill kill = (EventClientKill) this.queue.poll();
+        assertEquals(0, kill.getClient().slot);
+        assertEquals(2, kill.getGameTime());
+
+        assertTrue(this.queue.poll() instanceof EventClientSuicide);
+
+        EventClientSay say = (EventClientSay) this.queue.poll();
+        assertEquals("Bob", say.getClient().name);
+        assertEquals("gg", say.getMessage());
+
+        assertTrue(this.queue.isEmpty());
+        assertEquals("10.0.0.1", this.parser.getClient(0).ip);
+        assertEquals("ABCDEF", this.parser.getClient(0).guid);
+
+    }
+
+
+    public void testParseUnknownSlot() throws InterruptedException {
+        parse("  0:01 Hit: 1 0 5 19: Fenix hit Bob in the Torso");
+        parse("  0:04 say: 1 Bob: gg");
+        assertTrue(this.queue.isEmpty());
+    }
+
+}
@@ -0,0 +1,138 @@
+/**
+ * LogCheckpoint unit tests: save/load round trip, missing and corrupt checkpoint
+ * files, and the line hash check against a truncated or rewritten log file.
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.reader
+ **/
+
+package net.goreclan.reader;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import junit.framework.TestCase;
+
+public class LogCheckpointTest extends TestCase {
+
+    private static final String LINES = "  0:00 ClientConnect: 0\n  0:01 ClientConnect: 1\n";
+
+    private Path directory;
+    private Path logFile;
+    private Path checkpointFile;
+
+
+    protected void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("checkpoint");
+        this.logFile = this.directory.resolve("games.log");
+        this.checkpointFile = this.directory.resolve("games.log.offset");
+        Files.write(this.logFile, LINES.getBytes(StandardCharsets.US_ASCII));
+    }
+
+
+    protected void tearDown() throws IOException {
+        Files.deleteIfExists(this.logFile);
+        Files.deleteIfExists(this.checkpointFile);
+        Files.deleteIfExists(this.directory);
+    }
+
+
+    static long hash(String line) {
+        long hash = LineBuffer.HASH_SEED;
+        for (byte b : line.getBytes(StandardCharsets.US_ASCII))
+            hash = LineBuffer.hash(hash, b);
+        return hash;
+    }
+
+
+    private void saveLastLine() throws IOException {
+        String line = "  0:01 ClientConnect: 1";
+        new LogCheckpoint(this.checkpointFile.toString()).save(LINES.length(), line.length(), hash(line));
+    }
+
+
+    private boolean matches(LogCheckpoint checkpoint) throws IOException {
+        try (FileChannel channel = FileChannel.open(this.logFile, StandardOpenOption.READ)) {
+            return checkpoint.matches(channel);
+        }
+    }
+
+
+    public void testMissingCheckpoint() throws IOException {
+        LogCheckpoint checkpoint = new LogCheckpoint(this.checkpointFile.toString());
+        assertFalse(checkpoint.load());
+        assertEquals(-1, checkpoint.getOffset());
+    }
+
+
+    public void testCorruptCheckpoint() throws IOException {
+
+        Files.write(this.checkpointFile, "48 garbage".getBytes(StandardCharsets.US_ASCII));
+
+        try {
+            new LogCheckpoint(this.checkpointFile.toString()).load();
+            fail("expecting IOException");
+        } catch (IOException e) {
+            // expected
+        }
+
+    }
+
+
+    public void testSaveAndLoad() throws IOException {
+
+        this.saveLastLine();
+        assertFalse(Files.exists(this.directory.resolve("games.log.offset.tmp")));
+
+        LogCheckpoint checkpoint = new LogCheckpoint(this.checkpointFile.toString());
+        assertTrue(checkpoint.load());
+        assertEquals(LINES.length(), checkpoint.getOffset());
+        assertTrue(this.matches(checkpoint));
+
+    }
+
+
+    public void testTruncatedLogFile() throws IOException {
+
+        this.saveLastLine();
+        Files.write(this.logFile, "  0:00 ClientConnect: 0\n".getBytes(StandardCharsets.US_ASCII));
+
+        LogCheckpoint checkpoint = new LogCheckpoint(this.checkpointFile.toString());
+        assertTrue(checkpoint.load());
+        assertFalse(this.matches(checkpoint));
+
+    }
+
+
+    public void testRewrittenLogFile() throws IOException {
+
+        // Same size as before, but a different last line: the file has been replaced.
+        this.saveLastLine();
+        Files.delete(this.logFile);
+        Files.write(this.logFile, "  0:00 ClientConnect: 2\n  0:01 ClientConnect: 3\n".getBytes(StandardCharsets.US_ASCII));
+
+        LogCheckpoint checkpoint = new LogCheckpoint(this.checkpointFile.toString());
+        assertTrue(checkpoint.load());
+        assertFalse(this.matches(checkpoint));
+
+    }
+
+
+    public void testInvalidOffset() throws IOException {
+
+        try {
+            new LogCheckpoint(this.checkpointFile.toString()).save(10, 10, 0);
+            fail("expecting IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+    }
+
+}
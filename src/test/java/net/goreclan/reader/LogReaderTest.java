@@ -0,0 +1,233 @@
+/**
+ * LogReader unit tests: resuming from a checkpoint without replaying lines,
+ * and starting over when the log file has been truncated or rotated while
+ * the BOT was down, against a temporary games.log file.
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.reader
+ **/
+
+package net.goreclan.reader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.logging.impl.NoOpLog;
+import org.apache.log4j.Logger;
+
+import net.goreclan.event.Event;
+import net.goreclan.event.EventType;
+import net.goreclan.parser.Parser;
+
+public class LogReaderTest extends TestCase {
+
+    private Path directory;
+    private Path logFile;
+    private Path checkpointFile;
+
+    private BlockingQueue<Event> queue;
+    private LogReader reader;
+    private Thread thread;
+
+
+    protected void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("reader");
+        this.logFile = this.directory.resolve("games.log");
+        this.checkpointFile = this.directory.resolve("games.log.offset");
+        this.queue = new LinkedBlockingQueue<Event>();
+    }
+
+
+    protected void tearDown() throws Exception {
+        this.stop();
+        Files.deleteIfExists(this.logFile);
+        Files.deleteIfExists(this.checkpointFile);
+        Files.deleteIfExists(this.directory);
+    }
+
+
+    private static String connect(int slot) {
+        return "  0:0" + slot + " ClientConnect: " + slot;
+    }
+
+
+    private void write(int... slots) throws IOException {
+        StringBuilder data = new StringBuilder();
+        for (int slot : slots)
+            data.append(connect(slot)).append('\n');
+        Files.write(this.logFile, data.toString().getBytes(StandardCharsets.US_ASCII), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+
+    private void start() {
+        LogCheckpoint checkpoint = new LogCheckpoint(this.checkpointFile.toString());
+        this.reader = new LogReader(this.logFile.toString(), new Parser(Logger.getLogger(LogReaderTest.class)), this.queue, checkpoint, new NoOpLog());
+        this.thread = new Thread(this.reader, "LogReader");
+        this.thread.start();
+    }
+
+
+    private void stop() throws InterruptedException {
+        if (this.thread == null) return;
+        this.reader.shutdown();
+        this.thread.join(5000);
+        assertFalse(this.thread.isAlive());
+        this.thread = null;
+    }
+
+
+    private void assertConnected(int... slots) throws InterruptedException {
+        for (int slot : slots) {
+            Event event = this.queue.poll(5, TimeUnit.SECONDS);
+            assertNotNull("expecting ClientConnect: " + slot, event);
+            assertEquals(EventType.EVT_CLIENT_CONNECT, event.getType());
+            assertEquals(slot, event.getClient().slot);
+        }
+        assertNull(this.queue.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+
+    private long awaitCheckpoint(long offset) throws IOException, InterruptedException {
+
+        // The reader saves the checkpoint once per second: give it some time.
+        LogCheckpoint checkpoint = new LogCheckpoint(this.checkpointFile.toString());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (System.nanoTime() < deadline) {
+            try {
+                if (checkpoint.load() && checkpoint.getOffset() == offset) break;
+            } catch (IOException e) {
+                // Not overwritten yet.
+            }
+            Thread.sleep(50);
+        }
+
+        return checkpoint.getOffset();
+
+    }
+
+
+    private void saveCheckpoint(int... slots) throws IOException {
+        long offset = 0;
+        for (int slot : slots)
+            offset += connect(slot).length() + 1;
+        String last = connect(slots[slots.length - 1]);
+        new LogCheckpoint(this.checkpointFile.toString()).save(offset, last.length(), LogCheckpointTest.hash(last));
+    }
+
+
+    public void testNoCheckpointStartsFromTheEnd() throws Exception {
+
+        this.write(0, 1);
+        this.start();
+
+        // Nothing before the BOT start is parsed, and the end is checkpointed while idle.
+        assertEquals(Files.size(this.logFile), this.awaitCheckpoint(Files.size(this.logFile)));
+        this.write(2);
+        this.assertConnected(2);
+
+    }
+
+
+    public void testCorruptCheckpointStartsFromTheEnd() throws Exception {
+
+        this.write(0, 1);
+        Files.write(this.checkpointFile, "not a checkpoint".getBytes(StandardCharsets.US_ASCII));
+        this.start();
+
+        assertEquals(Files.size(this.logFile), this.awaitCheckpoint(Files.size(this.logFile)));
+        this.write(2);
+        this.assertConnected(2);
+
+    }
+
+
+    public void testResumeFromCheckpoint() throws Exception {
+
+        this.write(0, 1, 2, 3);
+        this.saveCheckpoint(0, 1);
+        this.start();
+
+        this.assertConnected(2, 3);
+        this.write(4);
+        this.assertConnected(4);
+
+    }
+
+
+    public void testNoReplayAfterRestart() throws Exception {
+
+        this.write(0);
+        this.saveCheckpoint(0);
+        this.start();
+
+        this.write(1, 2);
+        this.assertConnected(1, 2);
+        this.stop();
+
+        // The last line is saved on shutdown: nothing is parsed twice.
+        this.start();
+        this.assertConnected();
+        this.write(3);
+        this.assertConnected(3);
+
+    }
+
+
+    public void testTruncatedSinceCheckpoint() throws Exception {
+
+        this.write(0, 1, 2);
+        this.saveCheckpoint(0, 1, 2);
+
+        // Truncated and written again, but shorter than the checkpoint offset.
+        Files.delete(this.logFile);
+        this.write(5);
+        this.start();
+
+        this.assertConnected(5);
+
+    }
+
+
+    public void testRotatedSinceCheckpoint() throws Exception {
+
+        this.write(0, 1);
+        this.saveCheckpoint(0, 1);
+
+        // Recreated and already longer than the checkpoint offset: the hash doesn't match.
+        Files.delete(this.logFile);
+        this.write(4, 5, 6);
+        this.start();
+
+        this.assertConnected(4, 5, 6);
+
+    }
+
+
+    public void testTruncatedWhileReading() throws Exception {
+
+        this.write(0);
+        this.saveCheckpoint(0);
+        this.start();
+
+        this.write(1, 2);
+        this.assertConnected(1, 2);
+
+        // Truncated in place (g_logsync) and grown past the old offset by the time the reader wakes up.
+        Files.write(this.logFile, new byte[0], StandardOpenOption.TRUNCATE_EXISTING);
+        this.write(5, 6, 7, 8);
+        this.assertConnected(5, 6, 7, 8);
+
+    }
+
+}
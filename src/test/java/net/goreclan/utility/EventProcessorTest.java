@@ -0,0 +1,372 @@
+/**
+ * EventProcessor unit tests: per-slot ordering across workers, game-wide barriers,
+ * handler failures, watchdog takeover and isolation.
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.utility
+ **/
+
+package net.goreclan.utility;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.impl.NoOpLog;
+
+import net.goreclan.domain.Client;
+import net.goreclan.event.Event;
+import net.goreclan.event.EventClientHit;
+import net.goreclan.event.EventClientSay;
+import net.goreclan.event.EventGameExit;
+import net.goreclan.event.EventPool;
+import net.goreclan.event.EventType;
+import net.goreclan.iourt42.Hitlocation;
+import net.goreclan.iourt42.Mod;
+import net.goreclan.plugin.Plugin;
+
+public class EventProcessorTest extends TestCase {
+
+    private final Log log = new NoOpLog();
+    private final BlockingQueue<Event> queue = new ArrayBlockingQueue<Event>(16);
+    private final Client client = new Client();
+
+
+    protected void setUp() {
+        this.client.slot = 0;
+    }
+
+
+    /**
+     * Start the processor on a daemon thread, with partition workers
+     * so that the lanes taken over are run by daemon threads as well.
+     **/
+    private EventProcessor start(int workers, long budget) {
+
+        EventProcessor processor = new EventProcessor(this.queue, workers, this.log);
+        if (budget > 0) processor.setHandlerBudget(budget, TimeUnit.MILLISECONDS);
+
+        Thread thread = new Thread(processor, "EventProcessorTest");
+        thread.setDaemon(true);
+        thread.start();
+
+        return processor;
+
+    }
+
+
+    private static Client client(int slot) {
+        Client client = new Client();
+        client.slot = slot;
+        return client;
+    }
+
+
+    public void testEventsOfASlotStayInOrder() throws InterruptedException {
+
+        final int slots = 4;
+        final int events = 100;
+        final List<List<String>> received = new ArrayList<List<String>>();
+        final Set<String> threads = Collections.synchronizedSet(new HashSet<String>());
+        final CountDownLatch done = new CountDownLatch(slots * events);
+
+        for (int i = 0; i < slots; i++)
+            received.add(Collections.synchronizedList(new ArrayList<String>()));
+
+        EventProcessor processor = this.start(slots, 0);
+
+        processor.registerEvent(EventType.EVT_CLIENT_SAY, new EventHandler() {
+            public void onEvent(Event event) {
+                EventClientSay say = (EventClientSay) event;
+                // Slowing down one slot only, so that the workers drift apart.
+                if (say.getClient().slot == 0 && say.getMessage().endsWith("0")) {
+                    try {
+                        Thread.sleep(2);
+                    } catch (InterruptedException e) {
+                        // returning
+                    }
+                }
+                received.get(say.getClient().slot).add(say.getMessage());
+                threads.add(Thread.currentThread().getName());
+                done.countDown();
+            }
+        });
+
+        Client[] clients = new Client[slots];
+        for (int i = 0; i < slots; i++)
+            clients[i] = client(i);
+
+        for (int j = 0; j < events; j++) {
+            for (int i = 0; i < slots; i++)
+                this.queue.put(new EventClientSay(clients[i], null, String.valueOf(j)));
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(slots, threads.size());
+
+        for (int i = 0; i < slots; i++) {
+            List<String> messages = received.get(i);
+            assertEquals(events, messages.size());
+            for (int j = 0; j < events; j++)
+                assertEquals(String.valueOf(j), messages.get(j));
+        }
+
+    }
+
+
+    public void testGameWideEventWaitsForAllLanes() throws InterruptedException {
+
+        final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+
+        EventProcessor processor = this.start(2, 0);
+
+        processor.registerEvent(EventType.EVT_CLIENT_SAY, new EventHandler() {
+            public void onEvent(Event event) {
+                EventClientSay say = (EventClientSay) event;
+                if (say.getMessage().equals("slow")) {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        // returning
+                    }
+                }
+                order.add(say.getClient().slot + ":" + say.getMessage());
+                if (say.getMessage().equals("after")) done.countDown();
+            }
+        });
+
+        processor.registerEvent(EventType.EVT_GAME_EXIT, new EventHandler() {
+            public void onEvent(Event event) {
+                order.add("exit");
+            }
+        });
+
+        this.queue.put(new EventClientSay(client(0), null, "slow"));
+        this.queue.put(new EventClientSay(client(1), null, "fast"));
+        this.queue.put(new EventGameExit());
+        this.queue.put(new EventClientSay(client(1), null, "after"));
+        Thread.sleep(200);
+
+        // The lane of slot 1 is free, but the game-wide event waits for the lane of slot 0,
+        // and the events following it wait for the game-wide event.
+        assertEquals(Arrays.asList("1:fast"), new ArrayList<String>(order));
+
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("1:fast", "0:slow", "exit", "1:after"), order);
+
+    }
+
+
+    public void testHandlerErrorDoesNotStopDispatching() {
+
+        EventProcessor processor = new EventProcessor(this.queue, this.log);
+        final CountDownLatch dispatched = new CountDownLatch(1);
+
+        processor.registerEvent(EventType.EVT_CLIENT_SAY, new EventHandler() {
+            public void onEvent(Event event) {
+                throw new AssertionError("broken plugin");
+            }
+        });
+
+        processor.registerEvent(EventType.EVT_CLIENT_SAY, new EventHandler() {
+            public void onEvent(Event event) {
+                dispatched.countDown();
+            }
+        });
+
+        processor.dispatch(new EventClientSay(this.client, null, "hello"));
+
+        assertEquals(0, dispatched.getCount());
+        assertEquals(1, processor.getMetrics().get(0).getErrors());
+
+    }
+
+
+    public void testTakeOverRetainsEvent() throws InterruptedException {
+
+        final CountDownLatch stuck = new CountDownLatch(1);
+        final CountDownLatch unblock = new CountDownLatch(1);
+        final CountDownLatch returned = new CountDownLatch(1);
+        final CountDownLatch dispatched = new CountDownLatch(1);
+
+        EventPool pool = new EventPool(4);
+        EventProcessor processor = this.start(2, 50);
+
+        processor.registerEvent(EventType.EVT_CLIENT_SAY, new EventHandler() {
+            public void onEvent(Event event) {
+                stuck.countDown();
+                try {
+                    unblock.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    // returning
+                }
+                returned.countDown();
+            }
+        });
+
+        processor.registerEvent(EventType.EVT_CLIENT_SAY, new EventHandler() {
+            public void onEvent(Event event) {
+                dispatched.countDown();
+            }
+        });
+
+        Event event = pool.say(this.client, "hello");
+        this.queue.put(event);
+
+        // The watchdog takes the lane over and dispatches to the following handler.
+        assertTrue(stuck.await(5, TimeUnit.SECONDS));
+        assertTrue(dispatched.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+
+        // The stuck handler still holds the event: it must not be recycled.
+        Event other = pool.say(this.client, "other");
+        assertNotSame(event, other);
+        assertEquals(0, pool.getReused());
+
+        unblock.countDown();
+        assertTrue(returned.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+
+        assertSame(event, pool.say(this.client, "again"));
+
+    }
+
+
+    public void testIsolationIsPerHandler() throws InterruptedException {
+
+        final CountDownLatch hit = new CountDownLatch(1);
+        final String[] thread = new String[1];
+
+        EventProcessor processor = this.start(2, 50);
+
+        EventHandler handler = new EventHandler() {
+            public void onEvent(Event event) {
+                if (event instanceof EventClientSay) {
+                    try {
+                        Thread.sleep(300);
+                    } catch (InterruptedException e) {
+                        // returning
+                    }
+                } else {
+                    thread[0] = Thread.currentThread().getName();
+                    hit.countDown();
+                }
+            }
+        };
+
+        processor.registerEvent(EventType.EVT_CLIENT_SAY, handler);
+        processor.registerEvent(EventType.EVT_CLIENT_HIT, handler);
+
+        this.queue.put(new EventClientSay(this.client, null, "hello"));
+        Thread.sleep(500);
+
+        // Struck handling says, isolated for hits as well.
+        for (HandlerMetrics metrics : processor.getMetrics()) {
+            assertTrue(metrics.isIsolated());
+            assertEquals(1, metrics.getStrikes());
+        }
+
+        this.queue.put(new EventClientHit(this.client, this.client, Mod.UT_MOD_M4, Hitlocation.TORSO));
+        assertTrue(hit.await(5, TimeUnit.SECONDS));
+        assertTrue(thread[0].startsWith("EventIsolation-"));
+
+    }
+
+
+    public void testStrikesDisableTheOwningPlugin() throws InterruptedException {
+
+        final EventHandler slow = new EventHandler() {
+            public void onEvent(Event event) {
+                try {
+                    Thread.sleep(150);
+                } catch (InterruptedException e) {
+                    // returning
+                }
+            }
+        };
+
+        final EventHandler other = new EventHandler() {
+            public void onEvent(Event event) {
+                // nothing to do
+            }
+        };
+
+        // Handler objects of the plugin, not the plugin itself.
+        Plugin plugin = new Plugin() {
+            public void registerEvents(EventProcessor processor) {
+                processor.registerEvent(EventType.EVT_CLIENT_SAY, slow);
+                processor.registerEvent(EventType.EVT_CLIENT_HIT, other);
+            }
+        };
+
+        EventProcessor processor = this.start(2, 50);
+        processor.registerEvents(plugin);
+        assertTrue(processor.isSubscribed(EventType.EVT_CLIENT_HIT));
+
+        for (int i = 0; i < EventProcessor.MAX_STRIKES; i++)
+            this.queue.put(new EventClientSay(this.client, null, "hello"));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (plugin.isEnabled() && System.nanoTime() < deadline)
+            Thread.sleep(50);
+
+        // The whole plugin is disabled, including its well behaving handler.
+        assertFalse(plugin.isEnabled());
+        assertFalse(processor.isSubscribed(EventType.EVT_CLIENT_SAY));
+        assertFalse(processor.isSubscribed(EventType.EVT_CLIENT_HIT));
+
+    }
+
+
+    public void testMailboxLifecycle() {
+
+        EventProcessor processor = new EventProcessor(this.queue, this.log);
+
+        AsyncEventHandler handler = new AsyncEventHandler() {
+            public void onEvent(Event event) {
+                // nothing to do
+            }
+        };
+
+        processor.registerEvent(EventType.EVT_CLIENT_SAY, handler);
+        processor.registerEvent(EventType.EVT_CLIENT_HIT, handler);
+
+        ThreadPoolExecutor mailbox = (ThreadPoolExecutor) processor.getMetrics().get(0).getMailbox();
+        assertNotNull(mailbox);
+        assertSame(mailbox, processor.getMetrics().get(1).getMailbox());
+
+        // The mailbox is kept while the handler is subscribed to any event type.
+        processor.unregisterEvent(EventType.EVT_CLIENT_SAY, handler);
+        assertFalse(mailbox.isShutdown());
+
+        processor.unregisterEvent(EventType.EVT_CLIENT_HIT, handler);
+        assertTrue(mailbox.isShutdown());
+
+        // Subscribing again gets a new mailbox.
+        processor.registerEvent(EventType.EVT_CLIENT_SAY, handler);
+        ThreadPoolExecutor renewed = (ThreadPoolExecutor) processor.getMetrics().get(0).getMailbox();
+        assertNotSame(mailbox, renewed);
+
+        processor.unregisterEvents(handler);
+        assertTrue(renewed.isShutdown());
+        assertFalse(processor.isSubscribed(EventType.EVT_CLIENT_SAY));
+
+    }
+
+}
@@ -0,0 +1,229 @@
+/**
+ * EventRingBuffer unit tests: capacity and backpressure policies.
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.utility
+ **/
+
+package net.goreclan.utility;
+
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import net.goreclan.domain.Client;
+import net.goreclan.event.Event;
+import net.goreclan.event.EventClientHit;
+import net.goreclan.event.EventClientRadio;
+import net.goreclan.event.EventClientSay;
+import net.goreclan.iourt42.Hitlocation;
+import net.goreclan.iourt42.Mod;
+
+public class EventRingBufferTest extends TestCase {
+
+    private final Client[] clients = new Client[4];
+
+
+    protected void setUp() {
+        for (int i = 0; i < this.clients.length; i++) {
+            this.clients[i] = new Client();
+            this.clients[i].slot = i;
+        }
+    }
+
+
+    private Event hit(int slot) {
+        return new EventClientHit(this.clients[slot], this.clients[(slot + 1) % this.clients.length], Mod.UT_MOD_M4, Hitlocation.TORSO);
+    }
+
+
+    private Event say(int slot) {
+        return new EventClientSay(this.clients[slot], null, "hello");
+    }
+
+
+    private Event radio(int slot) {
+        return new EventClientRadio(this.clients[slot], 1, 1, "", "");
+    }
+
+
+    public void testCapacity() {
+        assertEquals(8, new EventRingBuffer(5, EventRingBuffer.Policy.BLOCK).getCapacity());
+        assertEquals(8, new EventRingBuffer(8, EventRingBuffer.Policy.BLOCK).getCapacity());
+        try {
+            new EventRingBuffer(1, EventRingBuffer.Policy.BLOCK);
+            fail("expecting IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+
+    public void testFifoAcrossWrap() {
+
+        EventRingBuffer queue = new EventRingBuffer(4, EventRingBuffer.Policy.BLOCK);
+
+        for (int round = 0; round < 3; round++) {
+            Event[] events = { say(0), say(1), say(2) };
+            for (Event event : events)
+                assertTrue(queue.offer(event));
+            for (Event event : events)
+                assertSame(event, queue.poll());
+            assertNull(queue.poll());
+        }
+
+        assertEquals(9, queue.getPublished());
+
+    }
+
+
+    public void testBlock() throws InterruptedException {
+
+        EventRingBuffer queue = new EventRingBuffer(4, EventRingBuffer.Policy.BLOCK);
+
+        for (int i = 0; i < 4; i++)
+            assertTrue(queue.offer(hit(0)));
+
+        assertFalse(queue.offer(hit(0)));
+        assertFalse(queue.offer(say(0), 10, TimeUnit.MILLISECONDS));
+        assertEquals(0, queue.remainingCapacity());
+        assertEquals(0, queue.getDropped());
+
+        queue.poll();
+        assertTrue(queue.offer(say(0)));
+
+    }
+
+
+    public void testBlockedProducerResumes() throws Exception {
+
+        final EventRingBuffer queue = new EventRingBuffer(2, EventRingBuffer.Policy.BLOCK);
+        final Event last = say(3);
+
+        Thread producer = new Thread() {
+            public void run() {
+                try {
+                    for (int i = 0; i < 10; i++)
+                        queue.put(hit(i % 4));
+                    queue.put(last);
+                } catch (InterruptedException e) {
+                    // test failure: the last event is never taken
+                }
+            }
+        };
+
+        producer.start();
+
+        for (int i = 0; i < 10; i++)
+            assertNotNull(queue.poll(5, TimeUnit.SECONDS));
+
+        assertSame(last, queue.poll(5, TimeUnit.SECONDS));
+        producer.join(5000);
+
+    }
+
+
+    public void testDropLowPriority() {
+
+        EventRingBuffer queue = new EventRingBuffer(8, EventRingBuffer.Policy.DROP_LOW_PRIORITY);
+
+        // Up to the watermark (3/4 of the capacity) everything is accepted.
+        for (int i = 0; i < 6; i++)
+            assertTrue(queue.offer(hit(0)));
+
+        assertTrue(queue.offer(hit(1)));
+        assertTrue(queue.offer(radio(1)));
+        assertEquals(6, queue.size());
+        assertEquals(2, queue.getDropped());
+
+        // Other events still get the remaining space, then the producer has to wait.
+        assertTrue(queue.offer(say(0)));
+        assertTrue(queue.offer(say(1)));
+        assertFalse(queue.offer(say(2)));
+        assertEquals(8, queue.size());
+
+    }
+
+
+    public void testCoalesceByTypeAndClient() {
+
+        EventRingBuffer queue = new EventRingBuffer(8, EventRingBuffer.Policy.COALESCE);
+
+        for (int i = 0; i < 6; i++)
+            assertTrue(queue.offer(say(0)));
+
+        Event hit0 = hit(0), hit1 = hit(1), radio0 = radio(0), hit0b = hit(0);
+
+        assertTrue(queue.offer(hit0));
+        assertTrue(queue.offer(hit1));
+        assertTrue(queue.offer(radio0));
+        assertTrue(queue.offer(hit0b));
+
+        // The latest hit of client 0 replaced the previous one and moved to the end.
+        assertEquals(6 + 3, queue.size());
+        assertEquals(1, queue.getCoalesced());
+
+        for (int i = 0; i < 6; i++)
+            assertTrue(queue.poll() instanceof EventClientSay);
+
+        // Handed to the consumer in arrival order, with no further put().
+        assertSame(hit1, queue.peek());
+        assertSame(hit1, queue.poll());
+        assertSame(radio0, queue.poll());
+        assertSame(hit0b, queue.poll());
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+
+    }
+
+
+    public void testCoalescedPublishedBeforeLaterEvents() {
+
+        EventRingBuffer queue = new EventRingBuffer(8, EventRingBuffer.Policy.COALESCE);
+
+        for (int i = 0; i < 6; i++)
+            assertTrue(queue.offer(say(0)));
+
+        Event hit1 = hit(1), hit2 = hit(2), hit3 = hit(3);
+
+        queue.offer(hit1);
+        queue.offer(hit2);
+
+        // Room again: the events put aside are published before the new one.
+        queue.poll();
+        queue.poll();
+        queue.poll();
+        assertTrue(queue.offer(hit3));
+
+        for (int i = 0; i < 3; i++)
+            assertTrue(queue.poll() instanceof EventClientSay);
+
+        assertSame(hit1, queue.poll());
+        assertSame(hit2, queue.poll());
+        assertSame(hit3, queue.poll());
+        assertNull(queue.poll());
+
+    }
+
+
+    public void testTakeCoalescedWhenQuiet() throws InterruptedException {
+
+        EventRingBuffer queue = new EventRingBuffer(4, EventRingBuffer.Policy.COALESCE);
+
+        for (int i = 0; i < 3; i++)
+            queue.offer(say(0));
+
+        Event hit = hit(2);
+        queue.offer(hit);
+
+        for (int i = 0; i < 3; i++)
+            queue.take();
+
+        assertSame(hit, queue.poll(1, TimeUnit.SECONDS));
+        assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+
+    }
+
+}
@@ -0,0 +1,218 @@
+/**
+ * PriorityEventQueue unit tests: lanes, starvation protection, bulk spill and telemetry drops.
+ *
+ * @author      agent
+ * @version     1.0
+ * @copyright   agent, 18 October, 2026
+ * @package     net.goreclan.utility
+ **/
+
+package net.goreclan.utility;
+
+import java.util.EnumSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import net.goreclan.domain.Client;
+import net.goreclan.event.Event;
+import net.goreclan.event.EventClientHit;
+import net.goreclan.event.EventClientKill;
+import net.goreclan.event.EventClientSay;
+import net.goreclan.event.EventGameExit;
+import net.goreclan.event.EventType;
+import net.goreclan.iourt42.Hitlocation;
+import net.goreclan.iourt42.Mod;
+
+public class PriorityEventQueueTest extends TestCase {
+
+    private final Client client = new Client();
+
+
+    private Event hit() {
+        return new EventClientHit(this.client, this.client, Mod.UT_MOD_M4, Hitlocation.TORSO);
+    }
+
+
+    private Event kill() {
+        return new EventClientKill(this.client, this.client, Mod.UT_MOD_M4);
+    }
+
+
+    private Event say() {
+        return new EventClientSay(this.client, null, "!kick bob");
+    }
+
+
+    private PriorityEventQueue queue(int bulk, int spill) {
+        return new PriorityEventQueue(new ArrayBlockingQueue<Event>(8), new ArrayBlockingQueue<Event>(bulk), spill);
+    }
+
+
+    public void testHighPriorityFirst() {
+
+        PriorityEventQueue queue = queue(8, 0);
+        Event hit = hit(), say = say();
+
+        queue.offer(hit);
+        queue.offer(say);
+
+        assertSame(say, queue.peek());
+        assertSame(say, queue.poll());
+        assertSame(hit, queue.poll());
+        assertNull(queue.poll());
+
+    }
+
+
+    public void testStarvation() {
+
+        PriorityEventQueue queue = new PriorityEventQueue(new ArrayBlockingQueue<Event>(8), new ArrayBlockingQueue<Event>(8), EnumSet.of(EventType.EVT_CLIENT_SAY), 2, 0);
+        Event hit = hit();
+
+        queue.offer(hit);
+        for (int i = 0; i < 3; i++)
+            queue.offer(say());
+
+        assertTrue(queue.poll() instanceof EventClientSay);
+        assertTrue(queue.poll() instanceof EventClientSay);
+        assertSame(hit, queue.poll());
+        assertTrue(queue.poll() instanceof EventClientSay);
+
+    }
+
+
+    public void testWithoutSpillBulkLaneIsBounded() throws InterruptedException {
+
+        PriorityEventQueue queue = queue(2, 0);
+
+        assertTrue(queue.offer(hit()));
+        assertTrue(queue.offer(hit()));
+        assertFalse(queue.offer(hit()));
+        assertFalse(queue.offer(hit(), 10, TimeUnit.MILLISECONDS));
+        assertEquals(0, queue.getDropped());
+
+    }
+
+
+    public void testSpillKeepsBulkOrder() throws InterruptedException {
+
+        PriorityEventQueue queue = queue(2, 4);
+        Event[] hits = { hit(), hit(), hit(), hit(), hit() };
+
+        for (Event hit : hits)
+            queue.put(hit);
+
+        assertEquals(5, queue.size());
+
+        // Room in the bulk lane again: the following events still go after the spilled ones.
+        assertSame(hits[0], queue.poll());
+        Event late = hit();
+        queue.put(late);
+
+        for (int i = 1; i < hits.length; i++)
+            assertSame(hits[i], queue.poll());
+
+        assertSame(late, queue.poll());
+        assertTrue(queue.isEmpty());
+
+    }
+
+
+    public void testReaderNeverWaitsOnBulk() throws InterruptedException {
+
+        PriorityEventQueue queue = queue(2, 2);
+
+        for (int i = 0; i < 6; i++)
+            queue.put(hit());
+
+        // The bulk lane and the spill are full: hits are dropped, chat goes through.
+        assertEquals(2, queue.getDropped());
+        assertFalse(queue.offer(hit()));
+
+        Event say = say();
+        queue.put(say);
+        assertSame(say, queue.poll());
+
+        // Game-wide events are never dropped: the producer waits for room in the spill,
+        // which the consumer gets to once it has drained the bulk lane.
+        final PriorityEventQueue full = queue;
+        Thread consumer = new Thread() {
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 3; i++)
+                    full.poll();
+            }
+        };
+
+        consumer.start();
+        Event exit = new EventGameExit();
+        queue.put(exit);
+        consumer.join();
+
+        assertEquals(2, queue.getDropped());
+        assertEquals(2, queue.size());
+        assertTrue(queue.poll() instanceof EventClientHit);
+        assertSame(exit, queue.poll());
+
+    }
+
+
+    public void testKillIsNeverDropped() throws InterruptedException {
+
+        final PriorityEventQueue queue = queue(1, 1);
+
+        for (int i = 0; i < 3; i++)
+            queue.put(hit());
+
+        assertEquals(1, queue.getDropped());
+
+        // Plugins keep state out of kills: the producer waits for room in the spill.
+        final Event kill = kill();
+        Thread producer = new Thread() {
+            public void run() {
+                try {
+                    queue.put(kill);
+                } catch (InterruptedException e) {
+                    // returning
+                }
+            }
+        };
+
+        producer.start();
+        producer.join(200);
+        assertTrue(producer.isAlive());
+
+        assertTrue(queue.poll() instanceof EventClientHit);
+        assertTrue(queue.poll() instanceof EventClientHit);
+        producer.join(5000);
+        assertFalse(producer.isAlive());
+
+        assertSame(kill, queue.poll());
+        assertEquals(1, queue.getDropped());
+
+    }
+
+
+    public void testTelemetryIsConfigurable() throws InterruptedException {
+
+        PriorityEventQueue queue = new PriorityEventQueue(new ArrayBlockingQueue<Event>(8), new ArrayBlockingQueue<Event>(1),
+                PriorityEventQueue.DEFAULT_HIGH_PRIORITY, PriorityEventQueue.DEFAULT_MAX_BURST, 1, EnumSet.of(EventType.EVT_CLIENT_KILL));
+
+        for (int i = 0; i < 3; i++)
+            queue.put(kill());
+
+        assertEquals(1, queue.getDropped());
+
+        // Hits are not telemetry anymore: they wait as well.
+        assertFalse(queue.offer(hit(), 10, TimeUnit.MILLISECONDS));
+        assertEquals(1, queue.getDropped());
+
+    }
+
+}